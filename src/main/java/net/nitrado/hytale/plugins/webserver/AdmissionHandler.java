@@ -0,0 +1,351 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import net.nitrado.hytale.plugins.webserver.config.LimitsConfig;
+import net.nitrado.hytale.plugins.webserver.metrics.MetricsRegistry;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.thread.Scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Handler that caps the number of concurrently handled requests, globally and per plugin path prefix.
+ * <p>
+ * Requests exceeding a cap wait in a bounded queue without blocking a thread. A request first acquires a
+ * permit of its plugin and then a global one, so that a saturated plugin only ever occupies its own share
+ * of the global capacity. Requests that do not fit into a queue, or wait longer than the queue timeout,
+ * are answered with {@code 503 Service Unavailable} and a {@code Retry-After} header.
+ * </p>
+ * <p>
+ * This class is not part of the public API.
+ * </p>
+ */
+final class AdmissionHandler extends Handler.Wrapper {
+
+    private enum Result { ACQUIRED, QUEUED, REJECTED }
+
+    private static final class Limit {
+        private volatile int maxActive;
+        private int maxQueued;
+        private final ArrayDeque<Admission> queue = new ArrayDeque<>();
+        private int active;
+
+        Limit(int maxActive, int maxQueued) {
+            this.maxActive = maxActive;
+            this.maxQueued = Math.max(0, maxQueued);
+        }
+
+        /**
+         * Whether the limit caps requests at all. A limit of zero or less is unlimited.
+         */
+        boolean isLimited() {
+            return this.maxActive > 0;
+        }
+
+        /**
+         * Changes the limit, handing out permits to queued admissions if it grew.
+         *
+         * @return the admissions that received a permit
+         */
+        synchronized List<Admission> resize(int maxActive, int maxQueued) {
+            this.maxActive = maxActive;
+            this.maxQueued = Math.max(0, maxQueued);
+
+            var granted = new ArrayList<Admission>();
+            while (!this.queue.isEmpty() && (maxActive <= 0 || this.active < maxActive)) {
+                this.active++;
+                granted.add(this.queue.poll());
+            }
+            return granted;
+        }
+
+        synchronized Result acquire(Admission admission) {
+            if (this.maxActive <= 0 || this.active < this.maxActive) {
+                this.active++;
+                return Result.ACQUIRED;
+            }
+
+            if (this.queue.size() >= this.maxQueued) {
+                return Result.REJECTED;
+            }
+
+            this.queue.add(admission);
+            return Result.QUEUED;
+        }
+
+        synchronized boolean remove(Admission admission) {
+            return this.queue.remove(admission);
+        }
+
+        /**
+         * Releases a permit, or hands it over to the next queued admission.
+         *
+         * @return the admission that received the permit, or null if none was queued
+         */
+        synchronized Admission release() {
+            var next = this.queue.poll();
+            if (next == null) {
+                this.active--;
+            }
+            return next;
+        }
+
+        synchronized int getQueued() {
+            return this.queue.size();
+        }
+    }
+
+    private final class Admission {
+        private final Request request;
+        private final Response response;
+        private final Callback callback;
+        private final Limit pluginLimit;
+        private boolean pluginAcquired;
+        private boolean globalAcquired;
+        private Limit waitingOn;
+        private Scheduler.Task timeout;
+
+        Admission(Request request, Response response, Callback callback, Limit pluginLimit) {
+            this.request = request;
+            this.response = response;
+            this.callback = callback;
+            this.pluginLimit = pluginLimit;
+        }
+
+        /**
+         * Acquires the remaining permits.
+         *
+         * @return true if all permits were acquired, false if the admission was queued or rejected
+         */
+        synchronized boolean acquire() {
+            if (this.pluginLimit != null && !this.pluginAcquired) {
+                if (!this.acquire(this.pluginLimit)) {
+                    return false;
+                }
+                this.pluginAcquired = true;
+            }
+
+            if (!this.globalAcquired) {
+                if (!this.acquire(globalLimit)) {
+                    return false;
+                }
+                this.globalAcquired = true;
+            }
+
+            if (this.timeout != null) {
+                this.timeout.cancel();
+                this.timeout = null;
+            }
+            return true;
+        }
+
+        private boolean acquire(Limit limit) {
+            switch (limit.acquire(this)) {
+                case ACQUIRED -> {
+                    return true;
+                }
+                case QUEUED -> {
+                    this.waitingOn = limit;
+                    if (this.timeout == null) {
+                        this.timeout = this.request.getComponents().getScheduler()
+                                .schedule(this::expire, queueTimeout, TimeUnit.MILLISECONDS);
+                    }
+                    return false;
+                }
+                default -> {
+                    if (this.timeout != null) {
+                        this.timeout.cancel();
+                        this.timeout = null;
+                    }
+                    this.releasePermits();
+                    reject(this.request, this.response, this.callback);
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * Called when a queued admission received the permit it was waiting for.
+         */
+        synchronized void granted(Limit limit) {
+            if (limit == this.pluginLimit && !this.pluginAcquired) {
+                this.pluginAcquired = true;
+            } else {
+                this.globalAcquired = true;
+            }
+            this.waitingOn = null;
+
+            if (this.acquire()) {
+                getServer().getThreadPool().execute(this::handleAdmitted);
+            }
+        }
+
+        private synchronized void expire() {
+            var limit = this.waitingOn;
+            if (limit == null || !limit.remove(this)) {
+                return;
+            }
+
+            this.waitingOn = null;
+            this.timeout = null;
+            this.releasePermits();
+            reject(this.request, this.response, this.callback);
+        }
+
+        private void handleAdmitted() {
+            var admittedCallback = Callback.from(this.callback, this::releasePermits);
+            try {
+                if (!AdmissionHandler.super.handle(this.request, this.response, admittedCallback)) {
+                    Response.writeError(this.request, this.response, admittedCallback, HttpStatus.NOT_FOUND_404);
+                }
+            } catch (Throwable t) {
+                Response.writeError(this.request, this.response, admittedCallback, t);
+            }
+        }
+
+        private synchronized void releasePermits() {
+            if (this.globalAcquired) {
+                this.globalAcquired = false;
+                release(globalLimit);
+            }
+            if (this.pluginAcquired) {
+                this.pluginAcquired = false;
+                release(this.pluginLimit);
+            }
+        }
+    }
+
+    private final Limit globalLimit;
+    private final Map<String, Limit> pluginLimits = new ConcurrentHashMap<>();
+    private volatile int maxPerPlugin;
+    private volatile int maxQueuedPerPlugin;
+    private volatile long queueTimeout;
+    private volatile String retryAfter;
+    private final LongAdder rejected = new LongAdder();
+
+    AdmissionHandler(LimitsConfig config) {
+        this.globalLimit = new Limit(config.getMaxConcurrentRequests(), config.getMaxQueuedRequests());
+        this.maxPerPlugin = config.getMaxConcurrentRequestsPerPlugin();
+        this.maxQueuedPerPlugin = config.getMaxQueuedRequestsPerPlugin();
+        this.queueTimeout = config.getQueueTimeout();
+        this.retryAfter = String.valueOf(config.getRetryAfter());
+    }
+
+    /**
+     * Applies changed limits to the running handler. Queued requests are admitted if a limit grew.
+     */
+    void reconfigure(LimitsConfig config) {
+        this.maxPerPlugin = config.getMaxConcurrentRequestsPerPlugin();
+        this.maxQueuedPerPlugin = config.getMaxQueuedRequestsPerPlugin();
+        this.queueTimeout = config.getQueueTimeout();
+        this.retryAfter = String.valueOf(config.getRetryAfter());
+
+        this.grant(this.globalLimit, this.globalLimit.resize(config.getMaxConcurrentRequests(), config.getMaxQueuedRequests()));
+        for (var limit : this.pluginLimits.values()) {
+            this.grant(limit, limit.resize(this.maxPerPlugin, this.maxQueuedPerPlugin));
+        }
+    }
+
+    /**
+     * Whether this handler would limit any request for the given configuration.
+     */
+    static boolean isEnabled(LimitsConfig config) {
+        return config.getMaxConcurrentRequests() > 0 || config.getMaxConcurrentRequestsPerPlugin() > 0;
+    }
+
+    void register(String prefix) {
+        this.pluginLimits.computeIfAbsent(prefix, k -> new Limit(this.maxPerPlugin, this.maxQueuedPerPlugin));
+    }
+
+    void unregister(String prefix) {
+        this.pluginLimits.remove(prefix);
+    }
+
+    void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("webserver_admission_queued", "Requests waiting for a concurrency limit", this::getQueuedRequests);
+        metrics.counter("webserver_admission_rejected_total", "Requests rejected by a concurrency limit", this.rejected::sum);
+    }
+
+    long getQueuedRequests() {
+        long queued = this.globalLimit.getQueued();
+        for (var limit : this.pluginLimits.values()) {
+            queued += limit.getQueued();
+        }
+        return queued;
+    }
+
+    @Override
+    public boolean handle(Request request, Response response, Callback callback) throws Exception {
+        var pluginLimit = this.findPluginLimit(Request.getPathInContext(request));
+        if (pluginLimit != null && !pluginLimit.isLimited()) {
+            pluginLimit = null;
+        }
+        if (pluginLimit == null && !this.globalLimit.isLimited()) {
+            return super.handle(request, response, callback);
+        }
+
+        var admission = new Admission(request, response, callback, pluginLimit);
+        if (!admission.acquire()) {
+            // Queued or rejected, the request is completed asynchronously in either case
+            return true;
+        }
+
+        var admittedCallback = Callback.from(callback, admission::releasePermits);
+        try {
+            if (super.handle(request, response, admittedCallback)) {
+                return true;
+            }
+        } catch (Throwable t) {
+            admission.releasePermits();
+            throw t;
+        }
+
+        admission.releasePermits();
+        return false;
+    }
+
+    private void grant(Limit limit, List<Admission> admissions) {
+        for (var admission : admissions) {
+            admission.granted(limit);
+        }
+    }
+
+    private void release(Limit limit) {
+        var next = limit.release();
+        if (next != null) {
+            next.granted(limit);
+        }
+    }
+
+    private void reject(Request request, Response response, Callback callback) {
+        this.rejected.increment();
+        response.getHeaders().put(HttpHeader.RETRY_AFTER, this.retryAfter);
+        Response.writeError(request, response, callback, HttpStatus.SERVICE_UNAVAILABLE_503);
+    }
+
+    private Limit findPluginLimit(String path) {
+        if (path == null || this.pluginLimits.isEmpty()) {
+            return null;
+        }
+
+        // Plugin prefixes are always "/<group>/<name>"
+        int groupEnd = path.indexOf('/', 1);
+        if (groupEnd < 0) {
+            return null;
+        }
+        int nameEnd = path.indexOf('/', groupEnd + 1);
+        var prefix = nameEnd < 0 ? path : path.substring(0, nameEnd);
+
+        return this.pluginLimits.get(prefix);
+    }
+}
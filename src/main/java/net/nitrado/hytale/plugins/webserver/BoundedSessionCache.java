@@ -0,0 +1,113 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import net.nitrado.hytale.plugins.webserver.metrics.MetricsRegistry;
+import org.eclipse.jetty.session.DefaultSessionCache;
+import org.eclipse.jetty.session.ManagedSession;
+import org.eclipse.jetty.session.SessionManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Session cache that keeps at most a configured number of sessions in memory.
+ * <p>
+ * When a new session would exceed the limit, the least recently used session is invalidated. The cache
+ * also estimates the memory held by its sessions, which is exposed as a metric together with the number
+ * of sessions.
+ * </p>
+ * <p>
+ * This class is not part of the public API.
+ * </p>
+ */
+final class BoundedSessionCache extends DefaultSessionCache {
+
+    // Rough per-session overhead of the session object, its data and the cache entry
+    private static final long SESSION_OVERHEAD = 512;
+
+    private final Map<String, ManagedSession> sessions;
+    private final LongAdder evicted = new LongAdder();
+    private volatile int maxSessions;
+
+    BoundedSessionCache(SessionManager manager, int maxSessions) {
+        this(manager, new ConcurrentHashMap<>(), maxSessions);
+    }
+
+    private BoundedSessionCache(SessionManager manager, ConcurrentHashMap<String, ManagedSession> sessions, int maxSessions) {
+        super(manager, sessions);
+        this.sessions = sessions;
+        this.maxSessions = maxSessions;
+    }
+
+    void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+        this.evictOverLimit();
+    }
+
+    void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("webserver_sessions", "Sessions held in memory", this.sessions::size);
+        metrics.gauge("webserver_sessions_bytes", "Estimated memory held by sessions", this::estimateSize);
+        metrics.counter("webserver_sessions_evicted_total", "Sessions invalidated to stay within the session limit", this.evicted::sum);
+    }
+
+    @Override
+    public ManagedSession doPutIfAbsent(String id, ManagedSession session) {
+        var existing = super.doPutIfAbsent(id, session);
+        if (existing == null) {
+            this.evictOverLimit();
+        }
+        return existing;
+    }
+
+    private void evictOverLimit() {
+        int max = this.maxSessions;
+        if (max <= 0) {
+            return;
+        }
+
+        while (this.sessions.size() > max) {
+            ManagedSession oldest = null;
+            for (var session : this.sessions.values()) {
+                if (oldest == null || session.getLastAccessedTime() < oldest.getLastAccessedTime()) {
+                    oldest = session;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+
+            try {
+                oldest.invalidate();
+            } catch (IllegalStateException e) {
+                // Already invalidated concurrently
+            }
+            this.sessions.remove(oldest.getId(), oldest);
+            this.evicted.increment();
+        }
+    }
+
+    private long estimateSize() {
+        long total = 0;
+        for (var session : this.sessions.values()) {
+            total += SESSION_OVERHEAD + 2L * session.getId().length();
+            for (var name : session.getAttributeNames()) {
+                total += 2L * name.length() + estimateSize(session.getAttribute(name));
+            }
+        }
+        return total;
+    }
+
+    private static long estimateSize(Object value) {
+        if (value instanceof String s) {
+            return 40 + 2L * s.length();
+        }
+        if (value instanceof UUID) {
+            return 32;
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return 16;
+        }
+        return 64;
+    }
+}
@@ -0,0 +1,70 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import net.nitrado.hytale.plugins.webserver.config.WebServerConfig;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.util.Objects;
+
+/**
+ * Compares configuration objects field by field, so that a reload only touches what actually changed.
+ * <p>
+ * The configuration classes are plain codec-backed holders without {@code equals}, so their fields are
+ * compared reflectively, descending into nested configuration objects and arrays.
+ * </p>
+ * <p>
+ * This class is not part of the public API.
+ * </p>
+ */
+final class ConfigDiff {
+
+    private static final String CONFIG_PACKAGE = WebServerConfig.class.getPackageName();
+
+    private ConfigDiff() {}
+
+    static boolean changed(Object a, Object b) {
+        return !equal(a, b);
+    }
+
+    private static boolean equal(Object a, Object b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null || a.getClass() != b.getClass()) {
+            return false;
+        }
+
+        var type = a.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(a);
+            if (length != Array.getLength(b)) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (!equal(Array.get(a, i), Array.get(b, i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        if (!type.getPackageName().equals(CONFIG_PACKAGE)) {
+            return Objects.equals(a, b);
+        }
+
+        for (var field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                if (!equal(field.get(a), field.get(b))) {
+                    return false;
+                }
+            } catch (IllegalAccessException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
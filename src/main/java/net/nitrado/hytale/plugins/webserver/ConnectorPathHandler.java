@@ -0,0 +1,110 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.Callback;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Handler that restricts which paths are served by which connector.
+ * <p>
+ * A connector with a list of paths only serves requests below these paths. Paths marked as exclusive are
+ * only served by their own connector. All other requests receive {@code 404 Not Found}, so that the
+ * existence of an internal endpoint is not revealed on the public connector.
+ * </p>
+ * <p>
+ * This class is not part of the public API.
+ * </p>
+ */
+final class ConnectorPathHandler extends Handler.Wrapper {
+
+    private record ExclusivePath(String path, Connector owner) {}
+
+    // Connectors may be added while the server is running, when TLS setup is deferred
+    private final Map<Connector, String[]> connectorPaths = new ConcurrentHashMap<>();
+    private final List<ExclusivePath> exclusivePaths = new CopyOnWriteArrayList<>();
+
+    ConnectorPathHandler(Handler handler) {
+        super(handler);
+    }
+
+    /**
+     * Restricts a connector to the given paths. Must be called before the connector is started.
+     *
+     * @param connector the connector
+     * @param paths     the path prefixes the connector serves
+     * @param exclusive whether the paths are no longer served by other connectors
+     */
+    void restrict(Connector connector, String[] paths, boolean exclusive) {
+        if (paths.length > 0) {
+            this.connectorPaths.put(connector, paths);
+        }
+
+        if (exclusive) {
+            for (var path : paths) {
+                this.exclusivePaths.add(new ExclusivePath(path, connector));
+            }
+        }
+    }
+
+    /**
+     * Removes all restrictions of a connector, e.g. after it has been stopped for good.
+     */
+    void unrestrict(Connector connector) {
+        this.connectorPaths.remove(connector);
+        this.exclusivePaths.removeIf(exclusive -> exclusive.owner() == connector);
+    }
+
+    @Override
+    public boolean handle(Request request, Response response, Callback callback) throws Exception {
+        if (this.connectorPaths.isEmpty() && this.exclusivePaths.isEmpty()) {
+            return super.handle(request, response, callback);
+        }
+
+        var connector = request.getConnectionMetaData().getConnector();
+        var path = Request.getPathInContext(request);
+
+        if (path != null && !this.isAllowed(connector, path)) {
+            Response.writeError(request, response, callback, HttpStatus.NOT_FOUND_404);
+            return true;
+        }
+
+        return super.handle(request, response, callback);
+    }
+
+    private boolean isAllowed(Connector connector, String path) {
+        var paths = this.connectorPaths.get(connector);
+        if (paths != null) {
+            for (var prefix : paths) {
+                if (matches(prefix, path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        for (var exclusive : this.exclusivePaths) {
+            if (exclusive.owner() != connector && matches(exclusive.path(), path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String prefix, String path) {
+        if (prefix.equals("/") || prefix.isEmpty()) {
+            return true;
+        }
+        if (prefix.endsWith("/")) {
+            prefix = prefix.substring(0, prefix.length() - 1);
+        }
+        return path.equals(prefix) || path.startsWith(prefix) && path.charAt(prefix.length()) == '/';
+    }
+}
@@ -0,0 +1,306 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.eclipse.jetty.session.AbstractSessionDataStore;
+import org.eclipse.jetty.session.SessionData;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Session data store that persists sessions to a single file, so that users stay logged in across restarts.
+ * <p>
+ * Stored sessions are kept in memory and written to the file in batches by a background thread, and once
+ * more when the store stops. The file is only read on first access, and written to a temporary file first,
+ * so that a crash never leaves a partially written file behind.
+ * </p>
+ * <p>
+ * Only attributes of type {@link String}, {@link java.util.UUID}, the boxed primitives, and the cached
+ * {@link net.nitrado.hytale.plugins.webserver.authentication.HytaleUserPrincipal} are restored; sessions with
+ * other attributes are dropped when loading.
+ * </p>
+ * <p>
+ * This class is not part of the public API.
+ * </p>
+ */
+final class FileSessionStore extends AbstractSessionDataStore {
+
+    private static final int FORMAT_VERSION = 1;
+
+    // Session attributes are deserialized from disk, so only the classes that the web server stores in sessions
+    // are accepted. Number is the superclass of the boxed numbers, and the principal only holds a String and a UUID.
+    private static final ObjectInputFilter ATTRIBUTE_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=10;maxrefs=10000;java.lang.String;java.util.UUID;java.lang.Boolean;java.lang.Character;"
+                    + "java.lang.Number;java.lang.Byte;java.lang.Short;java.lang.Integer;java.lang.Long;java.lang.Float;"
+                    + "java.lang.Double;net.nitrado.hytale.plugins.webserver.authentication.HytaleUserPrincipal;!*");
+
+    private record StoredSession(long created, long accessed, long lastAccessed, long maxInactiveMs, long expiry,
+                                 long cookieSet, String lastNode, byte[] attributes) {}
+
+    private final Path file;
+    private final long flushInterval;
+    private final HytaleLogger logger;
+    private final Map<String, StoredSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile boolean loaded;
+    private ScheduledExecutorService flusher;
+
+    FileSessionStore(Path file, long flushInterval, HytaleLogger logger) {
+        this.file = file;
+        this.flushInterval = flushInterval;
+        this.logger = logger;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "WebServer-session-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, this.flushInterval, this.flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        // Sessions are passivated into this store while the context stops, so flush them once more afterwards
+        this.flusher.shutdown();
+        this.flusher.awaitTermination(5, TimeUnit.SECONDS);
+        this.flushQuietly();
+
+        super.doStop();
+    }
+
+    @Override
+    public boolean isPassivating() {
+        return true;
+    }
+
+    @Override
+    public boolean doExists(String id) {
+        this.ensureLoaded();
+
+        var session = this.sessions.get(id);
+        return session != null && !isExpired(session, System.currentTimeMillis());
+    }
+
+    @Override
+    public boolean delete(String id) {
+        this.ensureLoaded();
+
+        if (this.sessions.remove(id) == null) {
+            return false;
+        }
+        this.dirty.set(true);
+        return true;
+    }
+
+    @Override
+    public void doStore(String id, SessionData data, long lastSaveTime) throws Exception {
+        this.ensureLoaded();
+
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            SessionData.serializeAttributes(data, out);
+        }
+
+        this.sessions.put(id, new StoredSession(data.getCreated(), data.getAccessed(), data.getLastAccessed(),
+                data.getMaxInactiveMs(), data.getExpiry(), data.getCookieSet(), data.getLastNode(), bytes.toByteArray()));
+        this.dirty.set(true);
+    }
+
+    @Override
+    public SessionData doLoad(String id) throws Exception {
+        this.ensureLoaded();
+
+        var session = this.sessions.get(id);
+        if (session == null) {
+            return null;
+        }
+
+        var data = this.newSessionData(id, session.created(), session.accessed(), session.lastAccessed(), session.maxInactiveMs());
+        data.setExpiry(session.expiry());
+        data.setCookieSet(session.cookieSet());
+        data.setLastNode(session.lastNode());
+
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(session.attributes()))) {
+            in.setObjectInputFilter(ATTRIBUTE_FILTER);
+            SessionData.deserializeAttributes(data, in);
+        }
+
+        return data;
+    }
+
+    @Override
+    public Set<String> doCheckExpired(Set<String> candidates, long time) {
+        this.ensureLoaded();
+
+        var expired = new HashSet<String>();
+        for (var id : candidates) {
+            var session = this.sessions.get(id);
+            if (session == null || isExpired(session, time)) {
+                expired.add(id);
+            }
+        }
+        return expired;
+    }
+
+    @Override
+    public Set<String> doGetExpired(long before) {
+        this.ensureLoaded();
+
+        var expired = new HashSet<String>();
+        for (var entry : this.sessions.entrySet()) {
+            if (isExpired(entry.getValue(), before)) {
+                expired.add(entry.getKey());
+            }
+        }
+        return expired;
+    }
+
+    @Override
+    public void doCleanOrphans(long time) {
+        this.ensureLoaded();
+
+        if (this.sessions.values().removeIf(session -> isExpired(session, time))) {
+            this.dirty.set(true);
+        }
+    }
+
+    private static boolean isExpired(StoredSession session, long time) {
+        return session.expiry() > 0 && session.expiry() <= time;
+    }
+
+    /**
+     * Reads the file on first access, rather than when the plugin starts.
+     */
+    private void ensureLoaded() {
+        if (this.loaded) {
+            return;
+        }
+
+        synchronized (this) {
+            if (this.loaded) {
+                return;
+            }
+
+            try {
+                this.read();
+            } catch (IOException e) {
+                this.logger.atWarning().withCause(e).log("Failed to read sessions from %s, starting without them", this.file);
+            }
+            this.loaded = true;
+        }
+    }
+
+    private void read() throws IOException {
+        if (!Files.exists(this.file)) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                this.logger.atWarning().log("Ignoring sessions in %s written by an incompatible version", this.file);
+                return;
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                var id = in.readUTF();
+                var session = new StoredSession(in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                        in.readLong(), in.readLong(), in.readBoolean() ? in.readUTF() : null, in.readNBytes(in.readInt()));
+
+                if (!isExpired(session, now)) {
+                    // Sessions stored since startup are more recent than those on disk
+                    this.sessions.putIfAbsent(id, session);
+                }
+            }
+        }
+
+        this.logger.atInfo().log("Restored %d sessions from %s", this.sessions.size(), this.file);
+    }
+
+    private void flushQuietly() {
+        try {
+            this.flush();
+        } catch (Exception e) {
+            this.logger.atSevere().withCause(e).log("Failed to write sessions to %s", this.file);
+        }
+    }
+
+    private synchronized void flush() throws IOException {
+        if (!this.dirty.getAndSet(false)) {
+            return;
+        }
+
+        Files.createDirectories(this.file.getParent());
+        var temp = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        // Left behind if the server crashed while writing
+        Files.deleteIfExists(temp);
+
+        try {
+            try (var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(createOwnerOnly(temp))))) {
+                var snapshot = Map.copyOf(this.sessions);
+
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(snapshot.size());
+                for (var entry : snapshot.entrySet()) {
+                    var session = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(session.created());
+                    out.writeLong(session.accessed());
+                    out.writeLong(session.lastAccessed());
+                    out.writeLong(session.maxInactiveMs());
+                    out.writeLong(session.expiry());
+                    out.writeLong(session.cookieSet());
+                    out.writeBoolean(session.lastNode() != null);
+                    if (session.lastNode() != null) {
+                        out.writeUTF(session.lastNode());
+                    }
+                    out.writeInt(session.attributes().length);
+                    out.write(session.attributes());
+                }
+            }
+
+            try {
+                Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // Retry with the next flush
+            this.dirty.set(true);
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    // Session ids grant access to an account, so the file is never readable by others, not even while it is written
+    private static SeekableByteChannel createOwnerOnly(Path file) throws IOException {
+        try {
+            return Files.newByteChannel(file, Set.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system
+            return Files.newByteChannel(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+    }
+}
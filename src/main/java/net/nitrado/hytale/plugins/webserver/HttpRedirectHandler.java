@@ -0,0 +1,92 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpURI;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.Callback;
+
+import java.util.Map;
+
+/**
+ * Handler for requests on the plain HTTP redirect connector.
+ * <p>
+ * Requests for {@code /.well-known/acme-challenge/<token>} are answered from the pending ACME HTTP-01
+ * challenges, all other requests are permanently redirected to the TLS connector. Requests on other
+ * connectors, or all requests while there is no redirect connector, are passed on unchanged.
+ * </p>
+ * <p>
+ * This class is not part of the public API.
+ * </p>
+ */
+final class HttpRedirectHandler extends Handler.Wrapper {
+
+    private static final String ACME_CHALLENGE_PREFIX = "/.well-known/acme-challenge/";
+
+    private volatile Connector connector;
+    private volatile int httpsPort;
+    private volatile Map<String, String> pendingChallenges = Map.of();
+
+    HttpRedirectHandler(Handler handler, Connector connector, int httpsPort) {
+        super(handler);
+        this.connector = connector;
+        this.httpsPort = httpsPort;
+    }
+
+    Connector getConnector() {
+        return this.connector;
+    }
+
+    /**
+     * Replaces the redirect connector, e.g. when the configuration is reloaded.
+     *
+     * @param connector the redirect connector, or null to pass all requests on
+     * @param httpsPort the port of the TLS connector to redirect to
+     */
+    void setConnector(Connector connector, int httpsPort) {
+        this.connector = connector;
+        this.httpsPort = httpsPort;
+    }
+
+    /**
+     * Sets the live map of pending challenges, as provided by the certificate provider.
+     */
+    void setPendingChallenges(Map<String, String> pendingChallenges) {
+        this.pendingChallenges = pendingChallenges;
+    }
+
+    @Override
+    public boolean handle(Request request, Response response, Callback callback) throws Exception {
+        var connector = this.connector;
+        if (connector == null || request.getConnectionMetaData().getConnector() != connector) {
+            return super.handle(request, response, callback);
+        }
+
+        var path = request.getHttpURI().getPath();
+        if (path != null && path.startsWith(ACME_CHALLENGE_PREFIX)) {
+            var authorization = this.pendingChallenges.get(path.substring(ACME_CHALLENGE_PREFIX.length()));
+            if (authorization == null) {
+                Response.writeError(request, response, callback, HttpStatus.NOT_FOUND_404);
+                return true;
+            }
+
+            response.setStatus(HttpStatus.OK_200);
+            response.getHeaders().put(HttpHeader.CONTENT_TYPE, "text/plain");
+            Content.Sink.write(response, true, authorization, callback);
+            return true;
+        }
+
+        var location = HttpURI.build(request.getHttpURI())
+                .scheme("https")
+                .host(Request.getServerName(request))
+                .port(this.httpsPort == 443 ? -1 : this.httpsPort)
+                .asString();
+
+        Response.sendRedirect(request, response, callback, HttpStatus.MOVED_PERMANENTLY_301, location, true);
+        return true;
+    }
+}
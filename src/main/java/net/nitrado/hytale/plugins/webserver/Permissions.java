@@ -2,5 +2,8 @@ package net.nitrado.hytale.plugins.webserver;
 
 public final class Permissions {
     public static final String COMMAND_LOGIN_CODE_CREATE = "nitrado.webserver.command.logincode.create";
+    public static final String COMMAND_RELOAD = "nitrado.webserver.command.reload";
+    public static final String COMMAND_CALIBRATE = "nitrado.webserver.command.calibrate";
     public static final String WEB_LIST_PLUGINS = "nitrado.webserver.web.list.plugins";
+    public static final String WEB_METRICS = "nitrado.webserver.web.metrics";
 }
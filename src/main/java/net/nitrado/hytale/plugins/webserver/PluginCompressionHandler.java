@@ -0,0 +1,80 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import net.nitrado.hytale.plugins.webserver.config.CompressionConfig;
+import org.eclipse.jetty.compression.Compression;
+import org.eclipse.jetty.compression.brotli.BrotliCompression;
+import org.eclipse.jetty.compression.gzip.GzipCompression;
+import org.eclipse.jetty.compression.server.CompressionHandler;
+import org.eclipse.jetty.compression.zstandard.ZstandardCompression;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.Callback;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compression handler that compresses responses and inflates request bodies, except for
+ * plugins that opted out of compression.
+ * <p>
+ * This class is not part of the public API. Plugins opt out via
+ * {@link WebServerPlugin#setCompressionEnabled}.
+ * </p>
+ */
+final class PluginCompressionHandler extends CompressionHandler {
+
+    private final Set<String> excludedPathPrefixes = ConcurrentHashMap.newKeySet();
+
+    PluginCompressionHandler(CompressionConfig config) {
+        for (var encoding : config.getEncodings()) {
+            Compression compression = switch (encoding.toLowerCase()) {
+                case "gzip" -> new GzipCompression();
+                case "br" -> new BrotliCompression();
+                case "zstd" -> new ZstandardCompression();
+                default -> throw new IllegalArgumentException(
+                        "Unknown compression encoding: " + encoding + ". Supported: gzip, br, zstd");
+            };
+            compression.setMinCompressSize(config.getMinSize());
+            this.putCompression(compression);
+        }
+
+        var builder = org.eclipse.jetty.compression.server.CompressionConfig.builder().defaults();
+        for (var mimeType : config.getIncludedMimeTypes()) {
+            builder.compressIncludeMimeType(mimeType);
+        }
+        for (var mimeType : config.getExcludedMimeTypes()) {
+            builder.compressExcludeMimeType(mimeType);
+        }
+
+        if (config.isInflateRequests()) {
+            builder.decompressIncludeEncoding("gzip");
+        } else {
+            builder.decompressExcludePath("/*");
+        }
+
+        this.putConfiguration("/*", builder.build());
+    }
+
+    void excludePathPrefix(String prefix) {
+        this.excludedPathPrefixes.add(prefix);
+    }
+
+    void includePathPrefix(String prefix) {
+        this.excludedPathPrefixes.remove(prefix);
+    }
+
+    @Override
+    public boolean handle(Request request, Response response, Callback callback) throws Exception {
+        if (!this.excludedPathPrefixes.isEmpty()) {
+            var path = Request.getPathInContext(request);
+            for (var prefix : this.excludedPathPrefixes) {
+                if (path.equals(prefix) || path.startsWith(prefix + "/")) {
+                    var next = getHandler();
+                    return next != null && next.handle(request, response, callback);
+                }
+            }
+        }
+
+        return super.handle(request, response, callback);
+    }
+}
@@ -0,0 +1,156 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.Callback;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handler that tracks in-flight requests in total and per plugin path prefix, so that a single plugin
+ * can be drained before its servlets are removed. Requests are counted without locking, a monitor is
+ * only entered while a drain or shutdown waits for requests to complete.
+ * <p>
+ * This class is not part of the public API.
+ * </p>
+ */
+final class PluginRequestTracker extends Handler.Wrapper {
+
+    private static final class PluginState {
+        private final AtomicInteger active = new AtomicInteger();
+        private volatile boolean draining;
+        // Only non-zero while a thread waits for this state to become idle, so that requests
+        // completing at other times do not need to enter the monitor
+        private volatile int waiters;
+
+        void increment() {
+            this.active.incrementAndGet();
+        }
+
+        void decrement() {
+            if (this.active.decrementAndGet() <= 0 && this.waiters > 0) {
+                synchronized (this) {
+                    this.notifyAll();
+                }
+            }
+        }
+
+        synchronized boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            this.waiters++;
+            try {
+                while (this.active.get() > 0) {
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    this.wait(remaining);
+                }
+                return true;
+            } finally {
+                this.waiters--;
+            }
+        }
+
+        int getActive() {
+            return this.active.get();
+        }
+    }
+
+    private final Map<String, PluginState> states = new ConcurrentHashMap<>();
+    private final PluginState all = new PluginState();
+
+    void register(String prefix) {
+        this.states.computeIfAbsent(prefix, k -> new PluginState());
+    }
+
+    void unregister(String prefix) {
+        this.states.remove(prefix);
+    }
+
+    /**
+     * Rejects new requests for the given prefix and waits for in-flight requests to complete.
+     *
+     * @param prefix        the plugin path prefix
+     * @param timeoutMillis the maximum time to wait
+     * @return true if all requests completed in time
+     */
+    boolean drain(String prefix, long timeoutMillis) throws InterruptedException {
+        var state = this.states.get(prefix);
+        if (state == null) {
+            return true;
+        }
+
+        state.draining = true;
+        return state.awaitIdle(timeoutMillis);
+    }
+
+    /**
+     * Waits for all in-flight requests to complete.
+     *
+     * @param timeoutMillis the maximum time to wait
+     * @return true if all requests completed in time
+     */
+    boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        return this.all.awaitIdle(timeoutMillis);
+    }
+
+    int getActiveRequests(String prefix) {
+        var state = this.states.get(prefix);
+        return state != null ? state.getActive() : 0;
+    }
+
+    @Override
+    public boolean handle(Request request, Response response, Callback callback) throws Exception {
+        var state = this.findState(Request.getPathInContext(request));
+
+        if (state != null) {
+            // Counted before checking the flag, so that a drain either sees this request or rejects it
+            state.increment();
+            if (state.draining) {
+                state.decrement();
+                Response.writeError(request, response, callback, HttpStatus.SERVICE_UNAVAILABLE_503);
+                return true;
+            }
+        }
+        this.all.increment();
+
+        Runnable completed = state == null ? this.all::decrement : () -> {
+            state.decrement();
+            this.all.decrement();
+        };
+
+        try {
+            if (super.handle(request, response, Callback.from(callback, completed))) {
+                return true;
+            }
+        } catch (Throwable t) {
+            completed.run();
+            throw t;
+        }
+
+        completed.run();
+        return false;
+    }
+
+    private PluginState findState(String path) {
+        if (path == null || this.states.isEmpty()) {
+            return null;
+        }
+
+        // Plugin prefixes are always "/<group>/<name>"
+        int groupEnd = path.indexOf('/', 1);
+        if (groupEnd < 0) {
+            return null;
+        }
+        int nameEnd = path.indexOf('/', groupEnd + 1);
+        var prefix = nameEnd < 0 ? path : path.substring(0, nameEnd);
+
+        return this.states.get(prefix);
+    }
+}
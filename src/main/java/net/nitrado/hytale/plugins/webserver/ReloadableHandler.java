@@ -0,0 +1,116 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.Callback;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handler whose child can be swapped while the server is running.
+ * <p>
+ * While no child is attached, e.g. during a plugin reload, requests are parked without blocking a thread
+ * and dispatched to the next attached child. Requests that are still parked after the timeout are answered
+ * with {@code 503 Service Unavailable}.
+ * </p>
+ * <p>
+ * This class is not part of the public API.
+ * </p>
+ */
+final class ReloadableHandler extends Handler.Wrapper {
+
+    private static final int MAX_PENDING_REQUESTS = 1024;
+
+    private record PendingRequest(Request request, Response response, Callback callback) {}
+
+    private final Queue<PendingRequest> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private volatile long pendingTimeout;
+
+    ReloadableHandler(long pendingTimeout) {
+        super(true);
+        this.pendingTimeout = pendingTimeout;
+    }
+
+    void setPendingTimeout(long pendingTimeout) {
+        this.pendingTimeout = pendingTimeout;
+    }
+
+    /**
+     * Attaches a started handler and dispatches all parked requests to it.
+     */
+    void attach(Handler handler) {
+        this.setHandler(handler);
+        this.dispatchPending(handler);
+    }
+
+    /**
+     * Detaches the current handler. Subsequent requests are parked until {@link #attach} is called.
+     */
+    void detach() {
+        this.setHandler((Handler) null);
+    }
+
+    int getPendingRequests() {
+        return this.pendingCount.get();
+    }
+
+    @Override
+    public boolean handle(Request request, Response response, Callback callback) throws Exception {
+        var handler = getHandler();
+        if (handler != null) {
+            return handler.handle(request, response, callback);
+        }
+
+        if (this.pendingCount.incrementAndGet() > MAX_PENDING_REQUESTS) {
+            this.pendingCount.decrementAndGet();
+            reject(request, response, callback);
+            return true;
+        }
+
+        var pendingRequest = new PendingRequest(request, response, callback);
+        this.pending.add(pendingRequest);
+        request.getComponents().getScheduler().schedule(() -> {
+            if (this.pending.remove(pendingRequest)) {
+                this.pendingCount.decrementAndGet();
+                reject(request, response, callback);
+            }
+        }, this.pendingTimeout, TimeUnit.MILLISECONDS);
+
+        // A handler may have been attached while this request was being parked
+        handler = getHandler();
+        if (handler != null) {
+            this.dispatchPending(handler);
+        }
+
+        return true;
+    }
+
+    private void dispatchPending(Handler handler) {
+        PendingRequest pendingRequest;
+        while ((pendingRequest = this.pending.poll()) != null) {
+            this.pendingCount.decrementAndGet();
+            var p = pendingRequest;
+            getServer().getThreadPool().execute(() -> {
+                try {
+                    if (!handler.handle(p.request(), p.response(), p.callback())) {
+                        Response.writeError(p.request(), p.response(), p.callback(), HttpStatus.NOT_FOUND_404);
+                    }
+                } catch (Throwable t) {
+                    Response.writeError(p.request(), p.response(), p.callback(), t);
+                }
+            });
+        }
+    }
+
+    private static void reject(Request request, Response response, Callback callback) {
+        response.getHeaders().put(HttpHeader.RETRY_AFTER, "1");
+        Response.writeError(request, response, callback, HttpStatus.SERVICE_UNAVAILABLE_503);
+    }
+}
@@ -0,0 +1,144 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import net.nitrado.hytale.plugins.webserver.metrics.VirtualThreadMonitor;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.StatisticsHandler;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Holds the Jetty server together with its connectors and thread pool, so that they can outlive a
+ * single {@link WebServerPlugin} instance.
+ * <p>
+ * When the web server is configured to keep its connectors alive across reloads, the holder is retained
+ * in a static field on shutdown and taken over by the next plugin instance, as long as the configuration
+ * did not change in between. Only the handlers below {@link ReloadableHandler} are replaced.
+ * </p>
+ * <p>
+ * This class is not part of the public API.
+ * </p>
+ */
+final class ServerHolder {
+
+    private static ServerHolder retained;
+
+    private volatile String fingerprint;
+    private final Server server;
+    private final QueuedThreadPool threadPool;
+    private final ReloadableHandler reloadableHandler;
+    private final StatisticsHandler statisticsHandler;
+    private final VirtualThreadMonitor virtualThreadMonitor;
+    private final HytaleLogger logger;
+
+    ServerHolder(String fingerprint, Server server, QueuedThreadPool threadPool, ReloadableHandler reloadableHandler,
+                 StatisticsHandler statisticsHandler, VirtualThreadMonitor virtualThreadMonitor, HytaleLogger logger) {
+        this.fingerprint = fingerprint;
+        this.server = server;
+        this.threadPool = threadPool;
+        this.reloadableHandler = reloadableHandler;
+        this.statisticsHandler = statisticsHandler;
+        this.virtualThreadMonitor = virtualThreadMonitor;
+        this.logger = logger;
+    }
+
+    /**
+     * Takes the holder retained by a previous plugin instance if it was created from the same configuration.
+     * A retained holder with a different configuration is stopped, so that its ports are released.
+     *
+     * @param fingerprint the fingerprint of the current configuration
+     * @return the retained holder, or null if there is none or it did not match
+     */
+    static synchronized ServerHolder take(String fingerprint) {
+        var holder = retained;
+        retained = null;
+
+        if (holder == null) {
+            return null;
+        }
+
+        if (!holder.fingerprint.equals(fingerprint)) {
+            holder.logger.atInfo().log("Configuration changed, stopping the retained server");
+            holder.stop();
+            return null;
+        }
+
+        return holder;
+    }
+
+    static synchronized void retain(ServerHolder holder) {
+        if (retained != null && retained != holder) {
+            retained.stop();
+        }
+
+        retained = holder;
+    }
+
+    /**
+     * Computes a fingerprint of the configuration file, used to decide whether a retained server can be reused.
+     *
+     * @param configFile the plugin's configuration file
+     * @return the fingerprint
+     */
+    static String fingerprint(Path configFile) {
+        try {
+            var content = Files.exists(configFile) ? Files.readAllBytes(configFile) : new byte[0];
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            // An unreadable configuration never matches, forcing a fresh server
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Updates the fingerprint after a configuration change has been applied to the running server, so that
+     * the next plugin instance can still take it over.
+     */
+    void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    Server getServer() {
+        return server;
+    }
+
+    QueuedThreadPool getThreadPool() {
+        return threadPool;
+    }
+
+    ReloadableHandler getReloadableHandler() {
+        return reloadableHandler;
+    }
+
+    StatisticsHandler getStatisticsHandler() {
+        return statisticsHandler;
+    }
+
+    VirtualThreadMonitor getVirtualThreadMonitor() {
+        return virtualThreadMonitor;
+    }
+
+    void stop() {
+        try {
+            // Connectors stop accepting first, then in-flight requests get up to the drain timeout to complete
+            this.server.stop();
+        } catch (Exception e) {
+            this.logger.atSevere().withCause(e).log("Failed to stop WebServer");
+        }
+
+        if (this.virtualThreadMonitor != null) {
+            this.virtualThreadMonitor.close();
+        }
+    }
+}
@@ -8,12 +8,35 @@ import net.nitrado.hytale.plugins.webserver.authentication.internal.AuthFilter;
 import net.nitrado.hytale.plugins.webserver.authentication.AuthProvider;
 import net.nitrado.hytale.plugins.webserver.servlets.internal.AuthorizationWrapperServlet;
 import net.nitrado.hytale.plugins.webserver.cert.CertificateProvider;
+import net.nitrado.hytale.plugins.webserver.cert.ClientCertificateTrust;
+import net.nitrado.hytale.plugins.webserver.cert.LetsEncryptCertificateProvider;
+import net.nitrado.hytale.plugins.webserver.config.ConnectorConfig;
+import net.nitrado.hytale.plugins.webserver.config.Http2Config;
 import net.nitrado.hytale.plugins.webserver.config.WebServerConfig;
+import net.nitrado.hytale.plugins.webserver.metrics.MetricsRegistry;
+import net.nitrado.hytale.plugins.webserver.metrics.VirtualThreadMonitor;
+import net.nitrado.hytale.plugins.webserver.ratelimit.RateLimiter;
+import org.eclipse.jetty.ee10.servlet.FilterHolder;
+import org.eclipse.jetty.ee10.servlet.FilterMapping;
 import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
+import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
 import org.eclipse.jetty.ee10.servlet.ServletHolder;
-import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http2.HTTP2Cipher;
+import org.eclipse.jetty.http2.server.AbstractHTTP2ServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
+import org.eclipse.jetty.http3.server.HTTP3ServerConnectionFactory;
+import org.eclipse.jetty.quic.quiche.server.QuicheServerConnector;
+import org.eclipse.jetty.quic.server.ServerQuicConfiguration;
+import org.eclipse.jetty.io.ArrayByteBufferPool;
 import org.eclipse.jetty.server.*;
+import org.eclipse.jetty.server.handler.GracefulHandler;
+import org.eclipse.jetty.server.handler.StatisticsHandler;
+import org.eclipse.jetty.unixdomain.server.UnixDomainServerConnector;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 
 import jakarta.servlet.DispatcherType;
 import jakarta.servlet.SessionTrackingMode;
@@ -21,7 +44,9 @@ import jakarta.servlet.http.HttpServlet;
 import javax.net.ssl.SSLContext;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.*;
 import java.util.logging.Level;
 
@@ -35,12 +60,37 @@ import java.util.logging.Level;
 final class WebServer {
     private final ServletContextHandler context;
     private final Server server;
+    private final ServerHolder holder;
     private final HytaleLogger logger;
     private final Map<PluginIdentifier, List<String>> pluginToPathSpecs =  new HashMap<>();
     private final Map<PluginIdentifier, AuthProvider[]> pluginToAuthProviders = new HashMap<>();
+    private final Map<PluginIdentifier, FilterMapping> pluginToAuthMapping = new HashMap<>();
+    private VirtualThreadMonitor virtualThreadMonitor;
+    private CertificateProvider certificateProvider;
+    private SslContextFactory.Server sslContextFactory;
+    private PluginCompressionHandler compressionHandler;
+    private final BoundedSessionCache sessionCache;
+    private final PluginRequestTracker requestTracker = new PluginRequestTracker();
+    private AdmissionHandler admissionHandler;
+    private RateLimiter rateLimiter;
+    private final Handler pluginHandler;
+    private volatile long drainTimeout;
+    private final boolean keepAliveOnReload;
+    private UnixDomainServerConnector unixDomainConnector;
+    private ServerConnector redirectConnector;
+    private HttpRedirectHandler redirectHandler;
+    private ConnectorPathHandler pathHandler;
+    private boolean deferredTls;
+    private WebServerConfig config;
+    private final Path dataDir;
+    private String unixDomainPermissions;
 
-    public WebServer(HytaleLogger logger, WebServerConfig config, Path dataDir) {
+    public WebServer(HytaleLogger logger, WebServerConfig config, Path dataDir, MetricsRegistry metrics, String configFingerprint) {
         this.logger = logger;
+        this.drainTimeout = config.getDrainTimeout();
+        this.keepAliveOnReload = config.isKeepAliveOnReload();
+        this.config = config;
+        this.dataDir = dataDir;
 
         this.context = new ServletContextHandler(ServletContextHandler.SESSIONS);
         this.context.setContextPath("/");
@@ -56,25 +106,612 @@ final class WebServer {
             sessionHandler.setSecureRequestOnly(false);
         }
 
+        // Sessions are only created on login, but are bounded in number and lifetime nevertheless
+        this.sessionCache = new BoundedSessionCache(sessionHandler, config.getSessions().getMaxSessions());
+        sessionHandler.setSessionCache(this.sessionCache);
+        sessionHandler.setMaxInactiveInterval(config.getSessions().getMaxInactiveInterval());
+        this.sessionCache.registerMetrics(metrics);
+        // Session cookies carry the login themselves, so there is nothing to persist
+        if (config.getSessions().isPersistent() && !config.getSessions().isCookieStore()) {
+            this.sessionCache.setSessionDataStore(new FileSessionStore(dataDir.resolve("store/sessions.dat"),
+                    config.getSessions().getFlushInterval(), this.logger.getSubLogger("SessionStore")));
+            // Sessions that cannot be restored, e.g. after a format change, are dropped instead of failing requests
+            this.sessionCache.setRemoveUnloadableSessions(true);
+        }
+
+        Handler handler = this.context;
+        if (config.getCompression().isEnabled()) {
+            this.compressionHandler = new PluginCompressionHandler(config.getCompression());
+            this.compressionHandler.setHandler(handler);
+            handler = this.compressionHandler;
+        }
+
+        this.requestTracker.setHandler(handler);
+        handler = this.requestTracker;
+
+        if (AdmissionHandler.isEnabled(config.getLimits())) {
+            this.admissionHandler = new AdmissionHandler(config.getLimits());
+            this.admissionHandler.setHandler(handler);
+            this.admissionHandler.registerMetrics(metrics);
+            handler = this.admissionHandler;
+        }
+
+        if (config.getRateLimit().isEnabled()) {
+            this.rateLimiter = new RateLimiter(this.logger, config.getRateLimit());
+            this.rateLimiter.registerMetrics(metrics);
+        }
+
+        // The part of the handler chain that belongs to this plugin instance
+        this.pluginHandler = handler;
+
+        var retained = ServerHolder.take(configFingerprint);
+        if (retained != null) {
+            this.logger.atInfo().log("Reusing the connectors retained from the previous plugin instance");
+            this.holder = retained;
+            this.server = retained.getServer();
+            this.pathHandler = this.server.getDescendant(ConnectorPathHandler.class);
+            this.redirectHandler = this.server.getDescendant(HttpRedirectHandler.class);
+            this.sslContextFactory = this.findSslContextFactory();
+        } else {
+            var threadPool = this.createThreadPool(config);
+            this.server = new Server(threadPool, null, this.createByteBufferPool(config));
+
+            var reloadableHandler = new ReloadableHandler(this.drainTimeout);
+            reloadableHandler.setHandler(this.pluginHandler);
+
+            this.pathHandler = new ConnectorPathHandler(reloadableHandler);
+
+            // Always part of the chain, so that a redirect connector can be added when the configuration is reloaded
+            this.redirectConnector = this.createRedirectConnector(config);
+            this.redirectHandler = new HttpRedirectHandler(this.pathHandler, this.redirectConnector, config.getBindPort());
+            Handler serverHandler = this.redirectHandler;
+
+            // Let's Encrypt validates the domain through the redirect connector, so the TLS connectors
+            // can only be created once it is running
+            this.deferredTls = this.redirectConnector != null
+                    && "letsencrypt".equalsIgnoreCase(config.getTls().getCertificateProvider());
+
+            this.addConnectors(config, dataDir, this.pathHandler);
+
+            if (config.getLimits().getMaxConnections() > 0) {
+                this.server.addBean(new NetworkConnectionLimit(config.getLimits().getMaxConnections(), this.server));
+            }
+
+            var statisticsHandler = new StatisticsHandler(serverHandler);
+
+            // Waits for in-flight requests when the server is stopped, up to the server's stop timeout
+            var gracefulHandler = new GracefulHandler(statisticsHandler);
+            this.server.setHandler(gracefulHandler);
+            this.server.setStopTimeout(this.drainTimeout);
+
+            if (this.keepAliveOnReload) {
+                // The retained server must neither keep the JVM alive nor outlive it
+                threadPool.setDaemon(true);
+                this.server.setStopAtShutdown(true);
+            }
+
+            this.holder = new ServerHolder(configFingerprint, this.server, threadPool, reloadableHandler,
+                    statisticsHandler, this.virtualThreadMonitor, this.logger);
+        }
+
+        this.registerServerMetrics(metrics);
+    }
+
+    private void addConnectors(WebServerConfig config, Path dataDir, ConnectorPathHandler pathHandler) {
+        var tlsConfig = config.getTls();
         var addr = new InetSocketAddress(config.getBindHost(), config.getBindPort());
 
         this.logger.atInfo().log("Binding WebServer to " + addr);
 
-        this.server = new Server();
-
-        ServerConnector connector;
         if (tlsConfig.isInsecure()) {
             this.logger.atWarning().log("TLS is disabled - using insecure plain HTTP!");
-            connector = new ServerConnector(this.server);
-        } else {
-            connector = this.createTLSConnector(config, dataDir);
+            var connector = this.createPlainConnector(config);
+            connector.setHost(addr.getHostName());
+            connector.setPort(addr.getPort());
+            this.configureConnector(connector, config);
+            this.server.addConnector(connector);
+
+            if (config.getHttp3().isEnabled()) {
+                this.logger.atWarning().log("HTTP/3 requires TLS and will not be enabled");
+            }
+        } else if (!this.deferredTls) {
+            this.addTlsConnectors(config, dataDir, pathHandler);
         }
 
+        if (this.redirectConnector != null) {
+            this.server.addConnector(this.redirectConnector);
+        }
+
+        if (config.getUnixSocket().isEnabled()) {
+            this.unixDomainConnector = this.createUnixDomainConnector(config, dataDir);
+            this.server.addConnector(this.unixDomainConnector);
+        }
+
+        for (var connectorConfig : config.getConnectors()) {
+            if (!connectorConfig.isTls()) {
+                this.addAdditionalConnector(config, connectorConfig, pathHandler);
+            } else if (tlsConfig.isInsecure()) {
+                this.logger.atWarning().log("Connector %s requires TLS to be configured and will not be enabled",
+                        connectorConfig.getName());
+            }
+        }
+    }
+
+    /**
+     * Adds the main TLS connector, the HTTP/3 connector and additional TLS connectors.
+     *
+     * @return the added connectors
+     */
+    private List<Connector> addTlsConnectors(WebServerConfig config, Path dataDir, ConnectorPathHandler pathHandler) {
+        var added = new ArrayList<Connector>();
+        var addr = new InetSocketAddress(config.getBindHost(), config.getBindPort());
+
+        var connector = this.createTLSConnector(config, dataDir);
         connector.setHost(addr.getHostName());
         connector.setPort(addr.getPort());
+        this.configureConnector(connector, config);
+        this.server.addConnector(connector);
+        added.add(connector);
+
+        if (config.getHttp3().isEnabled()) {
+            var http3 = this.createHttp3Connector(config, addr, dataDir);
+            this.server.addConnector(http3);
+            added.add(http3);
+        }
+
+        for (var connectorConfig : config.getConnectors()) {
+            if (connectorConfig.isTls()) {
+                added.add(this.addAdditionalConnector(config, connectorConfig, pathHandler));
+            }
+        }
+
+        return added;
+    }
+
+    private Connector addAdditionalConnector(WebServerConfig config, ConnectorConfig connectorConfig, ConnectorPathHandler pathHandler) {
+        var additional = this.createAdditionalConnector(config, connectorConfig);
+        pathHandler.restrict(additional, connectorConfig.getPaths(), connectorConfig.isExclusive());
+        this.server.addConnector(additional);
+        return additional;
+    }
+
+    /**
+     * Creates the plain HTTP connector that answers ACME challenges and redirects everything else to HTTPS,
+     * if it is enabled. Let's Encrypt always needs it to validate the domain.
+     */
+    private ServerConnector createRedirectConnector(WebServerConfig config) {
+        var tlsConfig = config.getTls();
+        var letsEncrypt = "letsencrypt".equalsIgnoreCase(tlsConfig.getCertificateProvider());
+
+        if (tlsConfig.isInsecure() || (!letsEncrypt && !config.getHttpRedirect().isEnabled())) {
+            if (tlsConfig.isInsecure() && config.getHttpRedirect().isEnabled()) {
+                this.logger.atWarning().log("HTTP redirect requires TLS and will not be enabled");
+            }
+            return null;
+        }
+
+        var performance = config.getPerformance();
+        var connector = new ServerConnector(this.server, 1, 1, new HttpConnectionFactory(this.createHttpConfiguration(config)));
+        connector.setHost(config.getBindHost());
+        connector.setPort(letsEncrypt ? tlsConfig.getLetsEncrypt().getChallengePort() : config.getHttpRedirect().getPort());
+        connector.setIdleTimeout(performance.getIdleTimeout());
+
+        return connector;
+    }
+
+    /**
+     * Creates an HTTP/1.1 connector with its own small thread pool, so that the paths it serves stay
+     * responsive while the main connector's threads are busy.
+     */
+    private ServerConnector createAdditionalConnector(WebServerConfig config, ConnectorConfig connectorConfig) {
+        var threadPool = new QueuedThreadPool(connectorConfig.getMaxThreads(), connectorConfig.getMinThreads());
+        threadPool.setName("WebServer-" + connectorConfig.getName());
+        if (this.keepAliveOnReload) {
+            threadPool.setDaemon(true);
+        }
+
+        ConnectionFactory[] factories;
+        if (connectorConfig.isTls()) {
+            var http1 = new HttpConnectionFactory(this.createSecureHttpConfiguration(config));
+            factories = new ConnectionFactory[]{new SslConnectionFactory(this.sslContextFactory, http1.getProtocol()), http1};
+        } else {
+            factories = new ConnectionFactory[]{new HttpConnectionFactory(this.createHttpConfiguration(config))};
+        }
+
+        var connector = new ServerConnector(this.server, threadPool, null, null, 1, 1, factories);
+        connector.setName(connectorConfig.getName());
+        connector.setHost(connectorConfig.getBindHost());
+        connector.setPort(connectorConfig.getBindPort());
+        this.configureConnector(connector, config);
+
+        return connector;
+    }
+
+    /**
+     * Applies a changed configuration to the running server.
+     * <p>
+     * Thread pool sizes, timeouts and limits are changed in place. Connectors whose settings changed are
+     * stopped and rebuilt, while all other connectors keep their connections. Settings that belong to the
+     * handler chain of the plugin instance or to the server itself are reported and take effect on the next
+     * plugin reload.
+     * </p>
+     *
+     * @param newConfig   the reloaded configuration
+     * @param fingerprint the fingerprint of the reloaded configuration file
+     * @return a description of each applied or pending change
+     */
+    synchronized List<String> reconfigure(WebServerConfig newConfig, String fingerprint) throws Exception {
+        var oldConfig = this.config;
+        var changes = new ArrayList<String>();
+        var oldPerformance = oldConfig.getPerformance();
+        var performance = newConfig.getPerformance();
+
+        if (oldPerformance.getMinThreads() != performance.getMinThreads()
+                || oldPerformance.getMaxThreads() != performance.getMaxThreads()) {
+            resizeThreadPool(this.holder.getThreadPool(), performance.getMinThreads(), performance.getMaxThreads());
+            changes.add("Resized the thread pool to " + performance.getMinThreads() + "-" + performance.getMaxThreads() + " threads");
+        }
+
+        if (oldConfig.getDrainTimeout() != newConfig.getDrainTimeout()) {
+            this.drainTimeout = newConfig.getDrainTimeout();
+            this.server.setStopTimeout(this.drainTimeout);
+            this.holder.getReloadableHandler().setPendingTimeout(this.drainTimeout);
+            changes.add("Changed the drain timeout to " + this.drainTimeout + " ms");
+        }
+
+        boolean mainChanged = ConfigDiff.changed(oldConfig.getBindHost(), newConfig.getBindHost())
+                || oldConfig.getBindPort() != newConfig.getBindPort()
+                || ConfigDiff.changed(oldConfig.getTls(), newConfig.getTls())
+                || ConfigDiff.changed(oldConfig.getHttp2(), newConfig.getHttp2())
+                || ConfigDiff.changed(oldConfig.getHttp3(), newConfig.getHttp3())
+                || ConfigDiff.changed(oldConfig.getHttpRedirect(), newConfig.getHttpRedirect())
+                || oldPerformance.getAcceptors() != performance.getAcceptors()
+                || oldPerformance.getSelectors() != performance.getSelectors()
+                || oldPerformance.isReusePort() != performance.isReusePort();
+        // TLS connectors share the SSL context of the main connector, so they are rebuilt along with it
+        boolean additionalChanged = mainChanged || ConfigDiff.changed(oldConfig.getConnectors(), newConfig.getConnectors());
+        boolean unixChanged = ConfigDiff.changed(oldConfig.getUnixSocket(), newConfig.getUnixSocket())
+                || ConfigDiff.changed(oldConfig.getHttp2(), newConfig.getHttp2());
+
+        if (oldConfig.getTls().isInsecure() != newConfig.getTls().isInsecure()) {
+            this.context.getSessionHandler().setSecureRequestOnly(!newConfig.getTls().isInsecure());
+        }
+
+        if (mainChanged) {
+            this.rebuildMainConnectors(newConfig);
+            changes.add("Rebuilt the main connectors");
+        } else if (additionalChanged) {
+            this.rebuildAdditionalConnectors(newConfig);
+            changes.add("Rebuilt the additional connectors");
+        }
 
+        if (unixChanged) {
+            this.rebuildUnixDomainConnector(newConfig);
+            changes.add("Rebuilt the unix domain socket connector");
+        }
+
+        // Connectors that were not rebuilt pick up changed HTTP settings for new requests
+        if (ConfigDiff.changed(oldPerformance, performance) || ConfigDiff.changed(oldConfig.getLimits(), newConfig.getLimits())) {
+            this.updateHttpConfigurations(newConfig);
+        }
+
+        if (oldConfig.getLimits().getMaxConnections() != newConfig.getLimits().getMaxConnections() || mainChanged || additionalChanged || unixChanged) {
+            this.updateConnectionLimit(newConfig.getLimits().getMaxConnections());
+        }
+
+        if (ConfigDiff.changed(oldConfig.getLimits(), newConfig.getLimits())) {
+            if (this.admissionHandler != null) {
+                this.admissionHandler.reconfigure(newConfig.getLimits());
+                changes.add("Changed the request limits");
+            } else if (AdmissionHandler.isEnabled(newConfig.getLimits())) {
+                changes.add("Request concurrency limits take effect when the plugin is reloaded");
+            }
+        }
+
+        if (ConfigDiff.changed(oldConfig.getSessions(), newConfig.getSessions())) {
+            this.sessionCache.setMaxSessions(newConfig.getSessions().getMaxSessions());
+            this.context.getSessionHandler().setMaxInactiveInterval(newConfig.getSessions().getMaxInactiveInterval());
+            changes.add("Changed the session limits");
+
+            if (!oldConfig.getSessions().getStore().equalsIgnoreCase(newConfig.getSessions().getStore())
+                    || oldConfig.getSessions().getKeyRotationInterval() != newConfig.getSessions().getKeyRotationInterval()) {
+                changes.add("Session store settings take effect when the plugin is reloaded");
+            }
+            if (oldConfig.getSessions().isPersistent() != newConfig.getSessions().isPersistent()
+                    || oldConfig.getSessions().getFlushInterval() != newConfig.getSessions().getFlushInterval()) {
+                changes.add("Session persistence settings take effect when the plugin is reloaded");
+            }
+        }
+
+        addReloadOnlyChanges(oldConfig, newConfig, changes);
+
+        if (requiresRestart(oldConfig, newConfig)) {
+            changes.add("Virtual threads, keep-alive, queue size and buffer pool settings take effect when the plugin is reloaded");
+        } else {
+            this.holder.setFingerprint(fingerprint);
+        }
+
+        this.config = newConfig;
+        return changes;
+    }
+
+    /**
+     * Resizes a thread pool. The pool rejects a minimum above its maximum, so the bound that moves away from the
+     * other one is changed first.
+     */
+    static void resizeThreadPool(QueuedThreadPool threadPool, int minThreads, int maxThreads) {
+        if (maxThreads >= threadPool.getMaxThreads()) {
+            threadPool.setMaxThreads(maxThreads);
+            threadPool.setMinThreads(minThreads);
+        } else {
+            threadPool.setMinThreads(minThreads);
+            threadPool.setMaxThreads(maxThreads);
+        }
+    }
+
+    /**
+     * Reports changed settings that are read when the plugin's handlers and auth providers are created, and
+     * therefore only take effect when the plugin is reloaded.
+     */
+    static void addReloadOnlyChanges(WebServerConfig oldConfig, WebServerConfig newConfig, List<String> changes) {
+        if (ConfigDiff.changed(oldConfig.getCompression(), newConfig.getCompression())) {
+            changes.add("Compression settings take effect when the plugin is reloaded");
+        }
+        if (ConfigDiff.changed(oldConfig.getRateLimit(), newConfig.getRateLimit())) {
+            changes.add("Rate limit settings take effect when the plugin is reloaded");
+        }
+        if (ConfigDiff.changed(oldConfig.getAccessTokens(), newConfig.getAccessTokens())) {
+            changes.add("Access token settings take effect when the plugin is reloaded");
+        }
+        if (ConfigDiff.changed(oldConfig.getLogin(), newConfig.getLogin())) {
+            changes.add("Login settings take effect when the plugin is reloaded");
+        }
+        // The auth providers are held by the routes registered so far, so the connectors ask for client
+        // certificates right away, but existing routes only accept them once the plugin is reloaded
+        if (ConfigDiff.changed(oldConfig.getTls().getClientAuth(), newConfig.getTls().getClientAuth())) {
+            changes.add("Client certificate authentication takes effect when the plugin is reloaded");
+        }
+        if (oldConfig.getTls().isInsecure() != newConfig.getTls().isInsecure() && newConfig.getSessions().isCookieStore()) {
+            changes.add("The Secure flag of session cookies changes when the plugin is reloaded");
+        }
+    }
+
+    /**
+     * Whether settings changed that belong to the server itself, which is only replaced if its fingerprint no
+     * longer matches.
+     */
+    static boolean requiresRestart(WebServerConfig oldConfig, WebServerConfig newConfig) {
+        var oldPerformance = oldConfig.getPerformance();
+        var performance = newConfig.getPerformance();
+        return oldConfig.isVirtualThreads() != newConfig.isVirtualThreads()
+                || oldConfig.isKeepAliveOnReload() != newConfig.isKeepAliveOnReload()
+                || oldPerformance.getQueueSize() != performance.getQueueSize()
+                || oldPerformance.getBufferPoolMaxCapacity() != performance.getBufferPoolMaxCapacity()
+                || oldPerformance.getBufferPoolMaxBucketSize() != performance.getBufferPoolMaxBucketSize()
+                || oldPerformance.getBufferPoolMaxHeapMemory() != performance.getBufferPoolMaxHeapMemory()
+                || oldPerformance.getBufferPoolMaxDirectMemory() != performance.getBufferPoolMaxDirectMemory();
+    }
+
+    private void rebuildMainConnectors(WebServerConfig newConfig) throws Exception {
+        for (var connector : this.server.getConnectors()) {
+            if (!(connector instanceof UnixDomainServerConnector)) {
+                this.removeConnector(connector);
+            }
+        }
+
+        this.redirectConnector = this.createRedirectConnector(newConfig);
+        this.redirectHandler.setConnector(this.redirectConnector, newConfig.getBindPort());
+        if (this.redirectConnector != null) {
+            this.server.addConnector(this.redirectConnector);
+            this.redirectConnector.start();
+        }
+
+        var added = new ArrayList<Connector>();
+        if (newConfig.getTls().isInsecure()) {
+            var connector = this.createPlainConnector(newConfig);
+            connector.setHost(newConfig.getBindHost());
+            connector.setPort(newConfig.getBindPort());
+            this.configureConnector(connector, newConfig);
+            this.server.addConnector(connector);
+            added.add(connector);
+            this.sslContextFactory = null;
+        } else {
+            // The redirect connector is already running and can answer an ACME challenge
+            added.addAll(this.addTlsConnectors(newConfig, this.dataDir, this.pathHandler));
+        }
+
+        for (var connectorConfig : newConfig.getConnectors()) {
+            if (!connectorConfig.isTls()) {
+                added.add(this.addAdditionalConnector(newConfig, connectorConfig, this.pathHandler));
+            }
+        }
+
+        for (var connector : added) {
+            connector.start();
+        }
+    }
+
+    private void rebuildAdditionalConnectors(WebServerConfig newConfig) throws Exception {
+        for (var connector : this.server.getConnectors()) {
+            if (this.isAdditionalConnector(connector)) {
+                this.removeConnector(connector);
+            }
+        }
+
+        for (var connectorConfig : newConfig.getConnectors()) {
+            if (connectorConfig.isTls() && this.sslContextFactory == null) {
+                this.logger.atWarning().log("Connector %s requires TLS to be configured and will not be enabled",
+                        connectorConfig.getName());
+                continue;
+            }
+            this.addAdditionalConnector(newConfig, connectorConfig, this.pathHandler).start();
+        }
+    }
+
+    private void rebuildUnixDomainConnector(WebServerConfig newConfig) throws Exception {
+        for (var connector : this.server.getConnectors()) {
+            if (connector instanceof UnixDomainServerConnector) {
+                this.removeConnector(connector);
+            }
+        }
+        this.unixDomainConnector = null;
+
+        if (!newConfig.getUnixSocket().isEnabled()) {
+            return;
+        }
+
+        var connector = this.createUnixDomainConnector(newConfig, this.dataDir);
+        Files.deleteIfExists(connector.getUnixDomainPath());
         this.server.addConnector(connector);
-        this.server.setHandler(this.context);
+        connector.start();
+        Files.setPosixFilePermissions(connector.getUnixDomainPath(), PosixFilePermissions.fromString(this.unixDomainPermissions));
+        this.unixDomainConnector = connector;
+    }
+
+    private void removeConnector(Connector connector) throws Exception {
+        connector.stop();
+        this.server.removeConnector(connector);
+        this.pathHandler.unrestrict(connector);
+    }
+
+    /**
+     * Additional connectors are the only ones with their own thread pool.
+     */
+    private boolean isAdditionalConnector(Connector connector) {
+        return connector instanceof ServerConnector && connector.getExecutor() != this.holder.getThreadPool();
+    }
+
+    private void updateHttpConfigurations(WebServerConfig newConfig) {
+        var performance = newConfig.getPerformance();
+        var limits = newConfig.getLimits();
+
+        for (var connector : this.server.getConnectors()) {
+            if (connector instanceof AbstractConnector abstractConnector) {
+                abstractConnector.setIdleTimeout(performance.getIdleTimeout());
+            }
+
+            for (var factory : connector.getConnectionFactories()) {
+                if (factory instanceof HttpConfiguration.ConnectionFactory httpFactory) {
+                    var httpConfig = httpFactory.getHttpConfiguration();
+                    httpConfig.setRequestHeaderSize(performance.getRequestHeaderSize());
+                    httpConfig.setOutputBufferSize(performance.getOutputBufferSize());
+                    httpConfig.setIdleTimeout(performance.getIdleTimeout());
+                    httpConfig.setMinRequestDataRate(Math.max(0, limits.getMinRequestDataRate()));
+                    httpConfig.setMinResponseDataRate(Math.max(0, limits.getMinResponseDataRate()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the connection limit, which only applies to the connectors present when it is started.
+     */
+    private void updateConnectionLimit(int maxConnections) throws Exception {
+        var limit = this.server.getBean(NetworkConnectionLimit.class);
+        if (limit != null) {
+            limit.stop();
+            this.server.removeBean(limit);
+        }
+
+        if (maxConnections > 0) {
+            limit = new NetworkConnectionLimit(maxConnections, this.server);
+            this.server.addBean(limit);
+            limit.start();
+        }
+    }
+
+    private SslContextFactory.Server findSslContextFactory() {
+        for (var connector : this.server.getConnectors()) {
+            var ssl = connector.getConnectionFactory(SslConnectionFactory.class);
+            if (ssl != null) {
+                return ssl.getSslContextFactory();
+            }
+        }
+        return null;
+    }
+
+    private void registerServerMetrics(MetricsRegistry metrics) {
+        var threadPool = this.holder.getThreadPool();
+        metrics.gauge("webserver_threads", "Threads in the request thread pool", threadPool::getThreads);
+        metrics.gauge("webserver_threads_busy", "Busy threads in the request thread pool", threadPool::getBusyThreads);
+        metrics.gauge("webserver_threads_queued", "Jobs waiting for a thread in the request thread pool", threadPool::getQueueSize);
+
+        var statisticsHandler = this.holder.getStatisticsHandler();
+        metrics.gauge("webserver_requests_active", "Requests currently being handled", statisticsHandler::getRequestsActive);
+        metrics.counter("webserver_requests_total", "Requests handled since start", statisticsHandler::getRequestTotal);
+        metrics.counter("webserver_responses_5xx_total", "Responses with a 5xx status since start", statisticsHandler::getResponses5xx);
+
+        if (this.holder.getVirtualThreadMonitor() != null) {
+            this.holder.getVirtualThreadMonitor().registerMetrics(metrics);
+        }
+
+        for (var connector : this.server.getConnectors()) {
+            if (this.isAdditionalConnector(connector)) {
+                // Looked up by name, as the connector may be rebuilt when the configuration is reloaded
+                var connectorName = connector.getName();
+                var name = connectorName.replaceAll("[^a-zA-Z0-9_]", "_");
+                metrics.gauge("webserver_" + name + "_threads_busy",
+                        "Busy threads of the " + connectorName + " connector", () -> this.getBusyThreads(connectorName));
+            }
+        }
+    }
+
+    private long getBusyThreads(String connectorName) {
+        for (var connector : this.server.getConnectors()) {
+            if (connectorName.equals(connector.getName()) && connector.getExecutor() instanceof QueuedThreadPool pool) {
+                return pool.getBusyThreads();
+            }
+        }
+        return 0;
+    }
+
+    private QueuedThreadPool createThreadPool(WebServerConfig config) {
+        var performance = config.getPerformance();
+        var queue = performance.getQueueSize() > 0
+                ? new BlockingArrayQueue<Runnable>(performance.getQueueSize())
+                : null;
+
+        var threadPool = new QueuedThreadPool(performance.getMaxThreads(), performance.getMinThreads(), queue);
+        threadPool.setName("WebServer");
+
+        if (config.isVirtualThreads()) {
+            if (!VirtualThreads.areSupported()) {
+                this.logger.atWarning().log("Virtual threads are not supported by this JVM, using platform threads");
+                return threadPool;
+            }
+
+            // Selectors and acceptors keep running on the pool's platform threads, while Jetty
+            // dispatches blocking request handling to the virtual thread executor.
+            var namePrefix = "WebServer-virtual-";
+            this.virtualThreadMonitor = new VirtualThreadMonitor(this.logger, namePrefix);
+            threadPool.setVirtualThreadsExecutor(
+                    this.virtualThreadMonitor.wrap(VirtualThreads.getNamedVirtualThreadsExecutor(namePrefix)));
+
+            this.logger.atInfo().log("Handling requests on virtual threads");
+        }
+
+        return threadPool;
+    }
+
+    private ArrayByteBufferPool createByteBufferPool(WebServerConfig config) {
+        var performance = config.getPerformance();
+
+        return new ArrayByteBufferPool(
+                0,
+                -1,
+                performance.getBufferPoolMaxCapacity(),
+                performance.getBufferPoolMaxBucketSize(),
+                performance.getBufferPoolMaxHeapMemory(),
+                performance.getBufferPoolMaxDirectMemory());
+    }
+
+    private void configureConnector(AbstractNetworkConnector connector, WebServerConfig config) {
+        var performance = config.getPerformance();
+
+        connector.setIdleTimeout(performance.getIdleTimeout());
+        if (connector instanceof ServerConnector sc) {
+            sc.setReusePort(performance.isReusePort());
+        }
     }
 
     void setAuthProviders(PluginBase plugin, AuthProvider[] authProviders) {
@@ -85,6 +722,19 @@ final class WebServer {
         pluginToAuthProviders.put(plugin.getIdentifier(), authProviders);
     }
 
+    void setCompressionEnabled(PluginBase plugin, boolean enabled) {
+        if (this.compressionHandler == null) {
+            return;
+        }
+
+        var prefix = buildPluginPathPrefix(plugin.getIdentifier());
+        if (enabled) {
+            this.compressionHandler.includePathPrefix(prefix);
+        } else {
+            this.compressionHandler.excludePathPrefix(prefix);
+        }
+    }
+
     /**
      * Builds the decoded path prefix for a plugin (for servlet mappings).
      * Jetty matches servlet paths against decoded request URIs.
@@ -105,7 +755,40 @@ final class WebServer {
         }
     }
 
+    /**
+     * Creates an auth filter that applies the configured rate limits after resolving the principal.
+     */
+    AuthFilter createAuthFilter(AuthProvider... authProviders) {
+        return new AuthFilter(this.rateLimiter, authProviders);
+    }
+
+    /**
+     * Overrides the rate limit of a principal. Has no effect if rate limiting is disabled.
+     */
+    void setRateLimit(UUID uuid, int requests) {
+        if (this.rateLimiter != null) {
+            this.rateLimiter.setPrincipalLimit(uuid, requests);
+        }
+    }
+
+    void removeRateLimit(UUID uuid) {
+        if (this.rateLimiter != null) {
+            this.rateLimiter.removePrincipalLimit(uuid);
+        }
+    }
+
     void addServlet(PluginBase plugin, String pathSpec, HttpServlet servlet, Filter[] filters, AuthProvider[] defaultAuthProviders) throws IllegalPathSpecException {
+        this.addServlet(plugin, pathSpec, servlet, filters, defaultAuthProviders, false);
+    }
+
+    /**
+     * Registers a servlet whose requests are neither authenticated nor rate limited, e.g. for static assets.
+     */
+    void addPublicServlet(PluginBase plugin, String pathSpec, HttpServlet servlet, Filter[] filters) throws IllegalPathSpecException {
+        this.addServlet(plugin, pathSpec, servlet, filters, null, true);
+    }
+
+    private void addServlet(PluginBase plugin, String pathSpec, HttpServlet servlet, Filter[] filters, AuthProvider[] defaultAuthProviders, boolean isPublic) throws IllegalPathSpecException {
         if (!pathSpec.isEmpty() && !pathSpec.startsWith("/")) {
             throw new IllegalPathSpecException();
         }
@@ -117,15 +800,13 @@ final class WebServer {
         var encodedFullPathSpec = encodedPrefix + pathSpec;
 
         this.addServlet(new AuthorizationWrapperServlet(this.logger, servlet), fullPathSpec);
+        this.requestTracker.register(prefix);
+        if (this.admissionHandler != null) {
+            this.admissionHandler.register(prefix);
+        }
 
-        if (!this.pluginToPathSpecs.containsKey(identifier)) {
-            this.pluginToPathSpecs.put(identifier, new ArrayList<>());
-
-            var authProviders = pluginToAuthProviders.getOrDefault(plugin.getIdentifier(), defaultAuthProviders);
-            var authFilter = new AuthFilter(authProviders);
-
-            this.context.addFilter(authFilter, encodedPrefix, EnumSet.of(DispatcherType.REQUEST));
-            this.context.addFilter(authFilter, encodedPrefix + "/*", EnumSet.of(DispatcherType.REQUEST));
+        if (!isPublic) {
+            this.addAuthPathSpec(identifier, encodedFullPathSpec, defaultAuthProviders);
         }
 
         for (var filter :  filters) {
@@ -150,11 +831,22 @@ final class WebServer {
 
         this.removeServlet(fullPathSpec);
         this.removeFilters(encodedFullPathSpec, false);
+        this.removeAuthPathSpec(identifier, encodedFullPathSpec);
         this.pluginToPathSpecs.computeIfAbsent(identifier, k -> new ArrayList<>());
         this.pluginToPathSpecs.get(identifier).remove(pathSpec);
     }
 
     void removeServlets(PluginBase plugin) {
+        var prefix = buildPluginPathPrefix(plugin.getIdentifier());
+        try {
+            if (!this.requestTracker.drain(prefix, this.drainTimeout)) {
+                this.logger.atWarning().log("Removing servlets of %s with %d requests still in flight",
+                        prefix, this.requestTracker.getActiveRequests(prefix));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
         var toRemove =  Set.copyOf(this.pluginToPathSpecs.get(plugin.getIdentifier()));
 
         for (var pathSpec : toRemove) {
@@ -166,23 +858,87 @@ final class WebServer {
         }
 
         this.removeAuthFilters(plugin);
+        this.setCompressionEnabled(plugin, true);
+        this.requestTracker.unregister(prefix);
+        if (this.admissionHandler != null) {
+            this.admissionHandler.unregister(prefix);
+        }
+    }
+
+    /**
+     * Maps the auth filter of a plugin to the path of one of its servlets.
+     * <p>
+     * Each plugin has a single auth filter, mapped to the paths of all its servlets that are not public. It is
+     * created along with the first of these servlets, and runs before the filters the plugin registered itself.
+     * </p>
+     */
+    private void addAuthPathSpec(PluginIdentifier identifier, String encodedPathSpec, AuthProvider[] defaultAuthProviders) {
+        var servletHandler = this.context.getServletHandler();
+        var mapping = this.pluginToAuthMapping.get(identifier);
+
+        if (mapping == null) {
+            var authProviders = this.pluginToAuthProviders.getOrDefault(identifier, defaultAuthProviders);
+            var holder = new FilterHolder(this.createAuthFilter(authProviders));
+            holder.setName(AuthFilter.class.getSimpleName() + "-" + buildPluginPathPrefix(identifier));
+            servletHandler.addFilter(holder);
+
+            mapping = new FilterMapping();
+            mapping.setFilterName(holder.getName());
+            mapping.setPathSpecs(new String[]{encodedPathSpec});
+            mapping.setDispatcherTypes(EnumSet.of(DispatcherType.REQUEST));
+            servletHandler.prependFilterMapping(mapping);
+            this.pluginToAuthMapping.put(identifier, mapping);
+            return;
+        }
+
+        var pathSpecs = new LinkedHashSet<>(Arrays.asList(mapping.getPathSpecs()));
+        if (pathSpecs.add(encodedPathSpec)) {
+            mapping.setPathSpecs(pathSpecs.toArray(String[]::new));
+            // Rebuilds the cached filter chains
+            servletHandler.setFilterMappings(servletHandler.getFilterMappings());
+        }
+    }
+
+    private void removeAuthPathSpec(PluginIdentifier identifier, String encodedPathSpec) {
+        var mapping = this.pluginToAuthMapping.get(identifier);
+        if (mapping == null) {
+            return;
+        }
+
+        var pathSpecs = new LinkedHashSet<>(Arrays.asList(mapping.getPathSpecs()));
+        if (pathSpecs.remove(encodedPathSpec)) {
+            var servletHandler = this.context.getServletHandler();
+            mapping.setPathSpecs(pathSpecs.toArray(String[]::new));
+            servletHandler.setFilterMappings(servletHandler.getFilterMappings());
+        }
     }
 
     void removeAuthFilters(PluginBase plugin) {
         var identifier = plugin.getIdentifier();
-        var encodedPrefix = buildEncodedPluginPathPrefix(identifier);
+        var mapping = this.pluginToAuthMapping.remove(identifier);
+        if (mapping == null) {
+            return;
+        }
 
-        this.removeFilters(encodedPrefix, true);
-        this.removeFilters(encodedPrefix + "/*", true);
+        var servletHandler = this.context.getServletHandler();
+        servletHandler.setFilterMappings(Arrays.stream(servletHandler.getFilterMappings())
+                .filter(m -> m != mapping)
+                .toArray(FilterMapping[]::new));
+        servletHandler.setFilters(Arrays.stream(servletHandler.getFilters())
+                .filter(h -> !h.getName().equals(mapping.getFilterName()))
+                .toArray(FilterHolder[]::new));
 
         this.logger.atInfo().log("Removed auth filters for plugin: %s/%s", identifier.getGroup(), identifier.getName());
     }
 
     void addServlet(HttpServlet servlet, String pathSpec, AuthFilter ... authFilters) throws IllegalPathSpecException {
-        this.context.addServlet(new ServletHolder(servlet), pathSpec);
+        // Built-in servlets such as the login may complete requests asynchronously
+        var holder = new ServletHolder(servlet);
+        holder.setAsyncSupported(true);
+        this.context.addServlet(holder, pathSpec);
 
         for  (var authFilter : authFilters) {
-            this.context.addFilter(authFilter, pathSpec, EnumSet.of(DispatcherType.REQUEST));
+            this.context.addFilter(authFilter, pathSpec, EnumSet.of(DispatcherType.REQUEST)).setAsyncSupported(true);
         }
         this.logger.atInfo().log("Added servlet at path: %s", pathSpec);
     }
@@ -262,20 +1018,114 @@ final class WebServer {
     }
 
     void start() throws Exception {
+        if (this.server.isStarted()) {
+            // The connectors were retained from the previous plugin instance, so only the handlers need to start
+            this.pluginHandler.setServer(this.server);
+            this.pluginHandler.start();
+            this.holder.getReloadableHandler().attach(this.pluginHandler);
+            this.logger.atInfo().log("WebServer handlers attached to the running server");
+            return;
+        }
+
+        if (this.unixDomainConnector != null) {
+            var socketPath = this.unixDomainConnector.getUnixDomainPath();
+            this.logger.atInfo().log("WebServer listening on unix:%s", socketPath);
+            // A socket file left behind by an unclean shutdown would prevent binding
+            Files.deleteIfExists(socketPath);
+        }
+        if (this.virtualThreadMonitor != null) {
+            this.virtualThreadMonitor.start();
+        }
+        this.server.start();
+
+        if (this.deferredTls) {
+            // The redirect connector is running now and can answer the ACME challenge
+            for (var connector : this.addTlsConnectors(this.config, this.dataDir, this.pathHandler)) {
+                connector.start();
+            }
+        }
+
         for (var connector : this.server.getConnectors()) {
-            if (connector instanceof ServerConnector sc) {
-                this.logger.atInfo().log("WebServer listening on %s:%d", sc.getHost(), sc.getPort());
+            if (connector instanceof NetworkConnector nc) {
+                this.logger.atInfo().log("WebServer listening on %s:%d (%s)", nc.getHost(), nc.getPort(), String.join(", ", nc.getProtocols()));
             }
         }
-        this.server.start();
+
+        if (this.unixDomainConnector != null) {
+            Files.setPosixFilePermissions(this.unixDomainConnector.getUnixDomainPath(),
+                    PosixFilePermissions.fromString(this.unixDomainPermissions));
+        }
     }
 
     void stop() {
+        if (!this.keepAliveOnReload) {
+            this.holder.stop();
+            return;
+        }
+
+        // Keep the connectors listening, and park incoming requests until the next plugin instance attaches
+        this.holder.getReloadableHandler().detach();
         try {
-            this.server.stop();
+            if (!this.requestTracker.awaitIdle(this.drainTimeout)) {
+                this.logger.atWarning().log("Detaching WebServer handlers with requests still in flight");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            this.pluginHandler.stop();
         } catch (Exception e) {
-            this.logger.atSevere().withCause(e).log("Failed to stop WebServer");
+            this.logger.atSevere().withCause(e).log("Failed to stop WebServer handlers");
         }
+
+        ServerHolder.retain(this.holder);
+        this.logger.atInfo().log("WebServer connectors retained for the next plugin instance");
+    }
+
+    ServerConnector createPlainConnector(WebServerConfig config) {
+        var performance = config.getPerformance();
+        var httpConfig = this.createHttpConfiguration(config);
+        var http1 = new HttpConnectionFactory(httpConfig);
+
+        var http2Config = config.getHttp2();
+        if (!http2Config.isEnabled() || !http2Config.isCleartext()) {
+            return new ServerConnector(this.server, performance.getAcceptors(), performance.getSelectors(), http1);
+        }
+
+        var h2c = new HTTP2CServerConnectionFactory(httpConfig);
+        this.configureHttp2(h2c, http2Config);
+
+        return new ServerConnector(this.server, performance.getAcceptors(), performance.getSelectors(), http1, h2c);
+    }
+
+    UnixDomainServerConnector createUnixDomainConnector(WebServerConfig config, Path dataDir) {
+        var unixSocketConfig = config.getUnixSocket();
+        var performance = config.getPerformance();
+        var httpConfig = this.createHttpConfiguration(config);
+
+        // Validate early, so that a typo does not surface only after the socket has been bound
+        PosixFilePermissions.fromString(unixSocketConfig.getPermissions());
+        this.unixDomainPermissions = unixSocketConfig.getPermissions();
+
+        ConnectionFactory[] factories;
+        var http2Config = config.getHttp2();
+        if (http2Config.isEnabled() && http2Config.isCleartext()) {
+            var h2c = new HTTP2CServerConnectionFactory(httpConfig);
+            this.configureHttp2(h2c, http2Config);
+            factories = new ConnectionFactory[]{new HttpConnectionFactory(httpConfig), h2c};
+        } else {
+            factories = new ConnectionFactory[]{new HttpConnectionFactory(httpConfig)};
+        }
+
+        var connector = new UnixDomainServerConnector(this.server, performance.getAcceptors(), performance.getSelectors(), factories);
+        var path = unixSocketConfig.getPath() != null
+                ? Path.of(unixSocketConfig.getPath())
+                : dataDir.resolve("webserver.sock");
+        connector.setUnixDomainPath(path.toAbsolutePath());
+        connector.setIdleTimeout(performance.getIdleTimeout());
+
+        return connector;
     }
 
     ServerConnector createTLSConnector(WebServerConfig config, Path dataDir) {
@@ -287,19 +1137,144 @@ final class WebServer {
             throw new RuntimeException(e);
         }
 
+        var clientAuth = config.getTls().getClientAuth();
+        boolean wantClientAuth = false;
+        if (clientAuth.isEnabled()) {
+            if (this.certificateProvider.getKeyStore() == null) {
+                this.logger.atWarning().log("Client certificate authentication requires a certificate provider that exposes its key store");
+            } else {
+                try {
+                    sslContext = ClientCertificateTrust.createSSLContext(
+                            this.certificateProvider.getKeyStore(),
+                            this.certificateProvider.getKeyStorePassword(),
+                            clientAuth.getTrustedCaPath() != null ? Path.of(clientAuth.getTrustedCaPath()) : null);
+                    wantClientAuth = true;
+                } catch (Exception e) {
+                    this.logger.atSevere().log("Failed to create SSL context for client certificates: " + e.getMessage());
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+
         SslContextFactory.Server ssl = new SslContextFactory.Server();
         ssl.setSslContext(sslContext);
         ssl.setSniRequired(false);
+        // Clients without a certificate can still connect and authenticate otherwise
+        ssl.setWantClientAuth(wantClientAuth);
+
+        // QUIC cannot use the SSLContext directly and needs access to the key material behind it
+        var keyStore = this.certificateProvider.getKeyStore();
+        if (keyStore != null) {
+            var keyStorePassword = new String(this.certificateProvider.getKeyStorePassword());
+            ssl.setKeyStore(keyStore);
+            ssl.setKeyStorePassword(keyStorePassword);
+            ssl.setKeyManagerPassword(keyStorePassword);
+        }
+
+        this.sslContextFactory = ssl;
+
+        var performance = config.getPerformance();
+        HttpConfiguration httpsConfig = this.createSecureHttpConfiguration(config);
+
+        var http3Config = config.getHttp3();
+        if (http3Config.isEnabled()) {
+            var altSvc = "h3=\":" + this.getHttp3Port(config) + "\"; ma=" + http3Config.getAltSvcMaxAge();
+            httpsConfig.addCustomizer((request, responseHeaders) -> {
+                responseHeaders.put("Alt-Svc", altSvc);
+                return request;
+            });
+        }
+
+        var http1 = new HttpConnectionFactory(httpsConfig);
+
+        var http2Config = config.getHttp2();
+        if (!http2Config.isEnabled()) {
+            return new ServerConnector(this.server, performance.getAcceptors(), performance.getSelectors(),
+                    new SslConnectionFactory(ssl, http1.getProtocol()),
+                    http1);
+        }
+
+        // HTTP/2 forbids a number of TLS ciphers, so prefer the allowed ones during negotiation
+        ssl.setCipherComparator(HTTP2Cipher.COMPARATOR);
+
+        var h2 = new HTTP2ServerConnectionFactory(httpsConfig);
+        this.configureHttp2(h2, http2Config);
+
+        var alpn = new ALPNServerConnectionFactory();
+        alpn.setDefaultProtocol(http1.getProtocol());
+
+        return new ServerConnector(this.server, performance.getAcceptors(), performance.getSelectors(),
+                new SslConnectionFactory(ssl, alpn.getProtocol()),
+                alpn,
+                h2,
+                http1);
+    }
+
+    Connector createHttp3Connector(WebServerConfig config, InetSocketAddress addr, Path dataDir) {
+        if (this.sslContextFactory.getKeyStore() == null) {
+            throw new IllegalStateException("HTTP/3 requires a certificate provider that exposes its key store");
+        }
+
+        // Quiche reads the certificate and private key from PEM files it writes to this directory
+        var pemWorkDir = dataDir.resolve("quic");
+        try {
+            Files.createDirectories(pemWorkDir);
+        } catch (java.io.IOException e) {
+            throw new RuntimeException("Failed to create QUIC working directory " + pemWorkDir, e);
+        }
+
+        var quicConfig = new ServerQuicConfiguration(this.sslContextFactory, pemWorkDir);
+        var connector = new QuicheServerConnector(this.server, quicConfig,
+                new HTTP3ServerConnectionFactory(quicConfig, this.createSecureHttpConfiguration(config)));
+
+        connector.setHost(addr.getHostName());
+        connector.setPort(this.getHttp3Port(config));
+        this.configureConnector(connector, config);
+
+        this.logger.atWarning().log("Experimental HTTP/3 support is enabled");
+
+        return connector;
+    }
+
+    private int getHttp3Port(WebServerConfig config) {
+        var port = config.getHttp3().getPort();
+        return port > 0 ? port : config.getBindPort();
+    }
+
+    private HttpConfiguration createHttpConfiguration(WebServerConfig config) {
+        var performance = config.getPerformance();
+        var limits = config.getLimits();
 
-        HttpConfiguration httpsConfig = new HttpConfiguration();
+        var httpConfig = new HttpConfiguration();
+        httpConfig.setRequestHeaderSize(performance.getRequestHeaderSize());
+        httpConfig.setOutputBufferSize(performance.getOutputBufferSize());
+        httpConfig.setIdleTimeout(performance.getIdleTimeout());
+
+        // Protects against slowloris-style clients holding connections and threads
+        if (limits.getMinRequestDataRate() > 0) {
+            httpConfig.setMinRequestDataRate(limits.getMinRequestDataRate());
+        }
+        if (limits.getMinResponseDataRate() > 0) {
+            httpConfig.setMinResponseDataRate(limits.getMinResponseDataRate());
+        }
+
+        return httpConfig;
+    }
+
+    private HttpConfiguration createSecureHttpConfiguration(WebServerConfig config) {
+        HttpConfiguration httpsConfig = this.createHttpConfiguration(config);
         SecureRequestCustomizer secureRequestCustomizer = new SecureRequestCustomizer();
         secureRequestCustomizer.setSniRequired(false);
         secureRequestCustomizer.setSniHostCheck(false);
         httpsConfig.addCustomizer(secureRequestCustomizer);
 
-        return new ServerConnector(this.server,
-                new SslConnectionFactory(ssl, HttpVersion.HTTP_1_1.asString()),
-                new HttpConnectionFactory(httpsConfig));
+        return httpsConfig;
+    }
+
+    private void configureHttp2(AbstractHTTP2ServerConnectionFactory factory, Http2Config http2Config) {
+        factory.setMaxConcurrentStreams(http2Config.getMaxConcurrentStreams());
+        factory.setInitialStreamRecvWindow(http2Config.getInitialStreamRecvWindow());
+        factory.setInitialSessionRecvWindow(http2Config.getInitialSessionRecvWindow());
     }
 
     SSLContext createSSLContext(WebServerConfig config, Path dataDir) throws Exception {
@@ -311,6 +1286,13 @@ final class WebServer {
                 msg -> this.logger.atInfo().log(msg)
         );
         this.logger.at(Level.INFO).log("Using certificate provider: " + tlsConfig.getCertificateProvider());
+        this.certificateProvider = provider;
+
+        // Issuing the certificate blocks until Let's Encrypt has fetched the challenge, so it has to be
+        // served before the SSL context is requested
+        if (provider instanceof LetsEncryptCertificateProvider letsEncrypt) {
+            this.redirectHandler.setPendingChallenges(letsEncrypt.getPendingChallenges());
+        }
         return provider.createSSLContext();
     }
 }
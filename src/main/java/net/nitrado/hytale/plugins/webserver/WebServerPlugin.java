@@ -11,15 +11,25 @@ import com.hypixel.hytale.server.core.util.Config;
 import jakarta.servlet.Filter;
 import jakarta.servlet.http.HttpServlet;
 import net.nitrado.hytale.plugins.webserver.authentication.AuthProvider;
-import net.nitrado.hytale.plugins.webserver.authentication.internal.AuthFilter;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.AccessTokenAuthProvider;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.AccessTokenService;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.ApiKeyAuthProvider;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.ClientCertificateAuthProvider;
 import net.nitrado.hytale.plugins.webserver.authentication.internal.BasicAuthProvider;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.LoginChallenge;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.AuthExecutor;
 import net.nitrado.hytale.plugins.webserver.authentication.internal.SessionAuthProvider;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.SessionCookieCodec;
 import net.nitrado.hytale.plugins.webserver.authentication.store.*;
 import net.nitrado.hytale.plugins.webserver.commands.WebServerCommand;
 import net.nitrado.hytale.plugins.webserver.config.WebServerConfig;
+import net.nitrado.hytale.plugins.webserver.metrics.MetricsRegistry;
+import net.nitrado.hytale.plugins.webserver.ratelimit.LoginFailureTracker;
 import net.nitrado.hytale.plugins.webserver.servlets.internal.IndexServlet;
 import net.nitrado.hytale.plugins.webserver.servlets.internal.LoginServlet;
 import net.nitrado.hytale.plugins.webserver.servlets.internal.LogoutServlet;
+import net.nitrado.hytale.plugins.webserver.servlets.internal.MetricsServlet;
+import net.nitrado.hytale.plugins.webserver.servlets.internal.TokenServlet;
 import net.nitrado.hytale.plugins.webserver.servlets.StaticFileServlet;
 import net.nitrado.hytale.plugins.webserver.templates.TemplateEngineFactory;
 import org.bson.Document;
@@ -42,6 +52,7 @@ import java.util.logging.Level;
  * This class is the primary entry point for consumer plugins. Use the following methods:
  * <ul>
  *   <li>{@link #addServlet} - Register an HTTP servlet</li>
+ *   <li>{@link #addPublicServlet} - Register an HTTP servlet that skips authentication, e.g. for static assets</li>
  *   <li>{@link #removeServlet} / {@link #removeServlets} - Unregister servlets</li>
  *   <li>{@link #setAuthProviders} - Configure custom authentication</li>
  *   <li>{@link #getDefaultAuthProviders} - Get the default auth providers</li>
@@ -67,8 +78,17 @@ public final class WebServerPlugin extends JavaPlugin {
 
     private UserCredentialStore userCredentialStore;
     private UserCredentialStore serviceAccountCredentialStore;
+    private ApiKeyStore apiKeyStore;
+    private ClientCertificateStore clientCertificateStore;
+    private AccessTokenService accessTokenService;
+    private SessionCookieCodec sessionCookieCodec;
+    private AuthExecutor authExecutor;
+    private LoginFailureTracker loginFailureTracker;
+    private LoginChallenge loginChallenge;
+    private volatile AuthProvider[] defaultAuthProviders;
     private TemplateEngineFactory templateEngineFactory;
     private LoginCodeStore loginCodeStore;
+    private MetricsRegistry metrics;
 
     private Path dataDir;
 
@@ -80,7 +100,9 @@ public final class WebServerPlugin extends JavaPlugin {
         this.dataDir = getDataDirectory();
 
         this.templateEngineFactory = new TemplateEngineFactory(this);
-        this.webServer = new WebServer(l.getSubLogger("WebServer"), cfg, dataDir);
+        this.metrics = new MetricsRegistry();
+        this.webServer = new WebServer(l.getSubLogger("WebServer"), cfg, dataDir, this.metrics,
+                ServerHolder.fingerprint(dataDir.resolve("config.json")));
 
         try {
             this.setupAuthStores();
@@ -128,7 +150,7 @@ public final class WebServerPlugin extends JavaPlugin {
     }
 
     void setupCommands() {
-        CommandManager.get().register(new WebServerCommand(this.loginCodeStore));
+        CommandManager.get().register(new WebServerCommand(this, this.loginCodeStore, () -> this.config.get().getLogin()));
     }
 
     void setupAuthStores() throws IOException {
@@ -136,10 +158,16 @@ public final class WebServerPlugin extends JavaPlugin {
 
         var dataDir = getDataDirectory();
 
-        var serviceAccountStore = new JsonPasswordStore(dataDir.resolve("store/serviceaccounts.json"), getLogger().getSubLogger("ServiceAccountCredentialStore"));
+        var bcryptCost = this.config.get().getLogin().getBcryptCost();
+
+        var serviceAccountStore = new JsonPasswordStore(dataDir.resolve("store/serviceaccounts.json"), getLogger().getSubLogger("ServiceAccountCredentialStore"),
+                new VerifiedCredentialCache(), bcryptCost);
         serviceAccountStore.load();
+        // Service account hashes come from their provisioning files, which are imported again on every start
+        serviceAccountStore.setRehash(false);
 
-        var userStore = new JsonPasswordStore(dataDir.resolve("store/users.json"), getLogger().getSubLogger("UserCredentialStore"));
+        var userStore = new JsonPasswordStore(dataDir.resolve("store/users.json"), getLogger().getSubLogger("UserCredentialStore"),
+                new VerifiedCredentialCache(), bcryptCost);
         userStore.load();
 
         this.serviceAccountCredentialStore = serviceAccountStore;
@@ -147,24 +175,74 @@ public final class WebServerPlugin extends JavaPlugin {
 
         this.userCredentialStore = userStore;
         this.userCredentialValidator = userStore;
+
+        this.apiKeyStore = new ApiKeyStore();
+        this.clientCertificateStore = new ClientCertificateStore();
+
+        var accessTokens = this.config.get().getAccessTokens();
+        if (accessTokens.isEnabled()) {
+            this.accessTokenService = AccessTokenService.load(dataDir.resolve("store"), accessTokens.getLifetime(),
+                    getLogger().getSubLogger("AccessTokenService"));
+        }
+
+        var login = this.config.get().getLogin();
+        this.authExecutor = new AuthExecutor(login.getHashThreads(), login.getHashQueueSize());
+        this.authExecutor.registerMetrics(this.metrics);
+        this.loginFailureTracker = new LoginFailureTracker(login);
+        this.loginFailureTracker.registerMetrics(this.metrics);
+        if (login.isChallenges()) {
+            this.loginChallenge = new LoginChallenge(this.authExecutor, login.getChallengeMinDifficulty(), login.getChallengeMaxDifficulty());
+            this.loginChallenge.registerMetrics(this.metrics);
+        }
+
+        var sessions = this.config.get().getSessions();
+        if (sessions.isCookieStore()) {
+            this.sessionCookieCodec = new SessionCookieCodec(dataDir.resolve("store/session-keys"),
+                    sessions.getKeyRotationInterval(), sessions.getMaxInactiveInterval(),
+                    !this.config.get().getTls().isInsecure(), getLogger().getSubLogger("SessionCookies"));
+        }
     }
 
     void setupBuiltinRoutes() throws IOException {
         try {
             this.webServer.addServlet(new IndexServlet(
                     this
-            ), "", new AuthFilter(getDefaultAuthProviders()));
+            ), "", this.webServer.createAuthFilter(getDefaultAuthProviders()));
 
             this.webServer.addServlet(new LoginServlet(
                     this,
                     getLogger().getSubLogger("LoginServlet"),
                     this.userCredentialStore,
                     this.userCredentialValidator,
-                    this.loginCodeStore
-            ), "/login", new AuthFilter(getDefaultAuthProviders()));
+                    this.loginCodeStore,
+                    this.sessionCookieCodec,
+                    this.authExecutor,
+                    this.loginFailureTracker,
+                    this.loginChallenge
+            ), "/login", this.webServer.createAuthFilter(getDefaultAuthProviders()));
+
+            // Logging out and requesting tokens never look at the current user, so these routes skip authentication
+            this.webServer.addServlet(
+                    new LogoutServlet(getLogger().getSubLogger("LogoutServlet"), this.sessionCookieCodec), "/logout", this.webServer.createAuthFilter());
 
             this.webServer.addServlet(
-                    new LogoutServlet(getLogger().getSubLogger("LogoutServlet")), "/logout", new AuthFilter(getDefaultAuthProviders()));
+                    new MetricsServlet(this.metrics), "/metrics", this.webServer.createAuthFilter(getDefaultAuthProviders()));
+
+            if (this.accessTokenService != null) {
+                var combined = new CombinedCredentialValidator();
+                combined.add(this.userCredentialValidator);
+                combined.add(this.serviceAccountCredentialValidator);
+
+                this.webServer.addServlet(new TokenServlet(
+                        getLogger().getSubLogger("TokenServlet"),
+                        this.accessTokenService,
+                        combined,
+                        this.loginCodeStore,
+                        this.loginFailureTracker,
+                        this.authExecutor,
+                        this.loginChallenge
+                ), "/token", this.webServer.createAuthFilter());
+            }
         } catch (IllegalPathSpecException e) {
             // we don't make mistakes
         }
@@ -173,6 +251,9 @@ public final class WebServerPlugin extends JavaPlugin {
     @Override
     protected void shutdown() {
         this.webServer.stop();
+        if (this.authExecutor != null) {
+            this.authExecutor.shutdown();
+        }
     }
 
     /**
@@ -180,22 +261,55 @@ public final class WebServerPlugin extends JavaPlugin {
      * <p>
      * The returned array contains providers that are tried in order:
      * <ol>
-     *   <li>{@link SessionAuthProvider} - authenticates via HTTP session cookies</li>
+     *   <li>{@link SessionAuthProvider} - authenticates via HTTP sessions or encrypted session cookies</li>
      *   <li>{@link BasicAuthProvider} - authenticates via HTTP Basic Authentication using
      *       credentials from service account store</li>
+     *   <li>{@link ApiKeyAuthProvider} - authenticates service accounts via API keys sent as
+     *       {@code Authorization: Bearer <keyId>.<secret>}</li>
+     *   <li>{@link AccessTokenAuthProvider} - authenticates via signed access tokens issued by {@code /token},
+     *       if access tokens are enabled</li>
+     *   <li>{@link ClientCertificateAuthProvider} - authenticates service accounts via TLS client certificates,
+     *       if client certificate authentication is enabled</li>
      * </ol>
      * </p>
      *
+     * <p>
+     * The providers are created once and shared by all servlets; each call returns a new array of them.
+     * </p>
+     *
      * @return an array of authentication providers in priority order
      */
     public AuthProvider[] getDefaultAuthProviders() {
+        var providers = this.defaultAuthProviders;
+        if (providers == null) {
+            providers = this.createDefaultAuthProviders();
+            this.defaultAuthProviders = providers;
+        }
+
+        return providers.clone();
+    }
+
+    private AuthProvider[] createDefaultAuthProviders() {
         var combined = new CombinedCredentialValidator();
         combined.add(this.serviceAccountCredentialValidator);
 
-        return new AuthProvider[]{
-                new SessionAuthProvider(getLogger().getSubLogger("SessionAuthProvider")),
-                new BasicAuthProvider(combined),
-        };
+        var providers = new ArrayList<AuthProvider>(List.of(
+                new SessionAuthProvider(getLogger().getSubLogger("SessionAuthProvider"), this.sessionCookieCodec),
+                new BasicAuthProvider(combined, this.loginFailureTracker),
+                new ApiKeyAuthProvider(this.apiKeyStore)
+        ));
+
+        if (this.accessTokenService != null) {
+            providers.add(new AccessTokenAuthProvider(this.accessTokenService));
+        }
+
+        var clientAuth = this.config.get().getTls().getClientAuth();
+        if (clientAuth.isEnabled()) {
+            // Subjects can be forged with a self-signed certificate unless a CA vouches for them
+            providers.add(new ClientCertificateAuthProvider(this.clientCertificateStore, clientAuth.getTrustedCaPath() != null));
+        }
+
+        return providers.toArray(AuthProvider[]::new);
     }
 
     /**
@@ -214,6 +328,11 @@ public final class WebServerPlugin extends JavaPlugin {
      *   <li>{@code PasswordHash} - bcrypt-hashed password</li>
      *   <li>{@code Groups} - list of permission groups</li>
      *   <li>{@code Permissions} - list of individual permissions</li>
+     *   <li>{@code RateLimit} - optional object with the number of {@code Requests} per rate limit period</li>
+     *   <li>{@code ApiKeys} - optional list of API keys, each with an {@code Id} and the {@code SecretHash}, the
+     *       hex encoded HMAC-SHA256 of the secret keyed with the id</li>
+     *   <li>{@code ClientCertificates} - optional list of TLS client certificates, each with either the SHA-256
+     *       {@code Fingerprint} or the {@code Subject} of the certificate</li>
      * </ul>
      * </p>
      *
@@ -262,6 +381,22 @@ public final class WebServerPlugin extends JavaPlugin {
         getWebServer().setAuthProviders(plugin, authProviders);
     }
 
+    /**
+     * Enables or disables response compression and request inflation for a plugin's servlets.
+     * <p>
+     * Compression is enabled by default. Plugins that stream responses, such as server-sent events, or
+     * that serve already compressed content may opt out. This is typically called right before registering
+     * servlets with {@link #addServlet}, and is reset when the plugin's servlets are removed with
+     * {@link #removeServlets}.
+     * </p>
+     *
+     * @param plugin  the plugin whose servlets should (not) be compressed
+     * @param enabled whether compression is enabled for the plugin's servlets
+     */
+    public void setCompressionEnabled(@Nonnull PluginBase plugin, boolean enabled) {
+        getWebServer().setCompressionEnabled(plugin, enabled);
+    }
+
     /**
      * Registers an HTTP servlet for a plugin at the specified path.
      * <p>
@@ -286,6 +421,29 @@ public final class WebServerPlugin extends JavaPlugin {
         getWebServer().addServlet(plugin, pathSpec, servlet, filters, getDefaultAuthProviders());
     }
 
+    /**
+     * Registers an HTTP servlet for a plugin at the specified path, without authentication.
+     * <p>
+     * The servlet is mounted like one registered with {@link #addServlet}, but its requests skip the
+     * authentication providers and rate limiting entirely. This is intended for static assets such as scripts,
+     * stylesheets and images. Requests to a public servlet carry no user principal, so any
+     * {@link net.nitrado.hytale.plugins.webserver.authorization.RequirePermissions} annotation on it rejects them.
+     * </p>
+     * <p>
+     * A public path that also matches the path of a servlet registered with {@link #addServlet}, such as
+     * {@code /assets/*} below {@code /*}, is still authenticated.
+     * </p>
+     *
+     * @param plugin   the plugin registering the servlet
+     * @param pathSpec the path specification (must be empty or start with "/")
+     * @param servlet  the HTTP servlet to register
+     * @param filters  optional HTTP filters to apply to this path
+     * @throws IllegalPathSpecException if the pathSpec is invalid (non-empty and doesn't start with "/")
+     */
+    public void addPublicServlet(@Nonnull PluginBase plugin, String pathSpec, HttpServlet servlet, Filter ...filters) throws IllegalPathSpecException {
+        getWebServer().addPublicServlet(plugin, pathSpec, servlet, filters);
+    }
+
     /**
      * Removes a previously registered servlet for a plugin at the specified path.
      * <p>
@@ -337,6 +495,23 @@ public final class WebServerPlugin extends JavaPlugin {
         return this.webServer.getRegisteredPlugins();
     }
 
+    /**
+     * Reloads the configuration file and applies the changes to the running web server.
+     * <p>
+     * Only the connectors whose settings changed are rebuilt. Settings that cannot be changed at runtime,
+     * including all authentication settings, take effect the next time the plugin is reloaded.
+     * </p>
+     *
+     * @return a description of each applied or pending change
+     * @throws Exception if the changes could not be applied
+     */
+    public List<String> reloadConfig() throws Exception {
+        var cfg = this.config.load().join();
+        // The auth providers, the session cookie codec and the token service are kept, as the servlets
+        // registered so far hold on to them
+        return this.webServer.reconfigure(cfg, ServerHolder.fingerprint(this.dataDir.resolve("config.json")));
+    }
+
     UUID createServiceAccountBcrypt(String name, String passwordHash) throws IOException {
         return this.createServiceAccountBcrypt(UUID.randomUUID(), name, passwordHash);
     }
@@ -387,11 +562,40 @@ public final class WebServerPlugin extends JavaPlugin {
         }
 
         PermissionsModule.get().addUserPermission(uuid, Set.copyOf(permissions));
+
+        var rateLimit = document.get("RateLimit", Document.class);
+        if (rateLimit != null) {
+            this.webServer.setRateLimit(uuid, rateLimit.getInteger("Requests", 0));
+        }
+
+        var apiKeys = document.getList("ApiKeys", Document.class);
+        if (apiKeys != null) {
+            var storedName = this.serviceAccountCredentialStore.getNameByUUID(uuid);
+            for (var apiKey : apiKeys) {
+                this.apiKeyStore.setKey(apiKey.getString("Id"), uuid, storedName, apiKey.getString("SecretHash"));
+            }
+        }
+
+        var clientCertificates = document.getList("ClientCertificates", Document.class);
+        if (clientCertificates != null) {
+            var storedName = this.serviceAccountCredentialStore.getNameByUUID(uuid);
+            for (var certificate : clientCertificates) {
+                if (certificate.containsKey("Fingerprint")) {
+                    this.clientCertificateStore.addFingerprint(certificate.getString("Fingerprint"), uuid, storedName);
+                }
+                if (certificate.containsKey("Subject")) {
+                    this.clientCertificateStore.addSubject(certificate.getString("Subject"), uuid, storedName);
+                }
+            }
+        }
     }
 
     void deleteServiceAccount(UUID uuid) throws IOException {
         try {
             this.serviceAccountCredentialStore.deleteUserCredential(uuid);
+            this.apiKeyStore.removeKeys(uuid);
+            this.clientCertificateStore.removeCertificates(uuid);
+            this.webServer.removeRateLimit(uuid);
             var perm = PermissionsModule.get();
 
             for (PermissionProvider provider : perm.getProviders()) {
@@ -6,7 +6,18 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.security.Principal;
 
 public interface AuthProvider {
-    record AuthResult(AuthResultType type, Principal principal) {}
+    record AuthResult(AuthResultType type, Principal principal) {
+        /**
+         * Shared result for requests without credentials for the provider, so that it allocates nothing
+         * on the common path.
+         */
+        public static final AuthResult NONE = new AuthResult(AuthResultType.NONE, null);
+
+        /**
+         * Shared result for rejected credentials.
+         */
+        public static final AuthResult FAILURE = new AuthResult(AuthResultType.FAILURE, null);
+    }
 
     /**
      * AuthResultType is used as return value for authentication methods.
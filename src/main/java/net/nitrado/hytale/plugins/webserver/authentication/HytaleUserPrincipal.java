@@ -5,6 +5,7 @@ import com.hypixel.hytale.server.core.permissions.PermissionsModule;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.Serializable;
 import java.security.Principal;
 import java.util.Set;
 import java.util.UUID;
@@ -27,10 +28,14 @@ import java.util.UUID;
  * }</pre>
  * </p>
  */
-public class HytaleUserPrincipal implements Principal, PermissionHolder {
+public class HytaleUserPrincipal implements Principal, PermissionHolder, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     static UUID anonymousUserUuid = new UUID(0,0);
 
+    private static final HytaleUserPrincipal ANONYMOUS = new HytaleUserPrincipal(anonymousUserUuid, "Anonymous");
+
     private final UUID uuid;
     private final String name;
 
@@ -86,6 +91,7 @@ public class HytaleUserPrincipal implements Principal, PermissionHolder {
     }
 
     public static HytaleUserPrincipal getAnonymous() {
-        return new HytaleUserPrincipal(anonymousUserUuid, "Anonymous");
+        // Immutable, so every anonymous request can share it
+        return ANONYMOUS;
     }
 }
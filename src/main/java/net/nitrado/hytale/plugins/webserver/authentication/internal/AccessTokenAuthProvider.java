@@ -0,0 +1,51 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.nitrado.hytale.plugins.webserver.authentication.AuthProvider;
+
+/**
+ * Authentication provider for signed access tokens sent as {@code Authorization: Bearer <token>}.
+ * <p>
+ * Tokens are verified by their signature and expiry alone, without consulting any credential or session
+ * store. Bearer credentials that are not shaped like a token are left to other providers.
+ * </p>
+ * <p>
+ * <strong>Internal:</strong> Consumers receive a pre-configured instance via
+ * {@link net.nitrado.hytale.plugins.webserver.WebServerPlugin#getDefaultAuthProviders()}.
+ * </p>
+ */
+public final class AccessTokenAuthProvider implements AuthProvider {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final AccessTokenService tokenService;
+    private final AuthResultCache results = new AuthResultCache();
+
+    public AccessTokenAuthProvider(AccessTokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    public AuthProvider.AuthResult authenticate(HttpServletRequest req, HttpServletResponse res) {
+        String authHeader = req.getHeader("Authorization");
+
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return AuthResult.NONE;
+        }
+
+        // Tokens consist of exactly three dot-separated parts
+        String token = authHeader.substring(BEARER_PREFIX.length()).trim();
+        int first = token.indexOf('.');
+        if (first < 0 || token.indexOf('.', first + 1) < 0) {
+            return AuthResult.NONE;
+        }
+
+        var result = this.tokenService.verify(token);
+        if (result == null) {
+            return AuthResult.FAILURE;
+        }
+
+        return this.results.get(result);
+    }
+}
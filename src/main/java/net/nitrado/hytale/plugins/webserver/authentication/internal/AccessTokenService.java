@@ -0,0 +1,148 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import net.nitrado.hytale.plugins.webserver.authentication.store.CredentialValidator;
+import org.bouncycastle.crypto.params.Ed25519PrivateKeyParameters;
+import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
+import org.bouncycastle.crypto.signers.Ed25519Signer;
+import org.bouncycastle.crypto.util.SubjectPublicKeyInfoFactory;
+import org.bson.Document;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues and verifies short-lived access tokens, signed with Ed25519.
+ * <p>
+ * Tokens are JSON Web Tokens with the {@code EdDSA} algorithm, carrying the UUID of the user as {@code sub}
+ * and the username as {@code name}. Verifying a token only requires the public key, which is written next to
+ * the private key as {@code token-signing.pub}, so other services can validate tokens as well.
+ * </p>
+ * <p>
+ * <strong>Internal API:</strong> This class is not intended for use by consumer plugins.
+ * </p>
+ */
+public final class AccessTokenService {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Ed25519PrivateKeyParameters privateKey;
+    private final Ed25519PublicKeyParameters publicKey;
+    private final String encodedHeader;
+    private final long lifetimeSeconds;
+    private final Clock clock;
+
+    AccessTokenService(Ed25519PrivateKeyParameters privateKey, long lifetimeSeconds, Clock clock) {
+        this.privateKey = privateKey;
+        this.publicKey = privateKey.generatePublicKey();
+        this.lifetimeSeconds = lifetimeSeconds;
+        this.clock = clock;
+
+        var header = new Document("alg", "EdDSA").append("typ", "JWT").toJson();
+        this.encodedHeader = ENCODER.encodeToString(header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Loads the signing key from the given directory, generating it on first use.
+     *
+     * @param keyDir          the directory holding {@code token-signing.key} and {@code token-signing.pub}
+     * @param lifetimeSeconds the number of seconds issued tokens are valid
+     * @param logger          the logger
+     * @return the token service
+     * @throws IOException if the key cannot be read or written
+     */
+    public static AccessTokenService load(Path keyDir, long lifetimeSeconds, HytaleLogger logger) throws IOException {
+        var keyFile = keyDir.resolve("token-signing.key");
+
+        Ed25519PrivateKeyParameters privateKey;
+        if (Files.exists(keyFile)) {
+            privateKey = new Ed25519PrivateKeyParameters(Base64.getDecoder().decode(Files.readString(keyFile).trim()), 0);
+        } else {
+            privateKey = new Ed25519PrivateKeyParameters(new SecureRandom());
+            KeyFiles.write(keyFile, Base64.getEncoder().encodeToString(privateKey.getEncoded()));
+            logger.atInfo().log("Generated a new access token signing key at %s", keyFile);
+        }
+
+        var service = new AccessTokenService(privateKey, lifetimeSeconds, Clock.systemUTC());
+        Files.writeString(keyDir.resolve("token-signing.pub"), service.getPublicKeyPem());
+
+        return service;
+    }
+
+    public long getLifetimeSeconds() {
+        return this.lifetimeSeconds;
+    }
+
+    /**
+     * Issues a token for the given user.
+     */
+    public String issue(UUID uuid, String username) {
+        long now = this.clock.instant().getEpochSecond();
+
+        var claims = new Document("sub", uuid.toString())
+                .append("name", username)
+                .append("iat", now)
+                .append("exp", now + this.lifetimeSeconds);
+
+        var signingInput = this.encodedHeader + "." + ENCODER.encodeToString(claims.toJson().getBytes(StandardCharsets.UTF_8));
+        var data = signingInput.getBytes(StandardCharsets.US_ASCII);
+
+        var signer = new Ed25519Signer();
+        signer.init(true, this.privateKey);
+        signer.update(data, 0, data.length);
+
+        return signingInput + "." + ENCODER.encodeToString(signer.generateSignature());
+    }
+
+    /**
+     * Verifies the signature and expiry of a token.
+     *
+     * @param token the token
+     * @return the user the token was issued for, or null if it is invalid or expired
+     */
+    public CredentialValidator.ValidationResult verify(String token) {
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        if (first < 0 || second < 0 || token.indexOf('.', second + 1) >= 0) {
+            return null;
+        }
+
+        try {
+            var data = token.substring(0, second).getBytes(StandardCharsets.US_ASCII);
+            var signature = DECODER.decode(token.substring(second + 1));
+
+            var verifier = new Ed25519Signer();
+            verifier.init(false, this.publicKey);
+            verifier.update(data, 0, data.length);
+            if (!verifier.verifySignature(signature)) {
+                return null;
+            }
+
+            var claims = Document.parse(new String(DECODER.decode(token.substring(first + 1, second)), StandardCharsets.UTF_8));
+            var exp = claims.get("exp", Number.class);
+            if (exp == null || exp.longValue() <= this.clock.instant().getEpochSecond()) {
+                return null;
+            }
+
+            return new CredentialValidator.ValidationResult(UUID.fromString(claims.getString("sub")), claims.getString("name"));
+        } catch (RuntimeException e) {
+            // Malformed encoding or claims
+            return null;
+        }
+    }
+
+    private String getPublicKeyPem() throws IOException {
+        var encoded = SubjectPublicKeyInfoFactory.createSubjectPublicKeyInfo(this.publicKey).getEncoded();
+
+        return "-----BEGIN PUBLIC KEY-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(encoded)
+                + "\n-----END PUBLIC KEY-----\n";
+    }
+}
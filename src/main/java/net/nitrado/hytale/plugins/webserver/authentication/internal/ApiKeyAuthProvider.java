@@ -0,0 +1,56 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.nitrado.hytale.plugins.webserver.authentication.AuthProvider;
+import net.nitrado.hytale.plugins.webserver.authentication.store.ApiKeyStore;
+
+/**
+ * Authentication provider for service account API keys sent as {@code Authorization: Bearer <keyId>.<secret>}.
+ * <p>
+ * Bearer credentials that are not of this form are left to other providers.
+ * </p>
+ * <p>
+ * <strong>Internal:</strong> Consumers receive a pre-configured instance via
+ * {@link net.nitrado.hytale.plugins.webserver.WebServerPlugin#getDefaultAuthProviders()}.
+ * </p>
+ */
+public final class ApiKeyAuthProvider implements AuthProvider {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final ApiKeyStore apiKeyStore;
+    private final AuthResultCache results = new AuthResultCache();
+
+    public ApiKeyAuthProvider(ApiKeyStore apiKeyStore) {
+        this.apiKeyStore = apiKeyStore;
+    }
+
+    @Override
+    public AuthProvider.AuthResult authenticate(HttpServletRequest req, HttpServletResponse res) {
+        String authHeader = req.getHeader("Authorization");
+
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return AuthResult.NONE;
+        }
+
+        String token = authHeader.substring(BEARER_PREFIX.length()).trim();
+        int dotIndex = token.indexOf('.');
+        if (dotIndex < 0 || token.indexOf('.', dotIndex + 1) >= 0) {
+            return AuthResult.NONE;
+        }
+
+        String keyId = token.substring(0, dotIndex);
+        String secret = token.substring(dotIndex + 1);
+        if (keyId.isEmpty() || secret.isEmpty()) {
+            return AuthResult.FAILURE;
+        }
+
+        var result = this.apiKeyStore.validate(keyId, secret);
+        if (result == null) {
+            return AuthResult.FAILURE;
+        }
+
+        return this.results.get(result);
+    }
+}
@@ -0,0 +1,100 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import net.nitrado.hytale.plugins.webserver.metrics.MetricsRegistry;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded executor for password hashing, which is deliberately slow and would otherwise occupy request threads.
+ * <p>
+ * Tasks wait in a queue of fixed size; once it is full, {@link #execute(Runnable)} refuses further tasks instead
+ * of letting them pile up, so that callers can reject the request right away.
+ * </p>
+ * <p>
+ * <strong>Internal API:</strong> This class is not intended for use by consumer plugins.
+ * </p>
+ */
+public final class AuthExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final int queueSize;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * @param threads   the number of hashing threads
+     * @param queueSize the maximum number of tasks waiting for a thread
+     */
+    public AuthExecutor(int threads, int queueSize) {
+        var counter = new AtomicInteger();
+        this.queueSize = Math.max(1, queueSize);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueSize),
+                runnable -> {
+                    var thread = new Thread(runnable, "WebServer-auth-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs a task on a hashing thread.
+     *
+     * @param task the task
+     * @return false if the queue is full and the task was not accepted
+     */
+    public boolean execute(Runnable task) {
+        long queued = System.nanoTime();
+
+        try {
+            this.executor.execute(() -> {
+                long started = System.nanoTime();
+                this.waitNanos.add(started - queued);
+                try {
+                    task.run();
+                } finally {
+                    this.hashNanos.add(System.nanoTime() - started);
+                    this.completed.increment();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            this.rejected.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the number of tasks waiting for a thread.
+     */
+    public int getQueueDepth() {
+        return this.executor.getQueue().size();
+    }
+
+    public int getQueueSize() {
+        return this.queueSize;
+    }
+
+    public void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("webserver_auth_queue_depth", "Logins waiting for a password hashing thread", this::getQueueDepth);
+        metrics.gauge("webserver_auth_active", "Logins currently hashing a password", this.executor::getActiveCount);
+        metrics.counter("webserver_auth_hashes_total", "Password hashing tasks completed", this.completed::sum);
+        metrics.counter("webserver_auth_rejected_total", "Logins rejected because the hashing queue was full", this.rejected::sum);
+        metrics.counter("webserver_auth_hash_milliseconds_total", "Time spent hashing passwords",
+                () -> TimeUnit.NANOSECONDS.toMillis(this.hashNanos.sum()));
+        metrics.counter("webserver_auth_wait_milliseconds_total", "Time logins spent waiting for a hashing thread",
+                () -> TimeUnit.NANOSECONDS.toMillis(this.waitNanos.sum()));
+    }
+
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+}
@@ -6,20 +6,45 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import net.nitrado.hytale.plugins.webserver.authentication.AuthProvider;
 import net.nitrado.hytale.plugins.webserver.authentication.HytaleUserPrincipal;
+import net.nitrado.hytale.plugins.webserver.ratelimit.RateLimiter;
 
 import java.io.IOException;
+import java.security.Principal;
 
 /**
  * Internal filter that processes authentication for incoming requests.
  * <p>
+ * A filter without providers serves built-in routes that never look at the user, such as {@code /token}: every
+ * request is anonymous and only rate limited, and the response wrapper needed for challenges is skipped.
+ * </p>
+ * <p>
+ * Providers share their results between the requests of a user, so that a request from a logged-in user or a
+ * service account allocates no result or principal. What remains per request is the wrapper attaching the
+ * principal to the request, the wrapper capturing a 401 for anonymous requests on routes with providers, and
+ * whatever a provider's own credential check allocates, such as the HMAC of an API key or the signature
+ * verification of an access token.
+ * </p>
+ * <p>
  * <strong>Internal API:</strong> This class is not intended for use by consumer plugins.
  * </p>
  */
 public final class AuthFilter implements Filter {
 
     private final AuthProvider[] authProviders;
+    private final RateLimiter rateLimiter;
 
     public AuthFilter(AuthProvider... authProviders) {
+        this(null, authProviders);
+    }
+
+    /**
+     * Creates an auth filter that rate limits requests right after resolving their principal.
+     *
+     * @param rateLimiter   the rate limiter, or null to not limit requests
+     * @param authProviders the authentication providers, tried in order
+     */
+    public AuthFilter(RateLimiter rateLimiter, AuthProvider... authProviders) {
+        this.rateLimiter = rateLimiter;
         this.authProviders = authProviders;
     }
 
@@ -36,6 +61,9 @@ public final class AuthFilter implements Filter {
                     continue;
 
                 case AuthProvider.AuthResultType.SUCCESS:
+                    if (!this.checkRateLimit(result.principal(), req, res)) {
+                        return;
+                    }
                     var wrapped = new UserPrincipalRequestWrapper(req, result.principal());
                     filterChain.doFilter(wrapped, response);
                     return;
@@ -50,7 +78,17 @@ public final class AuthFilter implements Filter {
         }
 
         // We are not authenticated, so we map to the anonymous user
-        var wrapped = new UserPrincipalRequestWrapper(req, HytaleUserPrincipal.getAnonymous());
+        var anonymous = HytaleUserPrincipal.getAnonymous();
+        if (!this.checkRateLimit(anonymous, req, res)) {
+            return;
+        }
+        var wrapped = new UserPrincipalRequestWrapper(req, anonymous);
+
+        if (authProviders.length == 0) {
+            // Nobody could answer a 401 with a challenge, so it can pass through as is
+            filterChain.doFilter(wrapped, response);
+            return;
+        }
 
         // Use a response wrapper to capture 401 status before it commits
         var responseWrapper = new StatusCapturingResponseWrapper(res);
@@ -66,5 +104,32 @@ public final class AuthFilter implements Filter {
             responseWrapper.commitUnauthorized();
         }
     }
-}
 
+    /**
+     * Takes a token for the request and adds the {@code RateLimit-*} headers to the response.
+     *
+     * @return false if the request exceeded its rate limit and was answered with 429
+     */
+    private boolean checkRateLimit(Principal principal, HttpServletRequest req, HttpServletResponse res) {
+        if (this.rateLimiter == null) {
+            return true;
+        }
+
+        long decision = this.rateLimiter.acquire(principal, req.getRemoteAddr());
+        if (decision == RateLimiter.UNLIMITED) {
+            return true;
+        }
+
+        res.setIntHeader("RateLimit-Limit", RateLimiter.Decision.limit(decision));
+        res.setIntHeader("RateLimit-Remaining", RateLimiter.Decision.remaining(decision));
+        res.setIntHeader("RateLimit-Reset", RateLimiter.Decision.resetSeconds(decision));
+
+        if (RateLimiter.Decision.allowed(decision)) {
+            return true;
+        }
+
+        res.setIntHeader("Retry-After", RateLimiter.Decision.retryAfterSeconds(decision));
+        res.setStatus(429);
+        return false;
+    }
+}
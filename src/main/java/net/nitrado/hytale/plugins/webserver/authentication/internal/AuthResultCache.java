@@ -0,0 +1,59 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import net.nitrado.hytale.plugins.webserver.authentication.AuthProvider;
+import net.nitrado.hytale.plugins.webserver.authentication.HytaleUserPrincipal;
+import net.nitrado.hytale.plugins.webserver.authentication.store.CredentialValidator;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares the successful {@link AuthProvider.AuthResult} of a user between requests, so that providers do not
+ * allocate a result and a principal for every request of the same user.
+ * <p>
+ * Results are keyed by UUID and replaced when the username changes. The cache is cleared once it holds
+ * {@value #MAX_ENTRIES} users, which only costs the next request of each user an allocation.
+ * </p>
+ */
+final class AuthResultCache {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final Map<UUID, AuthProvider.AuthResult> results = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the successful result of a validated user.
+     */
+    AuthProvider.AuthResult get(CredentialValidator.ValidationResult user) {
+        var cached = this.results.get(user.uuid());
+        if (cached != null && Objects.equals(cached.principal().getName(), user.username())) {
+            return cached;
+        }
+
+        return this.put(new HytaleUserPrincipal(user.uuid(), user.username()));
+    }
+
+    /**
+     * Returns the successful result of a principal, sharing it with other requests if none is cached yet.
+     */
+    AuthProvider.AuthResult get(HytaleUserPrincipal principal) {
+        var cached = this.results.get(principal.getUuid());
+        if (cached != null && Objects.equals(cached.principal().getName(), principal.getName())) {
+            return cached;
+        }
+
+        return this.put(principal);
+    }
+
+    private AuthProvider.AuthResult put(HytaleUserPrincipal principal) {
+        if (this.results.size() >= MAX_ENTRIES) {
+            this.results.clear();
+        }
+
+        var result = new AuthProvider.AuthResult(AuthProvider.AuthResultType.SUCCESS, principal);
+        this.results.put(principal.getUuid(), result);
+        return result;
+    }
+}
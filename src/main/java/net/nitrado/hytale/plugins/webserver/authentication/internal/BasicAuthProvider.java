@@ -3,8 +3,8 @@ package net.nitrado.hytale.plugins.webserver.authentication.internal;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import net.nitrado.hytale.plugins.webserver.authentication.AuthProvider;
-import net.nitrado.hytale.plugins.webserver.authentication.HytaleUserPrincipal;
 import net.nitrado.hytale.plugins.webserver.authentication.store.CredentialValidator;
+import net.nitrado.hytale.plugins.webserver.ratelimit.LoginFailureTracker;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
@@ -12,9 +12,20 @@ import java.util.UUID;
 
 public final class BasicAuthProvider implements AuthProvider {
     protected final CredentialValidator credentialValidator;
+    private final LoginFailureTracker failureTracker;
+    private final AuthResultCache results = new AuthResultCache();
 
     public BasicAuthProvider(CredentialValidator credentialValidator) {
+        this(credentialValidator, null);
+    }
+
+    /**
+     * @param credentialValidator the validator for the credentials
+     * @param failureTracker      the tracker locking out repeated failed logins, or null to not lock them out
+     */
+    public BasicAuthProvider(CredentialValidator credentialValidator, LoginFailureTracker failureTracker) {
         this.credentialValidator = credentialValidator;
+        this.failureTracker = failureTracker;
     }
 
     @Override
@@ -22,7 +33,7 @@ public final class BasicAuthProvider implements AuthProvider {
         String authHeader = req.getHeader("Authorization");
 
         if (authHeader == null || !authHeader.startsWith("Basic ")) {
-            return new AuthResult(AuthResultType.NONE, null);
+            return AuthResult.NONE;
         }
 
         String base64Credentials = authHeader.substring("Basic ".length());
@@ -30,17 +41,25 @@ public final class BasicAuthProvider implements AuthProvider {
         try {
             credentials = new String(Base64.getDecoder().decode(base64Credentials), StandardCharsets.UTF_8);
         } catch (IllegalArgumentException e) {
-            return new AuthResult(AuthResultType.FAILURE, null);
+            return AuthResult.FAILURE;
         }
 
         int colonIndex = credentials.indexOf(':');
         if (colonIndex < 0) {
-            return new AuthResult(AuthResultType.FAILURE, null);
+            return AuthResult.FAILURE;
         }
 
         String username = credentials.substring(0, colonIndex);
         String password = credentials.substring(colonIndex + 1);
 
+        if (this.failureTracker != null) {
+            long retryAfter = this.failureTracker.retryAfter(username, req.getRemoteAddr());
+            if (retryAfter > 0) {
+                res.setHeader("Retry-After", Long.toString(retryAfter));
+                return AuthResult.FAILURE;
+            }
+        }
+
         UUID uuid = null;
 
         try {
@@ -58,10 +77,17 @@ public final class BasicAuthProvider implements AuthProvider {
         }
 
         if (result == null) {
-            return new AuthResult(AuthResultType.FAILURE, null);
+            if (this.failureTracker != null) {
+                this.failureTracker.recordFailure(username, req.getRemoteAddr());
+            }
+            return AuthResult.FAILURE;
+        }
+
+        if (this.failureTracker != null) {
+            this.failureTracker.recordSuccess(username);
         }
 
-        return new AuthResult(AuthResultType.SUCCESS, new HytaleUserPrincipal(result.uuid(), result.username()));
+        return this.results.get(result);
     }
 
     @Override
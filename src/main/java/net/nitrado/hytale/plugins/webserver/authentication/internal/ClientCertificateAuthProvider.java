@@ -0,0 +1,53 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.nitrado.hytale.plugins.webserver.authentication.AuthProvider;
+import net.nitrado.hytale.plugins.webserver.authentication.store.ClientCertificateStore;
+
+import java.security.cert.X509Certificate;
+
+/**
+ * Authentication provider that identifies service accounts by the client certificate presented during the
+ * TLS handshake.
+ * <p>
+ * Requests without a certificate, or with a certificate that is not mapped to a service account, are left
+ * to other providers.
+ * </p>
+ * <p>
+ * <strong>Internal:</strong> Consumers receive a pre-configured instance via
+ * {@link net.nitrado.hytale.plugins.webserver.WebServerPlugin#getDefaultAuthProviders()}.
+ * </p>
+ */
+public final class ClientCertificateAuthProvider implements AuthProvider {
+
+    private static final String CERTIFICATE_ATTRIBUTE = "jakarta.servlet.request.X509Certificate";
+
+    private final ClientCertificateStore certificateStore;
+    private final boolean matchSubjects;
+    private final AuthResultCache results = new AuthResultCache();
+
+    /**
+     * @param certificateStore the mapping of certificates to service accounts
+     * @param matchSubjects    whether certificates may be matched by subject, which requires client
+     *                         certificates to be validated against a trusted CA
+     */
+    public ClientCertificateAuthProvider(ClientCertificateStore certificateStore, boolean matchSubjects) {
+        this.certificateStore = certificateStore;
+        this.matchSubjects = matchSubjects;
+    }
+
+    @Override
+    public AuthProvider.AuthResult authenticate(HttpServletRequest req, HttpServletResponse res) {
+        if (!(req.getAttribute(CERTIFICATE_ATTRIBUTE) instanceof X509Certificate[] chain) || chain.length == 0) {
+            return AuthResult.NONE;
+        }
+
+        var result = this.certificateStore.resolve(chain[0], this.matchSubjects);
+        if (result == null) {
+            return AuthResult.NONE;
+        }
+
+        return this.results.get(result);
+    }
+}
@@ -0,0 +1,42 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+
+/**
+ * Writes secret keys to files that are readable by the owner only.
+ * <p>
+ * The key is written to a temporary file that is created with restricted permissions, and then moved into
+ * place. The key is therefore never readable by others, not even briefly, and a partially written key is never
+ * visible under its final name.
+ * </p>
+ */
+final class KeyFiles {
+
+    private KeyFiles() {
+    }
+
+    static void write(Path file, String content) throws IOException {
+        var dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+
+        Path temp;
+        try {
+            temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system
+            temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        }
+
+        try {
+            Files.writeString(temp, content);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import net.nitrado.hytale.plugins.webserver.metrics.MetricsRegistry;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Proof-of-work challenge that logins must solve while the {@link AuthExecutor} is saturated.
+ * <p>
+ * A challenge is {@code <expires>.<difficulty>.<random>.<signature>}, signed with a key held in memory, so
+ * issuing one stores nothing. The browser solves it by finding a nonce for which the SHA-256 hash of
+ * {@code <challenge>:<nonce>} starts with {@code difficulty} zero bits. Verifying a solution costs a single
+ * hash, compared to the deliberately slow password hash it protects; each challenge is accepted only once.
+ * </p>
+ * <p>
+ * The difficulty grows with the number of logins waiting for a hashing thread, so that clients flooding
+ * the login spend more time per attempt the longer the queue gets. A solution is only accepted if its
+ * challenge was issued with at least the difficulty required when it is verified, so challenges collected
+ * while the load was low cannot be spent once it rises.
+ * </p>
+ * <p>
+ * Used challenges are remembered until they expire, at most {@value #MAX_USED} at a time. While that many
+ * unexpired challenges have been used, further solutions are rejected.
+ * </p>
+ * <p>
+ * <strong>Internal API:</strong> This class is not intended for use by consumer plugins.
+ * </p>
+ */
+public final class LoginChallenge {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final long LIFETIME_SECONDS = 120;
+    private static final int MAX_USED = 100_000;
+
+    private final AuthExecutor authExecutor;
+    private final int minDifficulty;
+    private final int maxDifficulty;
+    private final Clock clock;
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Long> used = new ConcurrentHashMap<>();
+    private final AtomicInteger usedCount = new AtomicInteger();
+    private final AtomicLong lastPurge = new AtomicLong();
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param authExecutor  the executor whose saturation decides whether challenges are required
+     * @param minDifficulty the number of leading zero bits required once the executor is saturated
+     * @param maxDifficulty the number of leading zero bits required once its queue is full
+     */
+    public LoginChallenge(AuthExecutor authExecutor, int minDifficulty, int maxDifficulty) {
+        this(authExecutor, minDifficulty, maxDifficulty, Clock.systemUTC());
+    }
+
+    LoginChallenge(AuthExecutor authExecutor, int minDifficulty, int maxDifficulty, Clock clock) {
+        this.authExecutor = authExecutor;
+        this.minDifficulty = Math.max(1, minDifficulty);
+        this.maxDifficulty = Math.max(this.minDifficulty, maxDifficulty);
+        this.clock = clock;
+
+        var secret = new byte[32];
+        this.random.nextBytes(secret);
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+    }
+
+    public void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("webserver_login_challenge_difficulty", "Leading zero bits currently required by login challenges, 0 if none", this::getDifficulty);
+        metrics.counter("webserver_login_challenges_issued_total", "Login challenges issued", this.issued::sum);
+        metrics.counter("webserver_login_challenges_rejected_total", "Logins rejected for a missing or invalid challenge solution", this.rejected::sum);
+    }
+
+    /**
+     * Returns the number of leading zero bits a solution currently needs, or 0 if no challenge is required
+     * because at most half of the hashing queue is in use.
+     */
+    public int getDifficulty() {
+        int size = this.authExecutor.getQueueSize();
+        int depth = this.authExecutor.getQueueDepth();
+        int half = size / 2;
+        if (depth < half || depth == 0) {
+            return 0;
+        }
+
+        int range = this.maxDifficulty - this.minDifficulty;
+        return this.minDifficulty + (size == half ? range : Math.min(range, range * (depth - half) / (size - half)));
+    }
+
+    /**
+     * Issues a challenge of the current difficulty.
+     *
+     * @return the challenge, or null if none is required
+     */
+    public String issue() {
+        int difficulty = this.getDifficulty();
+        if (difficulty == 0) {
+            return null;
+        }
+
+        var nonce = new byte[16];
+        this.random.nextBytes(nonce);
+
+        var payload = (this.clock.instant().getEpochSecond() + LIFETIME_SECONDS) + "." + difficulty + "." + ENCODER.encodeToString(nonce);
+        this.issued.increment();
+        return payload + "." + this.sign(payload);
+    }
+
+    /**
+     * Checks the solution of a login, if a challenge is currently required.
+     *
+     * @param challenge the challenge sent back by the client, or null
+     * @param nonce     the nonce found by the client, or null
+     * @return true if no challenge is required or the solution is valid
+     */
+    public boolean verify(String challenge, String nonce) {
+        int difficulty = this.getDifficulty();
+        if (difficulty == 0) {
+            return true;
+        }
+
+        if (challenge != null && nonce != null && nonce.length() <= 32 && this.isValid(challenge, nonce, difficulty)) {
+            return true;
+        }
+
+        this.rejected.increment();
+        return false;
+    }
+
+    private boolean isValid(String challenge, String nonce, int requiredDifficulty) {
+        var parts = challenge.split("\\.");
+        if (parts.length != 4) {
+            return false;
+        }
+
+        var payload = parts[0] + "." + parts[1] + "." + parts[2];
+        if (!MessageDigest.isEqual(this.sign(payload).getBytes(StandardCharsets.US_ASCII), parts[3].getBytes(StandardCharsets.US_ASCII))) {
+            return false;
+        }
+
+        long expires;
+        int difficulty;
+        try {
+            expires = Long.parseLong(parts[0]);
+            difficulty = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+
+        long now = this.clock.instant().getEpochSecond();
+        if (expires <= now || difficulty < requiredDifficulty || leadingZeroBits(challenge + ":" + nonce) < difficulty) {
+            return false;
+        }
+
+        return this.markUsed(challenge, expires, now);
+    }
+
+    /**
+     * Remembers a used challenge, reserving a slot first so that concurrent logins cannot exceed the maximum.
+     *
+     * @return false if the challenge was used before or the maximum of used challenges is reached
+     */
+    private boolean markUsed(String challenge, long expires, long now) {
+        if (this.usedCount.incrementAndGet() > MAX_USED) {
+            this.usedCount.decrementAndGet();
+            this.purge(now);
+            if (this.usedCount.incrementAndGet() > MAX_USED) {
+                this.usedCount.decrementAndGet();
+                return false;
+            }
+        }
+
+        if (this.used.putIfAbsent(challenge, expires) != null) {
+            this.usedCount.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Forgets expired challenges, at most once per second.
+     */
+    private void purge(long now) {
+        long last = this.lastPurge.get();
+        if (now <= last || !this.lastPurge.compareAndSet(last, now)) {
+            return;
+        }
+
+        for (var entry : this.used.entrySet()) {
+            if (entry.getValue() <= now && this.used.remove(entry.getKey(), entry.getValue())) {
+                this.usedCount.decrementAndGet();
+            }
+        }
+    }
+
+    private String sign(String payload) {
+        try {
+            var mac = Mac.getInstance("HmacSHA256");
+            mac.init(this.key);
+            return ENCODER.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    static int leadingZeroBits(String input) {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        int bits = 0;
+        for (var b : hash) {
+            if (b == 0) {
+                bits += 8;
+                continue;
+            }
+            return bits + Integer.numberOfLeadingZeros(b & 0xff) - 24;
+        }
+        return bits;
+    }
+}
@@ -12,29 +12,66 @@ import java.util.UUID;
 /**
  * Authentication provider that handles session-based authentication via cookies.
  * <p>
+ * Depending on the configuration, the logged-in user is read from the server-side HTTP session or decrypted
+ * from a session cookie by {@link SessionCookieCodec}.
+ * </p>
+ * <p>
  * <strong>Internal:</strong> Consumers receive a pre-configured instance via
  * {@link net.nitrado.hytale.plugins.webserver.WebServerPlugin#getDefaultAuthProviders()}.
  * </p>
  */
 public final class SessionAuthProvider implements AuthProvider {
 
+    /**
+     * Session attribute holding the {@link HytaleUserPrincipal} of the logged-in user, so that it is not
+     * rebuilt for every request.
+     */
+    public static final String PRINCIPAL_ATTRIBUTE = "principal";
+
     private final HytaleLogger logger;
+    private final SessionCookieCodec sessionCookies;
+    private final AuthResultCache results = new AuthResultCache();
 
     public SessionAuthProvider(HytaleLogger logger) {
+        this(logger, null);
+    }
+
+    /**
+     * @param logger         the logger
+     * @param sessionCookies the codec for session cookies, or null to use server-side sessions
+     */
+    public SessionAuthProvider(HytaleLogger logger, SessionCookieCodec sessionCookies) {
         this.logger = logger;
+        this.sessionCookies = sessionCookies;
     }
 
     @Override
     public AuthProvider.AuthResult authenticate(HttpServletRequest req, HttpServletResponse res) {
-        var session = req.getSession();
+        if (this.sessionCookies != null) {
+            var result = this.sessionCookies.decode(req);
+            if (result == null) {
+                return AuthResult.NONE;
+            }
+            return this.results.get(result);
+        }
+
+        // Never create a session here, so that anonymous requests do not allocate one
+        var session = req.getSession(false);
+        if (session == null) {
+            return AuthResult.NONE;
+        }
+
+        if (session.getAttribute(PRINCIPAL_ATTRIBUTE) instanceof HytaleUserPrincipal principal) {
+            return this.results.get(principal);
+        }
 
         var uuidObj = session.getAttribute("uuid");
         if (uuidObj == null) {
-            return new AuthResult(AuthResultType.NONE, null);
+            return AuthResult.NONE;
         }
 
         if (!(uuidObj instanceof UUID uuid)) {
-            return new AuthResult(AuthResultType.NONE, null);
+            return AuthResult.NONE;
         }
 
         var usernameObj  = session.getAttribute("username");
@@ -43,7 +80,11 @@ public final class SessionAuthProvider implements AuthProvider {
             username = (String) usernameObj;
         }
 
-        return new AuthResult(AuthResultType.SUCCESS, new HytaleUserPrincipal(uuid, username));
+        // Sessions created before the principal was cached get it on first use
+        var principal = new HytaleUserPrincipal(uuid, username);
+        session.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
+
+        return this.results.get(principal);
     }
 
     @Override
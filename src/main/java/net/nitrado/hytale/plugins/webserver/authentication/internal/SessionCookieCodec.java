@@ -0,0 +1,300 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.nitrado.hytale.plugins.webserver.authentication.store.CredentialValidator;
+import org.bson.Document;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores the logged-in user in an encrypted cookie instead of a server-side session.
+ * <p>
+ * The cookie holds the UUID, username and expiry of the login, encrypted and authenticated with AES-GCM.
+ * Keys are read from a directory, so that several servers sharing it accept each other's cookies. The newest
+ * key encrypts new cookies, and a new key is generated once it is older than the rotation interval. Older keys
+ * keep decrypting existing cookies until these have expired, and are deleted afterwards.
+ * </p>
+ * <p>
+ * Decrypted cookies are remembered until they expire, so that the requests of a logged-in user neither decrypt
+ * nor parse the cookie again. Only cookies that decrypted successfully are remembered.
+ * </p>
+ * <p>
+ * <strong>Internal API:</strong> This class is not intended for use by consumer plugins.
+ * </p>
+ */
+public final class SessionCookieCodec {
+
+    public static final String COOKIE_NAME = "WEBSESSION";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final long RESCAN_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final int MAX_DECODED = 10_000;
+
+    private record Key(String id, SecretKey key, long created) {}
+
+    private record Decoded(CredentialValidator.ValidationResult result, long expiresSeconds) {}
+
+    private final Path keyDir;
+    private final long rotationMillis;
+    private final long maxAgeSeconds;
+    private final boolean secure;
+    private final HytaleLogger logger;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Key> keys = new ConcurrentHashMap<>();
+    private final Map<String, Decoded> decoded = new ConcurrentHashMap<>();
+    private volatile Key currentKey;
+    private volatile long lastScan;
+
+    /**
+     * @param keyDir          the directory holding the keys, shared between servers that accept each other's cookies
+     * @param rotationSeconds the age in seconds after which a new key is generated
+     * @param maxAgeSeconds   the number of seconds a login is valid
+     * @param secure          whether the cookie is restricted to HTTPS
+     * @param logger          the logger
+     */
+    public SessionCookieCodec(Path keyDir, long rotationSeconds, long maxAgeSeconds, boolean secure, HytaleLogger logger) {
+        this(keyDir, rotationSeconds, maxAgeSeconds, secure, logger, Clock.systemUTC());
+    }
+
+    SessionCookieCodec(Path keyDir, long rotationSeconds, long maxAgeSeconds, boolean secure, HytaleLogger logger, Clock clock) {
+        this.keyDir = keyDir;
+        this.rotationMillis = TimeUnit.SECONDS.toMillis(rotationSeconds);
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.secure = secure;
+        this.logger = logger;
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the cookie for a logged-in user.
+     */
+    public void login(HttpServletResponse res, UUID uuid, String username) {
+        long now = this.clock.millis();
+        var key = this.getCurrentKey(now);
+
+        var claims = new Document("sub", uuid.toString()).append("name", username);
+        if (this.maxAgeSeconds > 0) {
+            claims.append("exp", now / 1000 + this.maxAgeSeconds);
+        }
+
+        try {
+            var iv = new byte[IV_LENGTH];
+            this.random.nextBytes(iv);
+
+            var cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key.key(), new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            cipher.updateAAD(key.id().getBytes(StandardCharsets.US_ASCII));
+            var ciphertext = cipher.doFinal(claims.toJson().getBytes(StandardCharsets.UTF_8));
+
+            var value = ByteBuffer.allocate(iv.length + ciphertext.length).put(iv).put(ciphertext).array();
+            res.addCookie(this.createCookie(key.id() + "." + ENCODER.encodeToString(value), (int) this.maxAgeSeconds));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES-GCM is not available", e);
+        }
+    }
+
+    /**
+     * Clears the cookie.
+     */
+    public void logout(HttpServletResponse res) {
+        res.addCookie(this.createCookie("", 0));
+    }
+
+    /**
+     * Decrypts the cookie of a request.
+     *
+     * @return the logged-in user, or null if there is no valid cookie
+     */
+    public CredentialValidator.ValidationResult decode(HttpServletRequest req) {
+        var cookies = req.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+
+        for (var cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                return this.decode(cookie.getValue());
+            }
+        }
+        return null;
+    }
+
+    CredentialValidator.ValidationResult decode(String value) {
+        int dot = value.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+
+        long now = this.clock.millis();
+        this.rescanIfDue(now);
+
+        var cached = this.decoded.get(value);
+        if (cached != null) {
+            if (cached.expiresSeconds() > now / 1000) {
+                return cached.result();
+            }
+            this.decoded.remove(value);
+            return null;
+        }
+
+        var keyId = value.substring(0, dot);
+        var key = this.keys.get(keyId);
+        if (key == null) {
+            return null;
+        }
+
+        try {
+            var bytes = DECODER.decode(value.substring(dot + 1));
+            if (bytes.length <= IV_LENGTH) {
+                return null;
+            }
+
+            var cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key.key(), new GCMParameterSpec(TAG_LENGTH_BITS, bytes, 0, IV_LENGTH));
+            cipher.updateAAD(keyId.getBytes(StandardCharsets.US_ASCII));
+            var plaintext = cipher.doFinal(bytes, IV_LENGTH, bytes.length - IV_LENGTH);
+
+            var claims = Document.parse(new String(plaintext, StandardCharsets.UTF_8));
+            var exp = claims.get("exp", Number.class);
+            if (exp != null && exp.longValue() <= now / 1000) {
+                return null;
+            }
+
+            var result = new CredentialValidator.ValidationResult(UUID.fromString(claims.getString("sub")), claims.getString("name"));
+            if (this.decoded.size() >= MAX_DECODED) {
+                this.decoded.clear();
+            }
+            this.decoded.put(value, new Decoded(result, exp != null ? exp.longValue() : Long.MAX_VALUE));
+            return result;
+        } catch (GeneralSecurityException | RuntimeException e) {
+            // Tampered, truncated or otherwise malformed cookie
+            return null;
+        }
+    }
+
+    private Cookie createCookie(String value, int maxAge) {
+        var cookie = new Cookie(COOKIE_NAME, value);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setSecure(this.secure);
+        cookie.setAttribute("SameSite", "Lax");
+        if (maxAge > 0 || value.isEmpty()) {
+            cookie.setMaxAge(maxAge);
+        }
+        return cookie;
+    }
+
+    private Key getCurrentKey(long now) {
+        this.rescanIfDue(now);
+
+        var key = this.currentKey;
+        if (key != null && now - key.created() < this.rotationMillis) {
+            return key;
+        }
+
+        synchronized (this) {
+            this.scan(now);
+            if (this.currentKey == null || now - this.currentKey.created() >= this.rotationMillis) {
+                this.generateKey(now);
+            }
+            return this.currentKey;
+        }
+    }
+
+    private void rescanIfDue(long now) {
+        if (now - this.lastScan < RESCAN_INTERVAL) {
+            return;
+        }
+
+        synchronized (this) {
+            if (now - this.lastScan >= RESCAN_INTERVAL) {
+                this.scan(now);
+            }
+        }
+    }
+
+    /**
+     * Reads keys added by other servers, and deletes keys that can no longer have valid cookies.
+     */
+    private void scan(long now) {
+        this.lastScan = now;
+
+        try {
+            Files.createDirectories(this.keyDir);
+            try (var files = Files.list(this.keyDir)) {
+                for (var file : (Iterable<Path>) files::iterator) {
+                    var name = file.getFileName().toString();
+                    if (!name.endsWith(".key")) {
+                        continue;
+                    }
+
+                    var id = name.substring(0, name.length() - ".key".length());
+                    var created = Files.getLastModifiedTime(file).toMillis();
+                    if (this.maxAgeSeconds > 0 && now - created > this.rotationMillis + TimeUnit.SECONDS.toMillis(this.maxAgeSeconds)) {
+                        Files.deleteIfExists(file);
+                        this.keys.remove(id);
+                        continue;
+                    }
+
+                    if (!this.keys.containsKey(id)) {
+                        var bytes = Base64.getDecoder().decode(Files.readString(file).trim());
+                        this.keys.put(id, new Key(id, new SecretKeySpec(bytes, "AES"), created));
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            this.logger.atWarning().withCause(e).log("Failed to read session cookie keys from %s", this.keyDir);
+        }
+
+        Key newest = null;
+        for (var key : this.keys.values()) {
+            if (newest == null || key.created() > newest.created()) {
+                newest = key;
+            }
+        }
+        this.currentKey = newest;
+    }
+
+    private void generateKey(long now) {
+        var bytes = new byte[32];
+        this.random.nextBytes(bytes);
+
+        var id = Long.toString(now, 36) + Integer.toString(this.random.nextInt(36 * 36), 36);
+        var file = this.keyDir.resolve(id + ".key");
+        try {
+            // Servers sharing the directory only see the key once it is complete
+            KeyFiles.write(file, Base64.getEncoder().encodeToString(bytes));
+            this.logger.atInfo().log("Generated a new session cookie key %s", id);
+        } catch (IOException e) {
+            // The key still works for this server, but other servers will not accept its cookies
+            this.logger.atSevere().withCause(e).log("Failed to write session cookie key to %s", file);
+        }
+
+        var key = new Key(id, new SecretKeySpec(bytes, "AES"), now);
+        this.keys.put(id, key);
+        this.currentKey = key;
+    }
+}
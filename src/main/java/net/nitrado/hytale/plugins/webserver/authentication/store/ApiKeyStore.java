@@ -0,0 +1,96 @@
+package net.nitrado.hytale.plugins.webserver.authentication.store;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory store of API keys for service accounts.
+ * <p>
+ * An API key consists of a public key id and a random secret. The store only knows the HMAC-SHA256 of the
+ * secret, keyed with the key id, so verifying a key costs a single HMAC computation instead of a bcrypt
+ * verification. This is only safe because secrets are long random values rather than passwords. Keys are
+ * provisioned together with their service account and are not persisted.
+ * </p>
+ */
+public final class ApiKeyStore {
+
+    private static final int SECRET_HASH_LENGTH = 32;
+
+    private record Entry(UUID uuid, String username, byte[] secretHash) {}
+
+    private final Map<String, Entry> keys = new ConcurrentHashMap<>();
+
+    /**
+     * Adds or replaces an API key.
+     *
+     * @param keyId      the public id of the key
+     * @param uuid       the UUID of the service account the key belongs to
+     * @param username   the name of the service account
+     * @param secretHash the hex encoded HMAC-SHA256 of the secret, keyed with the key id
+     * @throws InvalidCredentialException if the key id or hash are malformed
+     */
+    public void setKey(String keyId, UUID uuid, String username, String secretHash) throws InvalidCredentialException {
+        if (keyId == null || keyId.isEmpty() || keyId.indexOf('.') >= 0) {
+            throw new InvalidCredentialException("API key id must be non-empty and must not contain '.'");
+        }
+
+        byte[] hash;
+        try {
+            hash = HexFormat.of().parseHex(secretHash);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new InvalidCredentialException("API key hash must be hex encoded");
+        }
+        if (hash.length != SECRET_HASH_LENGTH) {
+            throw new InvalidCredentialException("API key hash must be an HMAC-SHA256");
+        }
+
+        this.keys.put(keyId, new Entry(uuid, username, hash));
+    }
+
+    /**
+     * Removes all API keys of a service account.
+     */
+    public void removeKeys(UUID uuid) {
+        this.keys.values().removeIf(entry -> entry.uuid().equals(uuid));
+    }
+
+    /**
+     * Validates an API key in constant time with respect to the secret.
+     *
+     * @param keyId  the public id of the key
+     * @param secret the presented secret
+     * @return the service account the key belongs to, or null if the key is invalid
+     */
+    public CredentialValidator.ValidationResult validate(String keyId, String secret) {
+        var entry = this.keys.get(keyId);
+
+        // Compute the HMAC for unknown keys as well, so that response times do not reveal which key ids exist
+        var presented = hash(keyId, secret);
+        if (entry == null || !MessageDigest.isEqual(entry.secretHash(), presented)) {
+            return null;
+        }
+
+        return new CredentialValidator.ValidationResult(entry.uuid(), entry.username());
+    }
+
+    public static String hashSecret(String keyId, String secret) {
+        return HexFormat.of().formatHex(hash(keyId, secret));
+    }
+
+    private static byte[] hash(String keyId, String secret) {
+        try {
+            var mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(keyId.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package net.nitrado.hytale.plugins.webserver.authentication.store;
+
+import javax.security.auth.x500.X500Principal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory mapping of client certificates to service accounts, by SHA-256 fingerprint or by subject.
+ * <p>
+ * Mappings are provisioned together with their service account and are not persisted.
+ * </p>
+ */
+public final class ClientCertificateStore {
+
+    private record Entry(UUID uuid, String username) {}
+
+    private final Map<String, Entry> fingerprints = new ConcurrentHashMap<>();
+    private final Map<X500Principal, Entry> subjects = new ConcurrentHashMap<>();
+
+    /**
+     * Maps a certificate fingerprint to a service account.
+     *
+     * @param fingerprint the hex encoded SHA-256 fingerprint of the certificate, optionally colon-separated
+     * @throws InvalidCredentialException if the fingerprint is malformed
+     */
+    public void addFingerprint(String fingerprint, UUID uuid, String username) throws InvalidCredentialException {
+        var normalized = fingerprint == null ? "" : fingerprint.replace(":", "").toLowerCase();
+        if (normalized.length() != 64 || !normalized.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            throw new InvalidCredentialException("Certificate fingerprint must be a SHA-256 hash");
+        }
+
+        this.fingerprints.put(normalized, new Entry(uuid, username));
+    }
+
+    /**
+     * Maps a certificate subject, such as {@code CN=backup,O=Example}, to a service account.
+     *
+     * @throws InvalidCredentialException if the subject is not a valid distinguished name
+     */
+    public void addSubject(String subject, UUID uuid, String username) throws InvalidCredentialException {
+        try {
+            this.subjects.put(new X500Principal(subject), new Entry(uuid, username));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new InvalidCredentialException("Certificate subject must be a distinguished name");
+        }
+    }
+
+    /**
+     * Removes all mappings of a service account.
+     */
+    public void removeCertificates(UUID uuid) {
+        this.fingerprints.values().removeIf(entry -> entry.uuid().equals(uuid));
+        this.subjects.values().removeIf(entry -> entry.uuid().equals(uuid));
+    }
+
+    /**
+     * Resolves the service account of a client certificate.
+     *
+     * @param certificate   the client certificate
+     * @param matchSubjects whether subjects may be matched, which is only safe if the certificate was issued by
+     *                      a trusted CA
+     * @return the service account, or null if the certificate is not mapped
+     */
+    public CredentialValidator.ValidationResult resolve(X509Certificate certificate, boolean matchSubjects) {
+        var entry = this.fingerprints.isEmpty() ? null : this.fingerprints.get(fingerprint(certificate));
+        if (entry == null && matchSubjects) {
+            entry = this.subjects.get(certificate.getSubjectX500Principal());
+        }
+
+        return entry == null ? null : new CredentialValidator.ValidationResult(entry.uuid(), entry.username());
+    }
+
+    private static String fingerprint(X509Certificate certificate) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(certificate.getEncoded()));
+        } catch (NoSuchAlgorithmException | CertificateEncodingException e) {
+            return "";
+        }
+    }
+}
@@ -16,19 +16,68 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * JsonPasswordStore implements a JSON file based password store, with passwords being saved as
- * BCrypt hashes.
+ * BCrypt hashes. Successfully verified credentials are remembered in a {@link VerifiedCredentialCache},
+ * which is invalidated whenever a user's credential changes.
+ * <p>
+ * New hashes use the configured BCrypt cost. A stored hash of a different cost is replaced on the next
+ * successful login, as that is the only time the password is known.
+ * </p>
  */
 public final class JsonPasswordStore implements CredentialValidator, UserCredentialStore {
 
+    public static final int DEFAULT_COST = 10;
+
     protected final Path path;
     protected final HytaleLogger logger;
 
     protected final Map<String, UUID> nameToUUID = new ConcurrentHashMap<>();
     protected final Map<UUID, String> uuidToCredential = new ConcurrentHashMap<>();
+    protected final VerifiedCredentialCache verifiedCache;
+    protected volatile int cost;
+    protected volatile boolean rehash = true;
 
     public JsonPasswordStore(Path path, HytaleLogger logger) {
+        this(path, logger, new VerifiedCredentialCache());
+    }
+
+    public JsonPasswordStore(Path path, HytaleLogger logger, VerifiedCredentialCache verifiedCache) {
+        this(path, logger, verifiedCache, DEFAULT_COST);
+    }
+
+    /**
+     * @param path          the JSON file
+     * @param logger        the logger
+     * @param verifiedCache the cache of verified credentials
+     * @param cost          the BCrypt cost of new hashes, between 4 and 31
+     */
+    public JsonPasswordStore(Path path, HytaleLogger logger, VerifiedCredentialCache verifiedCache, int cost) {
         this.path = path;
         this.logger = logger;
+        this.verifiedCache = verifiedCache;
+        this.setCost(cost);
+    }
+
+    /**
+     * Sets the BCrypt cost of new hashes. Existing hashes are upgraded or downgraded on the next login.
+     */
+    public void setCost(int cost) {
+        if (cost < 4 || cost > 31) {
+            throw new IllegalArgumentException("BCrypt cost must be between 4 and 31, got " + cost);
+        }
+        this.cost = cost;
+    }
+
+    public int getCost() {
+        return this.cost;
+    }
+
+    /**
+     * Sets whether hashes of a different cost are replaced on the next login. Stores whose hashes are imported
+     * again on every start, such as those of provisioned service accounts, disable this, as the replaced hash
+     * would be overwritten on the next start and hashed again on the next login.
+     */
+    public void setRehash(boolean rehash) {
+        this.rehash = rehash;
     }
 
     public void load() throws IOException {
@@ -47,6 +96,7 @@ public final class JsonPasswordStore implements CredentialValidator, UserCredent
 
         this.nameToUUID.clear();
         this.uuidToCredential.clear();
+        this.verifiedCache.clear();
 
         Document usernames = document.get("users", Document.class);
         if (usernames != null) {
@@ -64,7 +114,7 @@ public final class JsonPasswordStore implements CredentialValidator, UserCredent
                 String hashedPassword = entry.getValue().toString();
 
                 if (!isBcryptHash(hashedPassword)) {
-                    BCrypt.withDefaults().hashToString(10 , hashedPassword.toCharArray());
+                    hashedPassword = BCrypt.withDefaults().hashToString(this.cost, hashedPassword.toCharArray());
                     changes = true;
                 }
 
@@ -110,7 +160,16 @@ public final class JsonPasswordStore implements CredentialValidator, UserCredent
             return null;
         }
 
+        if (this.verifiedCache.isVerified(uuid, credential, savedCredential)) {
+            return new ValidationResult(uuid, getNameByUUID(uuid));
+        }
+
         if (BCrypt.verifyer().verify(credential.toCharArray(), savedCredential).verified) {
+            if (this.rehash && getCost(savedCredential) != this.cost) {
+                savedCredential = this.rehash(uuid, credential, savedCredential);
+            }
+
+            this.verifiedCache.put(uuid, credential, savedCredential);
             return new ValidationResult(uuid, getNameByUUID(uuid));
         }
 
@@ -119,7 +178,7 @@ public final class JsonPasswordStore implements CredentialValidator, UserCredent
 
     @Override
     public void setUserCredential(UUID uuid, String username, String password) throws IOException {
-        this.importUserCredential(uuid, username, BCrypt.withDefaults().hashToString(10 , password.toCharArray()));
+        this.importUserCredential(uuid, username, BCrypt.withDefaults().hashToString(this.cost, password.toCharArray()));
     }
 
     @Override
@@ -136,6 +195,7 @@ public final class JsonPasswordStore implements CredentialValidator, UserCredent
         }
 
         this.uuidToCredential.put(uuid, passwordHash);
+        this.verifiedCache.invalidate(uuid);
 
         try {
             this.save();
@@ -163,6 +223,7 @@ public final class JsonPasswordStore implements CredentialValidator, UserCredent
             this.nameToUUID.remove(lastName);
         }
         this.uuidToCredential.remove(uuid);
+        this.verifiedCache.invalidate(uuid);
 
         try {
             this.save();
@@ -221,6 +282,46 @@ public final class JsonPasswordStore implements CredentialValidator, UserCredent
         }
     }
 
+    /**
+     * Replaces a verified hash with one of the configured cost.
+     *
+     * @return the hash now stored for the user
+     */
+    private String rehash(UUID uuid, String credential, String savedCredential) {
+        var newCredential = BCrypt.withDefaults().hashToString(this.cost, credential.toCharArray());
+
+        // The credential may have been changed concurrently, which takes precedence
+        if (!this.uuidToCredential.replace(uuid, savedCredential, newCredential)) {
+            return savedCredential;
+        }
+
+        try {
+            this.save();
+            this.logger.atInfo().log("Rehashed the credential of %s with cost %d", uuid, this.cost);
+        } catch (IOException e) {
+            // The new hash is still used until the next restart, which will try again
+            this.logger.atWarning().withCause(e).log("Failed to save the rehashed credential of %s", uuid);
+        }
+
+        return newCredential;
+    }
+
+    /**
+     * Returns the cost of a BCrypt hash such as {@code $2a$10$...}, or -1 if it cannot be determined.
+     */
+    static int getCost(String hash) {
+        var parts = hash.split("\\$");
+        if (parts.length < 4) {
+            return -1;
+        }
+
+        try {
+            return Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     private boolean isBcryptHash(String password) {
         // BCrypt format: $2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy
         return password != null && password.matches("^\\$2[aby]?\\$\\d{1,2}\\$[./A-Za-z0-9]{53}$");
@@ -0,0 +1,152 @@
+package net.nitrado.hytale.plugins.webserver.authentication.store;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers recently verified credentials, so that clients sending their credentials with every request,
+ * such as service accounts using basic auth, do not pay for a bcrypt verification each time.
+ * <p>
+ * Only a keyed hash of a verified secret is kept, computed with HMAC-SHA256 and a random key that never
+ * leaves the process, together with the stored hash it was verified against. An entry is only used while
+ * that stored hash is unchanged and its TTL has not expired, and is invalidated whenever the credential of
+ * its user changes.
+ * </p>
+ * <p>
+ * <strong>Internal API:</strong> This class is not intended for use by consumer plugins.
+ * </p>
+ */
+public final class VerifiedCredentialCache {
+
+    public static final long DEFAULT_TTL = TimeUnit.MINUTES.toMillis(5);
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private record Entry(byte[] secretHash, String storedHash, long expiresAt) {}
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> mac;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    public VerifiedCredentialCache() {
+        this(DEFAULT_TTL, DEFAULT_MAX_ENTRIES);
+    }
+
+    public VerifiedCredentialCache(long ttlMillis, int maxEntries) {
+        this(ttlMillis, maxEntries, System::nanoTime);
+    }
+
+    VerifiedCredentialCache(long ttlMillis, int maxEntries, LongSupplier clock) {
+        var keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+
+        this.key = new SecretKeySpec(keyBytes, "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(this::createMac);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Checks whether the given secret was recently verified against the given stored hash.
+     *
+     * @param uuid       the UUID of the user
+     * @param secret     the presented secret
+     * @param storedHash the currently stored hash of the user's credential
+     * @return true if the secret is known to match the stored hash
+     */
+    public boolean isVerified(UUID uuid, String secret, String storedHash) {
+        if (this.maxEntries <= 0) {
+            return false;
+        }
+
+        var entry = this.entries.get(uuid);
+        if (entry == null) {
+            return false;
+        }
+
+        if (this.clock.getAsLong() - entry.expiresAt() > 0) {
+            this.entries.remove(uuid, entry);
+            return false;
+        }
+
+        return entry.storedHash().equals(storedHash)
+                && MessageDigest.isEqual(entry.secretHash(), this.hash(secret));
+    }
+
+    /**
+     * Remembers that the given secret matched the given stored hash.
+     */
+    public void put(UUID uuid, String secret, String storedHash) {
+        if (this.maxEntries <= 0) {
+            return;
+        }
+
+        long now = this.clock.getAsLong();
+        if (this.entries.size() >= this.maxEntries && !this.entries.containsKey(uuid)) {
+            this.evict(now);
+        }
+
+        this.entries.put(uuid, new Entry(this.hash(secret), storedHash, now + this.ttlNanos));
+    }
+
+    public void invalidate(UUID uuid) {
+        this.entries.remove(uuid);
+    }
+
+    public void clear() {
+        this.entries.clear();
+    }
+
+    int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Removes expired entries, and the entry closest to expiry if that did not free any space.
+     */
+    private void evict(long now) {
+        this.entries.values().removeIf(entry -> now - entry.expiresAt() > 0);
+        if (this.entries.size() < this.maxEntries) {
+            return;
+        }
+
+        UUID oldest = null;
+        long oldestExpiresAt = 0;
+        for (var e : this.entries.entrySet()) {
+            if (oldest == null || e.getValue().expiresAt() - oldestExpiresAt < 0) {
+                oldest = e.getKey();
+                oldestExpiresAt = e.getValue().expiresAt();
+            }
+        }
+
+        if (oldest != null) {
+            this.entries.remove(oldest);
+        }
+    }
+
+    private byte[] hash(String secret) {
+        return this.mac.get().doFinal(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac createMac() {
+        try {
+            var mac = Mac.getInstance("HmacSHA256");
+            mac.init(this.key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
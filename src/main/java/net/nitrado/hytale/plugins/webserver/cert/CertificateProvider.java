@@ -1,6 +1,7 @@
 package net.nitrado.hytale.plugins.webserver.cert;
 
 import javax.net.ssl.SSLContext;
+import java.security.KeyStore;
 
 public interface CertificateProvider {
     /**
@@ -9,6 +10,23 @@ public interface CertificateProvider {
      */
     SSLContext createSSLContext() throws Exception;
 
+    /**
+     * Optional: Returns the key store backing the SSLContext last created by {@link #createSSLContext()}.
+     * Transports that cannot use an SSLContext directly, such as QUIC, require access to the key material.
+     * @return the key store, or null if not available
+     */
+    default KeyStore getKeyStore() {
+        return null;
+    }
+
+    /**
+     * Optional: Returns the password protecting the keys in {@link #getKeyStore()}.
+     * @return the key store password, or null if not available
+     */
+    default char[] getKeyStorePassword() {
+        return null;
+    }
+
     /**
      * Optional: Check if certificates need refresh/renewal.
      * @return true if the certificate has been updated
@@ -0,0 +1,83 @@
+package net.nitrado.hytale.plugins.webserver.cert;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+
+/**
+ * Creates SSL contexts that accept client certificates.
+ * <p>
+ * With a trusted CA file, client certificates must be issued by one of its CAs. Without it, every client
+ * certificate passes the handshake, which only proves that the client holds the certificate's private key;
+ * such clients are then identified solely by pinned certificate fingerprints.
+ * </p>
+ */
+public final class ClientCertificateTrust {
+
+    private static final X509TrustManager ACCEPT_ALL = new X509TrustManager() {
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            // Identity is established by fingerprint after the handshake
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            throw new CertificateException("Not used for server certificates");
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+    };
+
+    private ClientCertificateTrust() {}
+
+    /**
+     * Creates an SSL context serving the certificate of the given key store and accepting client certificates.
+     *
+     * @param keyStore         the key store of the server certificate
+     * @param keyStorePassword the password of the key store
+     * @param trustedCaPath    the PEM file with the trusted client CAs, or null to accept any client certificate
+     * @return the SSL context
+     * @throws Exception if the key store or CA file cannot be used
+     */
+    public static SSLContext createSSLContext(KeyStore keyStore, char[] keyStorePassword, Path trustedCaPath) throws Exception {
+        var kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        kmf.init(keyStore, keyStorePassword);
+
+        TrustManager[] trustManagers;
+        if (trustedCaPath != null) {
+            var trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+            trustStore.load(null, null);
+
+            try (InputStream in = Files.newInputStream(trustedCaPath)) {
+                int i = 0;
+                for (var certificate : CertificateFactory.getInstance("X.509").generateCertificates(in)) {
+                    trustStore.setCertificateEntry("ca-" + i++, certificate);
+                }
+            }
+
+            var tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            tmf.init(trustStore);
+            trustManagers = tmf.getTrustManagers();
+        } else {
+            trustManagers = new TrustManager[]{ACCEPT_ALL};
+        }
+
+        var sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(kmf.getKeyManagers(), trustManagers, new SecureRandom());
+
+        return sslContext;
+    }
+}
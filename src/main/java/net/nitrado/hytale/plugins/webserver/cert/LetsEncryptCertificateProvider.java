@@ -7,12 +7,8 @@ import org.shredzone.acme4j.exception.AcmeException;
 import org.shredzone.acme4j.util.CSRBuilder;
 import org.shredzone.acme4j.util.KeyPairUtils;
 
-import com.sun.net.httpserver.HttpServer;
-
 import javax.net.ssl.SSLContext;
 import java.io.*;
-import java.net.InetSocketAddress;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.*;
@@ -22,18 +18,18 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 
 /**
  * A CertificateProvider implementation that obtains certificates from Let's Encrypt
  * using the ACME protocol with HTTP-01 challenge.
  *
- * <p>This provider automatically starts a temporary HTTP server on port 80 during
- * certificate issuance/renewal to handle the ACME HTTP-01 challenge.</p>
+ * <p>This provider does not serve the ACME HTTP-01 challenge itself. During certificate
+ * issuance/renewal, the caller must serve {@link #getPendingChallenges()} over plain HTTP on
+ * port 80, e.g. from the web server's HTTP redirect connector.</p>
  *
  * <p><strong>Important:</strong> Let's Encrypt has rate limits. Use staging for testing.
- * Port 80 must be available and accessible from the internet.</p>
+ * Port 80 must be reachable from the internet.</p>
  */
 public final class LetsEncryptCertificateProvider implements CertificateProvider {
 
@@ -42,7 +38,6 @@ public final class LetsEncryptCertificateProvider implements CertificateProvider
     /** Staging ACME server URI (for testing, issues untrusted certs) */
     public static final String LETSENCRYPT_STAGING = "acme://letsencrypt.org/staging";
 
-    private static final int DEFAULT_CHALLENGE_PORT = 80;
     private static final Duration RENEWAL_THRESHOLD = Duration.ofDays(30);
     private static final int MAX_POLL_ATTEMPTS = 60;
     private static final Duration POLL_INTERVAL = Duration.ofSeconds(3);
@@ -51,7 +46,6 @@ public final class LetsEncryptCertificateProvider implements CertificateProvider
     private final String acmeServerUri;
     private final Path storagePath;
     private final Consumer<String> logger;
-    private final int challengePort;
 
     // Pending HTTP-01 challenges: token -> authorization content
     private final Map<String, String> pendingChallenges = new ConcurrentHashMap<>();
@@ -59,7 +53,7 @@ public final class LetsEncryptCertificateProvider implements CertificateProvider
     private KeyPair accountKeyPair;
     private KeyPair domainKeyPair;
     private Instant certificateExpiry;
-    private HttpServer challengeServer;
+    private PemCertificateProvider pemProvider;
 
     /**
      * Creates a Let's Encrypt certificate provider.
@@ -69,7 +63,7 @@ public final class LetsEncryptCertificateProvider implements CertificateProvider
      * @param useProduction true for production, false for staging (recommended for testing)
      */
     public LetsEncryptCertificateProvider(String domain, Path storagePath, boolean useProduction) {
-        this(domain, storagePath, useProduction, DEFAULT_CHALLENGE_PORT, msg -> {});
+        this(domain, storagePath, useProduction, msg -> {});
     }
 
     /**
@@ -78,15 +72,13 @@ public final class LetsEncryptCertificateProvider implements CertificateProvider
      * @param domain        the domain name for the certificate
      * @param storagePath   path to store account keys and certificates
      * @param useProduction true for production, false for staging
-     * @param challengePort port to use for the HTTP-01 challenge server (must be reachable as port 80 from the internet)
      * @param logger        consumer for log messages
      */
     public LetsEncryptCertificateProvider(String domain, Path storagePath, boolean useProduction,
-                                          int challengePort, Consumer<String> logger) {
+                                          Consumer<String> logger) {
         this.domain = domain;
         this.storagePath = storagePath;
         this.acmeServerUri = useProduction ? LETSENCRYPT_PRODUCTION : LETSENCRYPT_STAGING;
-        this.challengePort = challengePort;
         this.logger = logger;
     }
 
@@ -114,6 +106,16 @@ public final class LetsEncryptCertificateProvider implements CertificateProvider
         return buildSSLContext();
     }
 
+    @Override
+    public KeyStore getKeyStore() {
+        return pemProvider != null ? pemProvider.getKeyStore() : null;
+    }
+
+    @Override
+    public char[] getKeyStorePassword() {
+        return pemProvider != null ? pemProvider.getKeyStorePassword() : null;
+    }
+
     @Override
     public boolean refresh() throws Exception {
         if (certificateExpiry == null) {
@@ -279,10 +281,7 @@ public final class LetsEncryptCertificateProvider implements CertificateProvider
 
         // Store challenge for serving
         pendingChallenges.put(token, authorization);
-
-        // Start challenge server
-        startChallengeServer();
-        logger.accept("HTTP-01 challenge server started on port " + challengePort);
+        logger.accept("Serving HTTP-01 challenge for token: " + token);
 
         try {
             // Trigger validation
@@ -307,42 +306,6 @@ public final class LetsEncryptCertificateProvider implements CertificateProvider
             logger.accept("Authorization successful for: " + auth.getIdentifier().getDomain());
         } finally {
             pendingChallenges.remove(token);
-            stopChallengeServer();
-        }
-    }
-
-    private void startChallengeServer() throws IOException {
-        if (challengeServer != null) {
-            return; // Already running
-        }
-
-        challengeServer = HttpServer.create(new InetSocketAddress(challengePort), 0);
-        challengeServer.createContext("/.well-known/acme-challenge/", exchange -> {
-            String path = exchange.getRequestURI().getPath();
-            String token = path.substring(path.lastIndexOf('/') + 1);
-            String authorization = pendingChallenges.get(token);
-
-            if (authorization != null) {
-                byte[] response = authorization.getBytes(StandardCharsets.UTF_8);
-                exchange.getResponseHeaders().add("Content-Type", "text/plain");
-                exchange.sendResponseHeaders(200, response.length);
-                try (OutputStream os = exchange.getResponseBody()) {
-                    os.write(response);
-                }
-                logger.accept("Served ACME challenge for token: " + token);
-            } else {
-                exchange.sendResponseHeaders(404, -1);
-            }
-        });
-        challengeServer.setExecutor(Executors.newSingleThreadExecutor());
-        challengeServer.start();
-    }
-
-    private void stopChallengeServer() {
-        if (challengeServer != null) {
-            challengeServer.stop(0);
-            challengeServer = null;
-            logger.accept("HTTP-01 challenge server stopped");
         }
     }
 
@@ -359,7 +322,7 @@ public final class LetsEncryptCertificateProvider implements CertificateProvider
         Path keyPath = storagePath.resolve("domain.key");
 
         // Use PemCertificateProvider to load the saved certificate
-        PemCertificateProvider pemProvider = new PemCertificateProvider(certPath, keyPath);
+        pemProvider = new PemCertificateProvider(certPath, keyPath);
         return pemProvider.createSSLContext();
     }
 }
@@ -28,6 +28,7 @@ public final class PemCertificateProvider implements CertificateProvider {
     private final Path certificatePath;
     private final Path privateKeyPath;
     private final char[] keyStorePassword;
+    private KeyStore keyStore;
 
     /**
      * Creates a PEM-based certificate provider.
@@ -50,6 +51,7 @@ public final class PemCertificateProvider implements CertificateProvider {
     @Override
     public SSLContext createSSLContext() throws Exception {
         KeyStore keyStore = loadKeyStore();
+        this.keyStore = keyStore;
 
         KeyManagerFactory kmf = KeyManagerFactory.getInstance(
                 KeyManagerFactory.getDefaultAlgorithm());
@@ -61,6 +63,16 @@ public final class PemCertificateProvider implements CertificateProvider {
         return sslContext;
     }
 
+    @Override
+    public KeyStore getKeyStore() {
+        return keyStore;
+    }
+
+    @Override
+    public char[] getKeyStorePassword() {
+        return keyStorePassword;
+    }
+
     private KeyStore loadKeyStore() throws Exception {
         Security.addProvider(new BouncyCastleProvider());
 
@@ -20,6 +20,7 @@ public final class SelfSignedCertificateProvider implements CertificateProvider
 
     private final String commonName;
     private final char[] keyStorePassword;
+    private KeyStore keyStore;
 
     public SelfSignedCertificateProvider(String commonName) {
         this.commonName = commonName;
@@ -37,6 +38,7 @@ public final class SelfSignedCertificateProvider implements CertificateProvider
     public SSLContext createSSLContext() throws Exception {
         // Generate self-signed cert in-memory
         KeyStore keyStore = generateSelfSignedKeyStore();
+        this.keyStore = keyStore;
 
         // Create KeyManagerFactory
         KeyManagerFactory kmf = KeyManagerFactory.getInstance(
@@ -50,6 +52,16 @@ public final class SelfSignedCertificateProvider implements CertificateProvider
         return sslContext;
     }
 
+    @Override
+    public KeyStore getKeyStore() {
+        return keyStore;
+    }
+
+    @Override
+    public char[] getKeyStorePassword() {
+        return keyStorePassword;
+    }
+
     private KeyStore generateSelfSignedKeyStore() throws Exception {
         Security.addProvider(new BouncyCastleProvider());
 
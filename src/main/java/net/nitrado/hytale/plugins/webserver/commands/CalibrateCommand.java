@@ -0,0 +1,72 @@
+package net.nitrado.hytale.plugins.webserver.commands;
+
+import at.favre.lib.crypto.bcrypt.BCrypt;
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.AbstractCommand;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.CommandUtil;
+import net.nitrado.hytale.plugins.webserver.Permissions;
+import net.nitrado.hytale.plugins.webserver.config.LoginConfig;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.security.SecureRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+
+public class CalibrateCommand extends AbstractCommand {
+
+    private static final int MIN_COST = 4;
+    private static final int MAX_COST = 20;
+
+    private final Supplier<LoginConfig> config;
+
+    public CalibrateCommand(Supplier<LoginConfig> config) {
+        super("calibrate", "Measure password hashing on this machine and suggest a BCrypt cost for the configured target time.");
+
+        this.config = config;
+    }
+
+    @Nullable
+    @Override
+    protected CompletableFuture<Void> execute(@Nonnull CommandContext context) {
+        CommandUtil.requirePermission(context.sender(), Permissions.COMMAND_CALIBRATE);
+
+        var login = this.config.get();
+        int target = login.getHashTargetMillis();
+
+        // Hashing at high costs takes seconds, so keep it off the calling thread
+        return CompletableFuture.runAsync(() -> {
+            var password = new char[16];
+            var random = new SecureRandom();
+            for (int i = 0; i < password.length; i++) {
+                password[i] = (char) ('a' + random.nextInt(26));
+            }
+
+            // Warm up the JIT, so that the first measurement is not inflated
+            measure(MIN_COST + 4, password);
+
+            int suggested = MIN_COST;
+            for (int cost = MIN_COST; cost <= MAX_COST; cost++) {
+                long millis = measure(cost, password);
+                context.sendMessage(Message.raw("Cost " + cost + ": " + millis + " ms"));
+
+                if (millis > target) {
+                    break;
+                }
+                suggested = cost;
+            }
+
+            context.sendMessage(Message.raw("Suggested Login.BcryptCost for a target of " + target + " ms: " + suggested
+                    + " (currently " + login.getBcryptCost() + ")."));
+        });
+    }
+
+    private static long measure(int cost, char[] password) {
+        long started = System.nanoTime();
+        BCrypt.withDefaults().hash(cost, password);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+}
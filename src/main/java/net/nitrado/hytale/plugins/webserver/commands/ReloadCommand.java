@@ -0,0 +1,49 @@
+package net.nitrado.hytale.plugins.webserver.commands;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.AbstractCommand;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.CommandUtil;
+import net.nitrado.hytale.plugins.webserver.Permissions;
+import net.nitrado.hytale.plugins.webserver.WebServerPlugin;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+
+
+public class ReloadCommand extends AbstractCommand {
+
+    private final WebServerPlugin plugin;
+
+    public ReloadCommand(WebServerPlugin plugin) {
+        super("reload", "Reload the web server configuration and apply it without restarting.");
+
+        this.plugin = plugin;
+    }
+
+    @Nullable
+    @Override
+    protected CompletableFuture<Void> execute(@Nonnull CommandContext context) {
+        CommandUtil.requirePermission(context.sender(), Permissions.COMMAND_RELOAD);
+
+        // Rebuilding a TLS connector may request a certificate, so keep it off the calling thread
+        return CompletableFuture.runAsync(() -> {
+            try {
+                var changes = this.plugin.reloadConfig();
+                if (changes.isEmpty()) {
+                    context.sendMessage(Message.raw("The web server configuration has not changed."));
+                    return;
+                }
+
+                context.sendMessage(Message.raw("Reloaded the web server configuration:"));
+                for (var change : changes) {
+                    context.sendMessage(Message.raw("- " + change));
+                }
+            } catch (Exception e) {
+                this.plugin.getLogger().atSevere().withCause(e).log("Failed to reload the web server configuration");
+                context.sendMessage(Message.raw("Failed to reload the web server configuration: " + e.getMessage()));
+            }
+        });
+    }
+}
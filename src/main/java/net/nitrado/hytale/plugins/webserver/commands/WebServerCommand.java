@@ -3,13 +3,18 @@ package net.nitrado.hytale.plugins.webserver.commands;
 import com.hypixel.hytale.server.core.command.system.basecommands.AbstractCommandCollection;
 import net.nitrado.hytale.plugins.webserver.WebServerPlugin;
 import net.nitrado.hytale.plugins.webserver.authentication.store.LoginCodeStore;
+import net.nitrado.hytale.plugins.webserver.config.LoginConfig;
+
+import java.util.function.Supplier;
 
 public final class WebServerCommand extends AbstractCommandCollection {
 
-    public WebServerCommand(LoginCodeStore loginCodeStore) {
+    public WebServerCommand(WebServerPlugin plugin, LoginCodeStore loginCodeStore, Supplier<LoginConfig> loginConfig) {
         super("webserver", "Manage webserver-related configuration, such as user credentials and service accounts");
         addAliases("web");
 
         addSubCommand(new CodeCommand(loginCodeStore));
+        addSubCommand(new ReloadCommand(plugin));
+        addSubCommand(new CalibrateCommand(loginConfig));
     }
 }
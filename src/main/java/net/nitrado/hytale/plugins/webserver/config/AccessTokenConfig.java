@@ -0,0 +1,42 @@
+package net.nitrado.hytale.plugins.webserver.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Configuration for signed access tokens issued by the {@code /token} endpoint.
+ *
+ * <p>Tokens are signed with an Ed25519 key stored in the data directory and are verified without looking
+ * up any credential or session, so they cannot be revoked before they expire. They are disabled unless
+ * explicitly enabled.</p>
+ */
+public final class AccessTokenConfig {
+
+    public static final BuilderCodec<AccessTokenConfig> CODEC = BuilderCodec.builder(AccessTokenConfig.class, AccessTokenConfig::new)
+            .append(
+                    new KeyedCodec<>("Enabled", Codec.BOOLEAN),
+                    (config, value) -> config.enabled = value,
+                    config -> config.enabled
+            ).add()
+            .append(
+                    new KeyedCodec<>("Lifetime", Codec.INTEGER),
+                    (config, value) -> config.lifetime = value,
+                    config -> config.lifetime
+            ).add()
+            .build();
+
+    private boolean enabled = false;
+    private int lifetime = 900;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The number of seconds an issued token is valid.
+     */
+    public int getLifetime() {
+        return lifetime;
+    }
+}
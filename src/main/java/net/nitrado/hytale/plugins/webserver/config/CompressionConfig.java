@@ -0,0 +1,95 @@
+package net.nitrado.hytale.plugins.webserver.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Configuration for response compression and request decompression.
+ *
+ * <p>Supported encodings:</p>
+ * <ul>
+ *   <li>{@code gzip}</li>
+ *   <li>{@code br} - Brotli</li>
+ *   <li>{@code zstd} - Zstandard</li>
+ * </ul>
+ * <p>The client's {@code Accept-Encoding} header decides which of the configured encodings is used.</p>
+ */
+public final class CompressionConfig {
+
+    public static final BuilderCodec<CompressionConfig> CODEC = BuilderCodec.builder(CompressionConfig.class, CompressionConfig::new)
+            .append(
+                    new KeyedCodec<>("Enabled", Codec.BOOLEAN),
+                    (config, value) -> config.enabled = value,
+                    config -> config.enabled
+            ).add()
+            .append(
+                    new KeyedCodec<>("Encodings", Codec.STRING_ARRAY),
+                    (config, value) -> config.encodings = value,
+                    config -> config.encodings
+            ).add()
+            .append(
+                    new KeyedCodec<>("MinSize", Codec.INTEGER),
+                    (config, value) -> config.minSize = value,
+                    config -> config.minSize
+            ).add()
+            .append(
+                    new KeyedCodec<>("IncludedMimeTypes", Codec.STRING_ARRAY),
+                    (config, value) -> config.includedMimeTypes = value,
+                    config -> config.includedMimeTypes
+            ).add()
+            .append(
+                    new KeyedCodec<>("ExcludedMimeTypes", Codec.STRING_ARRAY),
+                    (config, value) -> config.excludedMimeTypes = value,
+                    config -> config.excludedMimeTypes
+            ).add()
+            .append(
+                    new KeyedCodec<>("InflateRequests", Codec.BOOLEAN),
+                    (config, value) -> config.inflateRequests = value,
+                    config -> config.inflateRequests
+            ).add()
+            .build();
+
+    private boolean enabled = true;
+    private String[] encodings = new String[]{"zstd", "br", "gzip"};
+    private int minSize = 1024;
+    private String[] includedMimeTypes = new String[0];
+    private String[] excludedMimeTypes = new String[0];
+    private boolean inflateRequests = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String[] getEncodings() {
+        return encodings;
+    }
+
+    /**
+     * The minimum response size in bytes for compression to be applied.
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * MIME types to compress. If empty, all MIME types that are not excluded are compressed.
+     */
+    public String[] getIncludedMimeTypes() {
+        return includedMimeTypes;
+    }
+
+    /**
+     * MIME types to never compress, in addition to Jetty's defaults for already compressed formats.
+     */
+    public String[] getExcludedMimeTypes() {
+        return excludedMimeTypes;
+    }
+
+    /**
+     * Whether gzip-encoded request bodies are transparently inflated.
+     */
+    public boolean isInflateRequests() {
+        return inflateRequests;
+    }
+}
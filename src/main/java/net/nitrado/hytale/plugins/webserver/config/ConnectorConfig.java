@@ -0,0 +1,111 @@
+package net.nitrado.hytale.plugins.webserver.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Configuration for an additional connector with its own bind address and thread pool.
+ *
+ * <p>Additional connectors keep selected paths, such as metrics or health checks, responsive while the
+ * main connector is saturated. A typical setup is a plain HTTP connector on the loopback interface that
+ * serves the ops endpoints exclusively.</p>
+ */
+public final class ConnectorConfig {
+
+    public static final BuilderCodec<ConnectorConfig> CODEC = BuilderCodec.builder(ConnectorConfig.class, ConnectorConfig::new)
+            .append(
+                    new KeyedCodec<>("Name", Codec.STRING),
+                    (config, value) -> config.name = value,
+                    config -> config.name
+            ).add()
+            .append(
+                    new KeyedCodec<>("BindHost", Codec.STRING),
+                    (config, value) -> config.bindHost = value,
+                    config -> config.bindHost
+            ).add()
+            .append(
+                    new KeyedCodec<>("BindPort", Codec.INTEGER),
+                    (config, value) -> config.bindPort = value,
+                    config -> config.bindPort
+            ).add()
+            .append(
+                    new KeyedCodec<>("Tls", Codec.BOOLEAN),
+                    (config, value) -> config.tls = value,
+                    config -> config.tls
+            ).add()
+            .append(
+                    new KeyedCodec<>("MinThreads", Codec.INTEGER),
+                    (config, value) -> config.minThreads = value,
+                    config -> config.minThreads
+            ).add()
+            .append(
+                    new KeyedCodec<>("MaxThreads", Codec.INTEGER),
+                    (config, value) -> config.maxThreads = value,
+                    config -> config.maxThreads
+            ).add()
+            .append(
+                    new KeyedCodec<>("Paths", Codec.STRING_ARRAY),
+                    (config, value) -> config.paths = value,
+                    config -> config.paths
+            ).add()
+            .append(
+                    new KeyedCodec<>("Exclusive", Codec.BOOLEAN),
+                    (config, value) -> config.exclusive = value,
+                    config -> config.exclusive
+            ).add()
+            .build();
+
+    private String name = "internal";
+    private String bindHost = "127.0.0.1";
+    private int bindPort = 0;
+    private boolean tls = false;
+    private int minThreads = 2;
+    private int maxThreads = 8;
+    private String[] paths = new String[0];
+    private boolean exclusive = false;
+
+    /**
+     * The name of the connector, used in logs, thread and metric names.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public String getBindHost() {
+        return bindHost;
+    }
+
+    public int getBindPort() {
+        return bindPort;
+    }
+
+    /**
+     * Whether the connector uses TLS with the certificate configured in the {@code Tls} section.
+     */
+    public boolean isTls() {
+        return tls;
+    }
+
+    public int getMinThreads() {
+        return minThreads;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    /**
+     * The path prefixes served by this connector, e.g. {@code /metrics}. Serves all paths if empty.
+     */
+    public String[] getPaths() {
+        return paths;
+    }
+
+    /**
+     * Whether the paths of this connector are served exclusively by it, and no longer by the main connector.
+     */
+    public boolean isExclusive() {
+        return exclusive;
+    }
+}
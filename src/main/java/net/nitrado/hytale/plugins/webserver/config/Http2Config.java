@@ -0,0 +1,69 @@
+package net.nitrado.hytale.plugins.webserver.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Configuration for HTTP/2 support.
+ *
+ * <p>When TLS is enabled, HTTP/2 is negotiated via ALPN and clients that do not support it fall back
+ * to HTTP/1.1. On plain HTTP connectors, HTTP/2 over cleartext (h2c) is only offered when
+ * {@code Cleartext} is enabled.</p>
+ */
+public final class Http2Config {
+
+    public static final BuilderCodec<Http2Config> CODEC = BuilderCodec.builder(Http2Config.class, Http2Config::new)
+            .append(
+                    new KeyedCodec<>("Enabled", Codec.BOOLEAN),
+                    (config, value) -> config.enabled = value,
+                    config -> config.enabled
+            ).add()
+            .append(
+                    new KeyedCodec<>("Cleartext", Codec.BOOLEAN),
+                    (config, value) -> config.cleartext = value,
+                    config -> config.cleartext
+            ).add()
+            .append(
+                    new KeyedCodec<>("MaxConcurrentStreams", Codec.INTEGER),
+                    (config, value) -> config.maxConcurrentStreams = value,
+                    config -> config.maxConcurrentStreams
+            ).add()
+            .append(
+                    new KeyedCodec<>("InitialStreamRecvWindow", Codec.INTEGER),
+                    (config, value) -> config.initialStreamRecvWindow = value,
+                    config -> config.initialStreamRecvWindow
+            ).add()
+            .append(
+                    new KeyedCodec<>("InitialSessionRecvWindow", Codec.INTEGER),
+                    (config, value) -> config.initialSessionRecvWindow = value,
+                    config -> config.initialSessionRecvWindow
+            ).add()
+            .build();
+
+    private boolean enabled = true;
+    private boolean cleartext = false;
+    private int maxConcurrentStreams = 128;
+    private int initialStreamRecvWindow = 512 * 1024;
+    private int initialSessionRecvWindow = 1024 * 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isCleartext() {
+        return cleartext;
+    }
+
+    public int getMaxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    public int getInitialStreamRecvWindow() {
+        return initialStreamRecvWindow;
+    }
+
+    public int getInitialSessionRecvWindow() {
+        return initialSessionRecvWindow;
+    }
+}
@@ -0,0 +1,54 @@
+package net.nitrado.hytale.plugins.webserver.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Configuration for the experimental HTTP/3 (QUIC) connector.
+ *
+ * <p>HTTP/3 requires TLS and is therefore unavailable when {@code Tls.Insecure} is set. When enabled,
+ * responses on the TCP connector carry an {@code Alt-Svc} header so that clients can upgrade.</p>
+ */
+public final class Http3Config {
+
+    public static final BuilderCodec<Http3Config> CODEC = BuilderCodec.builder(Http3Config.class, Http3Config::new)
+            .append(
+                    new KeyedCodec<>("Enabled", Codec.BOOLEAN),
+                    (config, value) -> config.enabled = value,
+                    config -> config.enabled
+            ).add()
+            .append(
+                    new KeyedCodec<>("Port", Codec.INTEGER),
+                    (config, value) -> config.port = value,
+                    config -> config.port
+            ).add()
+            .append(
+                    new KeyedCodec<>("AltSvcMaxAge", Codec.INTEGER),
+                    (config, value) -> config.altSvcMaxAge = value,
+                    config -> config.altSvcMaxAge
+            ).add()
+            .build();
+
+    private boolean enabled = false;
+    private int port = 0;
+    private int altSvcMaxAge = 86400;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The UDP port for HTTP/3. Defaults to {@code BindPort} when set to 0.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * The number of seconds clients may remember the advertised HTTP/3 endpoint.
+     */
+    public int getAltSvcMaxAge() {
+        return altSvcMaxAge;
+    }
+}
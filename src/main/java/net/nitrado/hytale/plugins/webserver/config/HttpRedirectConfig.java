@@ -0,0 +1,42 @@
+package net.nitrado.hytale.plugins.webserver.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Configuration for the plain HTTP connector that redirects to the TLS connector.
+ *
+ * <p>The connector answers ACME HTTP-01 challenges and permanently redirects all other requests to HTTPS.
+ * It is always enabled when the {@code letsencrypt} certificate provider is used, and then listens on
+ * {@code LetsEncrypt.ChallengePort}.</p>
+ */
+public final class HttpRedirectConfig {
+
+    public static final BuilderCodec<HttpRedirectConfig> CODEC = BuilderCodec.builder(HttpRedirectConfig.class, HttpRedirectConfig::new)
+            .append(
+                    new KeyedCodec<>("Enabled", Codec.BOOLEAN),
+                    (config, value) -> config.enabled = value,
+                    config -> config.enabled
+            ).add()
+            .append(
+                    new KeyedCodec<>("Port", Codec.INTEGER),
+                    (config, value) -> config.port = value,
+                    config -> config.port
+            ).add()
+            .build();
+
+    private boolean enabled = false;
+    private int port = 80;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The port of the plain HTTP connector.
+     */
+    public int getPort() {
+        return port;
+    }
+}
@@ -0,0 +1,138 @@
+package net.nitrado.hytale.plugins.webserver.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Configuration for admission control, protecting the game server from clients that open too many
+ * connections, send too many concurrent requests or transfer data too slowly.
+ *
+ * <p>Requests exceeding a concurrency limit wait in a bounded queue. Requests that do not fit into the queue,
+ * or wait longer than the queue timeout, are rejected with {@code 503 Service Unavailable}.</p>
+ */
+public final class LimitsConfig {
+
+    public static final BuilderCodec<LimitsConfig> CODEC = BuilderCodec.builder(LimitsConfig.class, LimitsConfig::new)
+            .append(
+                    new KeyedCodec<>("MaxConnections", Codec.INTEGER),
+                    (config, value) -> config.maxConnections = value,
+                    config -> config.maxConnections
+            ).add()
+            .append(
+                    new KeyedCodec<>("MaxConcurrentRequests", Codec.INTEGER),
+                    (config, value) -> config.maxConcurrentRequests = value,
+                    config -> config.maxConcurrentRequests
+            ).add()
+            .append(
+                    new KeyedCodec<>("MaxQueuedRequests", Codec.INTEGER),
+                    (config, value) -> config.maxQueuedRequests = value,
+                    config -> config.maxQueuedRequests
+            ).add()
+            .append(
+                    new KeyedCodec<>("MaxConcurrentRequestsPerPlugin", Codec.INTEGER),
+                    (config, value) -> config.maxConcurrentRequestsPerPlugin = value,
+                    config -> config.maxConcurrentRequestsPerPlugin
+            ).add()
+            .append(
+                    new KeyedCodec<>("MaxQueuedRequestsPerPlugin", Codec.INTEGER),
+                    (config, value) -> config.maxQueuedRequestsPerPlugin = value,
+                    config -> config.maxQueuedRequestsPerPlugin
+            ).add()
+            .append(
+                    new KeyedCodec<>("QueueTimeout", Codec.INTEGER),
+                    (config, value) -> config.queueTimeout = value,
+                    config -> config.queueTimeout
+            ).add()
+            .append(
+                    new KeyedCodec<>("RetryAfter", Codec.INTEGER),
+                    (config, value) -> config.retryAfter = value,
+                    config -> config.retryAfter
+            ).add()
+            .append(
+                    new KeyedCodec<>("MinRequestDataRate", Codec.LONG),
+                    (config, value) -> config.minRequestDataRate = value,
+                    config -> config.minRequestDataRate
+            ).add()
+            .append(
+                    new KeyedCodec<>("MinResponseDataRate", Codec.LONG),
+                    (config, value) -> config.minResponseDataRate = value,
+                    config -> config.minResponseDataRate
+            ).add()
+            .build();
+
+    private int maxConnections = -1;
+    private int maxConcurrentRequests = -1;
+    private int maxQueuedRequests = 256;
+    private int maxConcurrentRequestsPerPlugin = -1;
+    private int maxQueuedRequestsPerPlugin = 64;
+    private int queueTimeout = 5000;
+    private int retryAfter = 1;
+    private long minRequestDataRate = 0;
+    private long minResponseDataRate = 0;
+
+    /**
+     * The maximum number of open network connections. Further connections are not accepted until
+     * one closes. Unlimited if not positive.
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * The maximum number of requests handled concurrently across all plugins. Unlimited if not positive.
+     */
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    /**
+     * The maximum number of requests waiting for the global concurrency limit. Further requests are
+     * rejected with {@code 503 Service Unavailable}.
+     */
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    /**
+     * The maximum number of requests handled concurrently per plugin path prefix. Unlimited if not positive.
+     */
+    public int getMaxConcurrentRequestsPerPlugin() {
+        return maxConcurrentRequestsPerPlugin;
+    }
+
+    /**
+     * The maximum number of requests waiting for a plugin's concurrency limit.
+     */
+    public int getMaxQueuedRequestsPerPlugin() {
+        return maxQueuedRequestsPerPlugin;
+    }
+
+    /**
+     * The maximum time in milliseconds a request waits for a concurrency limit before it is rejected.
+     */
+    public int getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    /**
+     * The value in seconds of the {@code Retry-After} header sent with rejected requests.
+     */
+    public int getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * The minimum rate in bytes per second at which a client must send the request body. Disabled if not positive.
+     */
+    public long getMinRequestDataRate() {
+        return minRequestDataRate;
+    }
+
+    /**
+     * The minimum rate in bytes per second at which a client must read the response. Disabled if not positive.
+     */
+    public long getMinResponseDataRate() {
+        return minResponseDataRate;
+    }
+}
@@ -0,0 +1,184 @@
+package net.nitrado.hytale.plugins.webserver.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Configuration for password logins.
+ *
+ * <p>Password hashes are verified on a small dedicated pool of {@code HashThreads} threads, so that a burst
+ * of logins cannot occupy the request threads. Logins beyond {@code HashQueueSize} waiting ones are rejected
+ * with {@code 503 Service Unavailable}.</p>
+ *
+ * <p>A username or client IP with {@code MaxFailures} or {@code MaxFailuresPerAddress} failed logins within
+ * {@code FailureWindow} seconds is locked out for {@code LockoutDuration} seconds, doubling with every further
+ * lockout up to {@code MaxLockoutDuration}.</p>
+ *
+ * <p>While more than half of the hashing queue is in use, password logins must solve a proof-of-work
+ * challenge of between {@code ChallengeMinDifficulty} and {@code ChallengeMaxDifficulty} bits.</p>
+ */
+public final class LoginConfig {
+
+    public static final BuilderCodec<LoginConfig> CODEC = BuilderCodec.builder(LoginConfig.class, LoginConfig::new)
+            .append(
+                    new KeyedCodec<>("HashThreads", Codec.INTEGER),
+                    (config, value) -> config.hashThreads = value,
+                    config -> config.hashThreads
+            ).add()
+            .append(
+                    new KeyedCodec<>("BcryptCost", Codec.INTEGER),
+                    (config, value) -> config.bcryptCost = value,
+                    config -> config.bcryptCost
+            ).add()
+            .append(
+                    new KeyedCodec<>("HashTargetMillis", Codec.INTEGER),
+                    (config, value) -> config.hashTargetMillis = value,
+                    config -> config.hashTargetMillis
+            ).add()
+            .append(
+                    new KeyedCodec<>("HashQueueSize", Codec.INTEGER),
+                    (config, value) -> config.hashQueueSize = value,
+                    config -> config.hashQueueSize
+            ).add()
+            .append(
+                    new KeyedCodec<>("MaxFailures", Codec.INTEGER),
+                    (config, value) -> config.maxFailures = value,
+                    config -> config.maxFailures
+            ).add()
+            .append(
+                    new KeyedCodec<>("MaxFailuresPerAddress", Codec.INTEGER),
+                    (config, value) -> config.maxFailuresPerAddress = value,
+                    config -> config.maxFailuresPerAddress
+            ).add()
+            .append(
+                    new KeyedCodec<>("FailureWindow", Codec.INTEGER),
+                    (config, value) -> config.failureWindow = value,
+                    config -> config.failureWindow
+            ).add()
+            .append(
+                    new KeyedCodec<>("LockoutDuration", Codec.INTEGER),
+                    (config, value) -> config.lockoutDuration = value,
+                    config -> config.lockoutDuration
+            ).add()
+            .append(
+                    new KeyedCodec<>("MaxLockoutDuration", Codec.INTEGER),
+                    (config, value) -> config.maxLockoutDuration = value,
+                    config -> config.maxLockoutDuration
+            ).add()
+            .append(
+                    new KeyedCodec<>("Challenges", Codec.BOOLEAN),
+                    (config, value) -> config.challenges = value,
+                    config -> config.challenges
+            ).add()
+            .append(
+                    new KeyedCodec<>("ChallengeMinDifficulty", Codec.INTEGER),
+                    (config, value) -> config.challengeMinDifficulty = value,
+                    config -> config.challengeMinDifficulty
+            ).add()
+            .append(
+                    new KeyedCodec<>("ChallengeMaxDifficulty", Codec.INTEGER),
+                    (config, value) -> config.challengeMaxDifficulty = value,
+                    config -> config.challengeMaxDifficulty
+            ).add()
+            .build();
+
+    private int hashThreads = 0;
+    private int hashQueueSize = 64;
+    private int bcryptCost = 10;
+    private int hashTargetMillis = 250;
+    private int maxFailures = 5;
+    private int maxFailuresPerAddress = 20;
+    private int failureWindow = 900;
+    private int lockoutDuration = 30;
+    private int maxLockoutDuration = 3600;
+    private boolean challenges = true;
+    private int challengeMinDifficulty = 14;
+    private int challengeMaxDifficulty = 20;
+
+    /**
+     * The number of threads verifying password hashes, half the available processors if not positive.
+     */
+    public int getHashThreads() {
+        return hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    /**
+     * The BCrypt cost of new password hashes, each step doubling the time to hash. Stored hashes of a
+     * different cost are rehashed on the next successful login.
+     */
+    public int getBcryptCost() {
+        return Math.min(31, Math.max(4, bcryptCost));
+    }
+
+    /**
+     * The time in milliseconds a single password hash should take, used by the calibration command to
+     * suggest a {@code BcryptCost}.
+     */
+    public int getHashTargetMillis() {
+        return hashTargetMillis;
+    }
+
+    /**
+     * The maximum number of logins waiting for a hash thread.
+     */
+    public int getHashQueueSize() {
+        return hashQueueSize;
+    }
+
+    /**
+     * The number of failed logins for a username after which it is locked out, never if not positive.
+     */
+    public int getMaxFailures() {
+        return maxFailures;
+    }
+
+    /**
+     * The number of failed logins from a client IP after which it is locked out, never if not positive.
+     */
+    public int getMaxFailuresPerAddress() {
+        return maxFailuresPerAddress;
+    }
+
+    /**
+     * The number of seconds within which failed logins are counted.
+     */
+    public int getFailureWindow() {
+        return failureWindow;
+    }
+
+    /**
+     * The number of seconds of the first lockout.
+     */
+    public int getLockoutDuration() {
+        return lockoutDuration;
+    }
+
+    /**
+     * The maximum number of seconds of a lockout.
+     */
+    public int getMaxLockoutDuration() {
+        return maxLockoutDuration;
+    }
+
+    /**
+     * Whether password logins must solve a proof-of-work challenge while the hashing queue is filling up.
+     */
+    public boolean isChallenges() {
+        return challenges;
+    }
+
+    /**
+     * The number of leading zero bits a solution needs once half of the hashing queue is in use.
+     */
+    public int getChallengeMinDifficulty() {
+        return challengeMinDifficulty;
+    }
+
+    /**
+     * The number of leading zero bits a solution needs once the hashing queue is full.
+     */
+    public int getChallengeMaxDifficulty() {
+        return challengeMaxDifficulty;
+    }
+}
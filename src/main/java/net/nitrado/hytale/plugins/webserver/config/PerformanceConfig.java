@@ -0,0 +1,160 @@
+package net.nitrado.hytale.plugins.webserver.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Configuration for tuning the throughput of the embedded Jetty server.
+ *
+ * <p>Values of {@code -1} leave the respective setting at Jetty's default, which is derived from
+ * the number of available CPU cores and the configured heap size.</p>
+ */
+public final class PerformanceConfig {
+
+    public static final BuilderCodec<PerformanceConfig> CODEC = BuilderCodec.builder(PerformanceConfig.class, PerformanceConfig::new)
+            .append(
+                    new KeyedCodec<>("MinThreads", Codec.INTEGER),
+                    (config, value) -> config.minThreads = value,
+                    config -> config.minThreads
+            ).add()
+            .append(
+                    new KeyedCodec<>("MaxThreads", Codec.INTEGER),
+                    (config, value) -> config.maxThreads = value,
+                    config -> config.maxThreads
+            ).add()
+            .append(
+                    new KeyedCodec<>("QueueSize", Codec.INTEGER),
+                    (config, value) -> config.queueSize = value,
+                    config -> config.queueSize
+            ).add()
+            .append(
+                    new KeyedCodec<>("Acceptors", Codec.INTEGER),
+                    (config, value) -> config.acceptors = value,
+                    config -> config.acceptors
+            ).add()
+            .append(
+                    new KeyedCodec<>("Selectors", Codec.INTEGER),
+                    (config, value) -> config.selectors = value,
+                    config -> config.selectors
+            ).add()
+            .append(
+                    new KeyedCodec<>("ReusePort", Codec.BOOLEAN),
+                    (config, value) -> config.reusePort = value,
+                    config -> config.reusePort
+            ).add()
+            .append(
+                    new KeyedCodec<>("IdleTimeout", Codec.INTEGER),
+                    (config, value) -> config.idleTimeout = value,
+                    config -> config.idleTimeout
+            ).add()
+            .append(
+                    new KeyedCodec<>("RequestHeaderSize", Codec.INTEGER),
+                    (config, value) -> config.requestHeaderSize = value,
+                    config -> config.requestHeaderSize
+            ).add()
+            .append(
+                    new KeyedCodec<>("OutputBufferSize", Codec.INTEGER),
+                    (config, value) -> config.outputBufferSize = value,
+                    config -> config.outputBufferSize
+            ).add()
+            .append(
+                    new KeyedCodec<>("BufferPoolMaxCapacity", Codec.INTEGER),
+                    (config, value) -> config.bufferPoolMaxCapacity = value,
+                    config -> config.bufferPoolMaxCapacity
+            ).add()
+            .append(
+                    new KeyedCodec<>("BufferPoolMaxBucketSize", Codec.INTEGER),
+                    (config, value) -> config.bufferPoolMaxBucketSize = value,
+                    config -> config.bufferPoolMaxBucketSize
+            ).add()
+            .append(
+                    new KeyedCodec<>("BufferPoolMaxHeapMemory", Codec.LONG),
+                    (config, value) -> config.bufferPoolMaxHeapMemory = value,
+                    config -> config.bufferPoolMaxHeapMemory
+            ).add()
+            .append(
+                    new KeyedCodec<>("BufferPoolMaxDirectMemory", Codec.LONG),
+                    (config, value) -> config.bufferPoolMaxDirectMemory = value,
+                    config -> config.bufferPoolMaxDirectMemory
+            ).add()
+            .build();
+
+    private int minThreads = 8;
+    private int maxThreads = 200;
+    private int queueSize = -1;
+    private int acceptors = -1;
+    private int selectors = -1;
+    private boolean reusePort = false;
+    private int idleTimeout = 30000;
+    private int requestHeaderSize = 8192;
+    private int outputBufferSize = 32768;
+    private int bufferPoolMaxCapacity = -1;
+    private int bufferPoolMaxBucketSize = -1;
+    private long bufferPoolMaxHeapMemory = -1;
+    private long bufferPoolMaxDirectMemory = -1;
+
+    public int getMinThreads() {
+        return minThreads;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    /**
+     * The maximum number of jobs waiting for a thread. Unbounded if not positive.
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public int getAcceptors() {
+        return acceptors;
+    }
+
+    public int getSelectors() {
+        return selectors;
+    }
+
+    public boolean isReusePort() {
+        return reusePort;
+    }
+
+    /**
+     * The connection idle timeout in milliseconds.
+     */
+    public int getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public int getRequestHeaderSize() {
+        return requestHeaderSize;
+    }
+
+    public int getOutputBufferSize() {
+        return outputBufferSize;
+    }
+
+    public int getBufferPoolMaxCapacity() {
+        return bufferPoolMaxCapacity;
+    }
+
+    public int getBufferPoolMaxBucketSize() {
+        return bufferPoolMaxBucketSize;
+    }
+
+    /**
+     * The maximum heap memory in bytes retained by the buffer pool. 0 means unlimited.
+     */
+    public long getBufferPoolMaxHeapMemory() {
+        return bufferPoolMaxHeapMemory;
+    }
+
+    /**
+     * The maximum direct memory in bytes retained by the buffer pool. 0 means unlimited.
+     */
+    public long getBufferPoolMaxDirectMemory() {
+        return bufferPoolMaxDirectMemory;
+    }
+}
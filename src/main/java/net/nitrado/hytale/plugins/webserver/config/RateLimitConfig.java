@@ -0,0 +1,95 @@
+package net.nitrado.hytale.plugins.webserver.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Configuration for rate limiting requests per authenticated user, or per client IP for anonymous requests.
+ *
+ * <p>Each client may send a burst of up to its number of requests, which is refilled evenly over the
+ * period. Limits can be overridden per permission group, and per service account in its provisioning
+ * file.</p>
+ */
+public final class RateLimitConfig {
+
+    public static final BuilderCodec<RateLimitConfig> CODEC = BuilderCodec.builder(RateLimitConfig.class, RateLimitConfig::new)
+            .append(
+                    new KeyedCodec<>("Enabled", Codec.BOOLEAN),
+                    (config, value) -> config.enabled = value,
+                    config -> config.enabled
+            ).add()
+            .append(
+                    new KeyedCodec<>("Period", Codec.INTEGER),
+                    (config, value) -> config.period = value,
+                    config -> config.period
+            ).add()
+            .append(
+                    new KeyedCodec<>("Requests", Codec.INTEGER),
+                    (config, value) -> config.requests = value,
+                    config -> config.requests
+            ).add()
+            .append(
+                    new KeyedCodec<>("AnonymousRequests", Codec.INTEGER),
+                    (config, value) -> config.anonymousRequests = value,
+                    config -> config.anonymousRequests
+            ).add()
+            .append(
+                    new KeyedCodec<>("Groups", Codec.STRING_ARRAY),
+                    (config, value) -> config.groups = value,
+                    config -> config.groups
+            ).add()
+            .append(
+                    new KeyedCodec<>("MaxTrackedClients", Codec.INTEGER),
+                    (config, value) -> config.maxTrackedClients = value,
+                    config -> config.maxTrackedClients
+            ).add()
+            .build();
+
+    private boolean enabled = false;
+    private int period = 60;
+    private int requests = 600;
+    private int anonymousRequests = 120;
+    private String[] groups = new String[0];
+    private int maxTrackedClients = 100000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The period in seconds over which a client's requests are refilled.
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    /**
+     * The number of requests per period for authenticated users. Unlimited if not positive.
+     */
+    public int getRequests() {
+        return requests;
+    }
+
+    /**
+     * The number of requests per period for anonymous requests, per client IP. Unlimited if not positive.
+     */
+    public int getAnonymousRequests() {
+        return anonymousRequests;
+    }
+
+    /**
+     * Per permission group overrides in the form {@code GROUP=REQUESTS}. The first group of a user
+     * that is listed here determines the user's limit.
+     */
+    public String[] getGroups() {
+        return groups;
+    }
+
+    /**
+     * The maximum number of clients whose request counts are tracked at the same time.
+     */
+    public int getMaxTrackedClients() {
+        return maxTrackedClients;
+    }
+}
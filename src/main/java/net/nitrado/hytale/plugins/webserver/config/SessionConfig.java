@@ -0,0 +1,104 @@
+package net.nitrado.hytale.plugins.webserver.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Configuration for HTTP sessions of logged-in users.
+ *
+ * <p>Sessions are only created on login. Once {@code MaxSessions} is reached, the least recently used
+ * session is invalidated to make room for a new one.</p>
+ *
+ * <p>With {@code Store} set to {@code cookie}, the logged-in user is kept in an encrypted cookie instead,
+ * and the server holds no session state at all.</p>
+ */
+public final class SessionConfig {
+
+    public static final BuilderCodec<SessionConfig> CODEC = BuilderCodec.builder(SessionConfig.class, SessionConfig::new)
+            .append(
+                    new KeyedCodec<>("Store", Codec.STRING),
+                    (config, value) -> config.store = value,
+                    config -> config.store
+            ).add()
+            .append(
+                    new KeyedCodec<>("MaxSessions", Codec.INTEGER),
+                    (config, value) -> config.maxSessions = value,
+                    config -> config.maxSessions
+            ).add()
+            .append(
+                    new KeyedCodec<>("MaxInactiveInterval", Codec.INTEGER),
+                    (config, value) -> config.maxInactiveInterval = value,
+                    config -> config.maxInactiveInterval
+            ).add()
+            .append(
+                    new KeyedCodec<>("Persistent", Codec.BOOLEAN),
+                    (config, value) -> config.persistent = value,
+                    config -> config.persistent
+            ).add()
+            .append(
+                    new KeyedCodec<>("FlushInterval", Codec.INTEGER),
+                    (config, value) -> config.flushInterval = value,
+                    config -> config.flushInterval
+            ).add()
+            .append(
+                    new KeyedCodec<>("KeyRotationInterval", Codec.INTEGER),
+                    (config, value) -> config.keyRotationInterval = value,
+                    config -> config.keyRotationInterval
+            ).add()
+            .build();
+
+    private String store = "server";
+    private int maxSessions = 10000;
+    private int maxInactiveInterval = 86400;
+    private boolean persistent = true;
+    private int flushInterval = 5000;
+    private int keyRotationInterval = 604800;
+
+    /**
+     * Where logged-in users are kept: {@code server} for server-side sessions, or {@code cookie} for
+     * encrypted cookies.
+     */
+    public String getStore() {
+        return store;
+    }
+
+    public boolean isCookieStore() {
+        return "cookie".equalsIgnoreCase(store);
+    }
+
+    /**
+     * The maximum number of sessions kept in memory, unlimited if not positive.
+     */
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    /**
+     * The number of seconds after which an unused session expires, never if not positive.
+     */
+    public int getMaxInactiveInterval() {
+        return maxInactiveInterval;
+    }
+
+    /**
+     * Whether sessions are stored in the data directory, so that users stay logged in across restarts.
+     */
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    /**
+     * The interval in milliseconds at which changed sessions are written to disk.
+     */
+    public int getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * The number of seconds after which a new key for encrypting session cookies is generated.
+     */
+    public int getKeyRotationInterval() {
+        return keyRotationInterval;
+    }
+}
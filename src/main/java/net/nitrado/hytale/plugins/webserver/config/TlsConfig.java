@@ -112,11 +112,52 @@ public final class TlsConfig {
             return agreeToTermsOfService;
         }
 
+        /**
+         * The port of the plain HTTP connector serving the HTTP-01 challenge. Must be reachable as port 80
+         * from the internet.
+         */
         public int getChallengePort() {
             return challengePort;
         }
     }
 
+    /**
+     * Configuration for client certificate authentication.
+     */
+    public static class ClientAuthConfig {
+        public static final BuilderCodec<ClientAuthConfig> CODEC = BuilderCodec.builder(ClientAuthConfig.class, ClientAuthConfig::new)
+                .append(
+                        new KeyedCodec<>("Enabled", Codec.BOOLEAN),
+                        (config, value) -> config.enabled = value,
+                        config -> config.enabled
+                ).add()
+                .append(
+                        new KeyedCodec<>("TrustedCaPath", Codec.STRING),
+                        (config, value) -> config.trustedCaPath = value,
+                        config -> config.trustedCaPath
+                ).add()
+                .build();
+
+        private boolean enabled = false;
+        private String trustedCaPath = null;
+
+        /**
+         * Whether clients are asked for a certificate during the TLS handshake. Clients without one can still
+         * connect and authenticate by other means.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Path to a PEM file with the CA certificates client certificates must be issued by. Without it, any
+         * client certificate is accepted during the handshake and only pinned fingerprints identify a client.
+         */
+        public String getTrustedCaPath() {
+            return trustedCaPath;
+        }
+    }
+
     public static final BuilderCodec<TlsConfig> CODEC = BuilderCodec.builder(TlsConfig.class, TlsConfig::new)
             .append(
                     new KeyedCodec<>("Insecure", Codec.BOOLEAN),
@@ -143,6 +184,11 @@ public final class TlsConfig {
                     (config, value) -> config.letsEncrypt = value,
                     config -> config.letsEncrypt
             ).add()
+            .append(
+                    new KeyedCodec<>("ClientAuth", ClientAuthConfig.CODEC),
+                    (config, value) -> config.clientAuth = value,
+                    config -> config.clientAuth
+            ).add()
             .build();
 
     // General TLS settings
@@ -153,6 +199,7 @@ public final class TlsConfig {
     private SelfSignedConfig selfSigned = new SelfSignedConfig();
     private PemConfig pem = new PemConfig();
     private LetsEncryptConfig letsEncrypt = new LetsEncryptConfig();
+    private ClientAuthConfig clientAuth = new ClientAuthConfig();
 
     public boolean isInsecure() {
         return insecure;
@@ -174,6 +221,10 @@ public final class TlsConfig {
         return letsEncrypt;
     }
 
+    public ClientAuthConfig getClientAuth() {
+        return clientAuth;
+    }
+
     /**
      * Creates a CertificateProvider based on this configuration.
      *
@@ -214,7 +265,6 @@ public final class TlsConfig {
                         letsEncrypt.getDomain(),
                         certStorage,
                         letsEncrypt.isProduction(),
-                        letsEncrypt.getChallengePort(),
                         logger);
             }
             default -> throw new IllegalArgumentException(
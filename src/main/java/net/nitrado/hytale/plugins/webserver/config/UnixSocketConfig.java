@@ -0,0 +1,54 @@
+package net.nitrado.hytale.plugins.webserver.config;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Configuration for an additional Unix domain socket connector.
+ *
+ * <p>The socket serves plain HTTP and is intended for local sidecars and reverse proxies running on the
+ * same machine. Access is controlled via the socket file's permissions instead of TLS.</p>
+ */
+public final class UnixSocketConfig {
+
+    public static final BuilderCodec<UnixSocketConfig> CODEC = BuilderCodec.builder(UnixSocketConfig.class, UnixSocketConfig::new)
+            .append(
+                    new KeyedCodec<>("Enabled", Codec.BOOLEAN),
+                    (config, value) -> config.enabled = value,
+                    config -> config.enabled
+            ).add()
+            .append(
+                    new KeyedCodec<>("Path", Codec.STRING),
+                    (config, value) -> config.path = value,
+                    config -> config.path
+            ).add()
+            .append(
+                    new KeyedCodec<>("Permissions", Codec.STRING),
+                    (config, value) -> config.permissions = value,
+                    config -> config.permissions
+            ).add()
+            .build();
+
+    private boolean enabled = false;
+    private String path = null;
+    private String permissions = "rw-rw----";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The path of the socket file. Defaults to {@code webserver.sock} in the plugin's data directory.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * The POSIX permissions of the socket file, e.g. {@code rw-rw----}.
+     */
+    public String getPermissions() {
+        return permissions;
+    }
+}
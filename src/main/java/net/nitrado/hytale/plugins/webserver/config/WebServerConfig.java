@@ -3,6 +3,7 @@ package net.nitrado.hytale.plugins.webserver.config;
 import com.hypixel.hytale.codec.Codec;
 import com.hypixel.hytale.codec.KeyedCodec;
 import com.hypixel.hytale.codec.builder.BuilderCodec;
+import com.hypixel.hytale.codec.codecs.array.ArrayCodec;
 import com.hypixel.hytale.server.core.Options;
 
 public final class WebServerConfig {
@@ -22,11 +23,101 @@ public final class WebServerConfig {
                     (config, value) -> config.tls = value,
                     config -> config.tls
             ).add()
+            .append(
+                    new KeyedCodec<>("HttpRedirect", HttpRedirectConfig.CODEC),
+                    (config, value) -> config.httpRedirect = value,
+                    config -> config.httpRedirect
+            ).add()
+            .append(
+                    new KeyedCodec<>("Connectors", new ArrayCodec<>(ConnectorConfig.CODEC, ConnectorConfig[]::new)),
+                    (config, value) -> config.connectors = value,
+                    config -> config.connectors
+            ).add()
+            .append(
+                    new KeyedCodec<>("Http2", Http2Config.CODEC),
+                    (config, value) -> config.http2 = value,
+                    config -> config.http2
+            ).add()
+            .append(
+                    new KeyedCodec<>("Http3", Http3Config.CODEC),
+                    (config, value) -> config.http3 = value,
+                    config -> config.http3
+            ).add()
+            .append(
+                    new KeyedCodec<>("UnixSocket", UnixSocketConfig.CODEC),
+                    (config, value) -> config.unixSocket = value,
+                    config -> config.unixSocket
+            ).add()
+            .append(
+                    new KeyedCodec<>("Compression", CompressionConfig.CODEC),
+                    (config, value) -> config.compression = value,
+                    config -> config.compression
+            ).add()
+            .append(
+                    new KeyedCodec<>("Performance", PerformanceConfig.CODEC),
+                    (config, value) -> config.performance = value,
+                    config -> config.performance
+            ).add()
+            .append(
+                    new KeyedCodec<>("Limits", LimitsConfig.CODEC),
+                    (config, value) -> config.limits = value,
+                    config -> config.limits
+            ).add()
+            .append(
+                    new KeyedCodec<>("RateLimit", RateLimitConfig.CODEC),
+                    (config, value) -> config.rateLimit = value,
+                    config -> config.rateLimit
+            ).add()
+            .append(
+                    new KeyedCodec<>("Sessions", SessionConfig.CODEC),
+                    (config, value) -> config.sessions = value,
+                    config -> config.sessions
+            ).add()
+            .append(
+                    new KeyedCodec<>("AccessTokens", AccessTokenConfig.CODEC),
+                    (config, value) -> config.accessTokens = value,
+                    config -> config.accessTokens
+            ).add()
+            .append(
+                    new KeyedCodec<>("Login", LoginConfig.CODEC),
+                    (config, value) -> config.login = value,
+                    config -> config.login
+            ).add()
+            .append(
+                    new KeyedCodec<>("DrainTimeout", Codec.INTEGER),
+                    (config, value) -> config.drainTimeout = value,
+                    config -> config.drainTimeout
+            ).add()
+            .append(
+                    new KeyedCodec<>("KeepAliveOnReload", Codec.BOOLEAN),
+                    (config, value) -> config.keepAliveOnReload = value,
+                    config -> config.keepAliveOnReload
+            ).add()
+            .append(
+                    new KeyedCodec<>("VirtualThreads", Codec.BOOLEAN),
+                    (config, value) -> config.virtualThreads = value,
+                    config -> config.virtualThreads
+            ).add()
             .build();
 
     private String bindHost = Options.getOptionSet().valueOf(Options.BIND).getHostName();
     private int bindPort = Options.getOptionSet().valueOf(Options.BIND).getPort() + 3;
     private TlsConfig tls = new TlsConfig();
+    private HttpRedirectConfig httpRedirect = new HttpRedirectConfig();
+    private ConnectorConfig[] connectors = new ConnectorConfig[0];
+    private Http2Config http2 = new Http2Config();
+    private Http3Config http3 = new Http3Config();
+    private UnixSocketConfig unixSocket = new UnixSocketConfig();
+    private CompressionConfig compression = new CompressionConfig();
+    private PerformanceConfig performance = new PerformanceConfig();
+    private LimitsConfig limits = new LimitsConfig();
+    private RateLimitConfig rateLimit = new RateLimitConfig();
+    private SessionConfig sessions = new SessionConfig();
+    private AccessTokenConfig accessTokens = new AccessTokenConfig();
+    private LoginConfig login = new LoginConfig();
+    private int drainTimeout = 10000;
+    private boolean keepAliveOnReload = false;
+    private boolean virtualThreads = false;
 
     public String getBindHost() {
         return bindHost;
@@ -39,4 +130,79 @@ public final class WebServerConfig {
     public TlsConfig getTls() {
         return tls;
     }
+
+    public HttpRedirectConfig getHttpRedirect() {
+        return httpRedirect;
+    }
+
+    /**
+     * Additional connectors, each with its own bind address and thread pool, serving selected paths.
+     */
+    public ConnectorConfig[] getConnectors() {
+        return connectors;
+    }
+
+    public Http2Config getHttp2() {
+        return http2;
+    }
+
+    public Http3Config getHttp3() {
+        return http3;
+    }
+
+    public UnixSocketConfig getUnixSocket() {
+        return unixSocket;
+    }
+
+    public CompressionConfig getCompression() {
+        return compression;
+    }
+
+    public PerformanceConfig getPerformance() {
+        return performance;
+    }
+
+    public LimitsConfig getLimits() {
+        return limits;
+    }
+
+    public RateLimitConfig getRateLimit() {
+        return rateLimit;
+    }
+
+    public SessionConfig getSessions() {
+        return sessions;
+    }
+
+    public AccessTokenConfig getAccessTokens() {
+        return accessTokens;
+    }
+
+    public LoginConfig getLogin() {
+        return login;
+    }
+
+    /**
+     * The maximum time in milliseconds to wait for in-flight requests when the server stops or a plugin's
+     * servlets are removed.
+     */
+    public int getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    /**
+     * Whether the listening connectors and their TLS state are kept alive when the plugin is reloaded,
+     * swapping only the request handlers.
+     */
+    public boolean isKeepAliveOnReload() {
+        return keepAliveOnReload;
+    }
+
+    /**
+     * Whether requests are handled on virtual threads. Selectors and acceptors always remain on
+     * platform threads.
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
 }
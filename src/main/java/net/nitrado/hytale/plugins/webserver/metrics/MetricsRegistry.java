@@ -0,0 +1,74 @@
+package net.nitrado.hytale.plugins.webserver.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of metrics exposed by the web server in the Prometheus text exposition format.
+ * <p>
+ * Metrics are registered as suppliers that are only evaluated when the registry is written,
+ * so registering a metric does not add any cost to the request path.
+ * </p>
+ * <p>
+ * <strong>Internal API:</strong> This class is not intended for use by consumer plugins.
+ * </p>
+ */
+public final class MetricsRegistry {
+
+    private enum Type {
+        GAUGE,
+        COUNTER,
+    }
+
+    private record Metric(String name, String help, Type type, LongSupplier supplier) {}
+
+    private final Map<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+    /**
+     * Registers a gauge, replacing any previously registered metric with the same name.
+     *
+     * @param name     the metric name, e.g. {@code webserver_sessions}
+     * @param help     a short description of the metric
+     * @param supplier supplier of the current value
+     */
+    public void gauge(String name, String help, LongSupplier supplier) {
+        this.metrics.put(name, new Metric(name, help, Type.GAUGE, supplier));
+    }
+
+    /**
+     * Registers a monotonically increasing counter, replacing any previously registered metric with the same name.
+     *
+     * @param name     the metric name, which should end in {@code _total}
+     * @param help     a short description of the metric
+     * @param supplier supplier of the current value
+     */
+    public void counter(String name, String help, LongSupplier supplier) {
+        this.metrics.put(name, new Metric(name, help, Type.COUNTER, supplier));
+    }
+
+    /**
+     * Removes all metrics whose name starts with the given prefix.
+     *
+     * @param prefix the metric name prefix
+     */
+    public void unregister(String prefix) {
+        this.metrics.keySet().removeIf(name -> name.startsWith(prefix));
+    }
+
+    /**
+     * Writes all registered metrics in the Prometheus text exposition format.
+     *
+     * @param writer the writer to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(Writer writer) throws IOException {
+        for (var metric : this.metrics.values()) {
+            writer.write("# HELP " + metric.name() + " " + metric.help() + "\n");
+            writer.write("# TYPE " + metric.name() + " " + metric.type().name().toLowerCase() + "\n");
+            writer.write(metric.name() + " " + metric.supplier().getAsLong() + "\n");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package net.nitrado.hytale.plugins.webserver.metrics;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks the virtual threads used by the web server to handle requests.
+ * <p>
+ * Parked threads are counted by inspecting the state of the currently running request threads when the
+ * metrics are read. Pinned threads are counted from JFR {@code jdk.VirtualThreadPinned} events, which the
+ * JVM only emits for pins lasting longer than {@link #PINNED_THRESHOLD}.
+ * </p>
+ * <p>
+ * <strong>Internal API:</strong> This class is not intended for use by consumer plugins.
+ * </p>
+ */
+public final class VirtualThreadMonitor implements AutoCloseable {
+
+    private static final Duration PINNED_THRESHOLD = Duration.ofMillis(20);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final HytaleLogger logger;
+    private final String threadNamePrefix;
+    private final Set<Thread> activeThreads = ConcurrentHashMap.newKeySet();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder pinned = new LongAdder();
+
+    private RecordingStream recordingStream;
+
+    public VirtualThreadMonitor(HytaleLogger logger, String threadNamePrefix) {
+        this.logger = logger;
+        this.threadNamePrefix = threadNamePrefix;
+    }
+
+    /**
+     * Wraps the given executor so that every task it runs is tracked by this monitor.
+     *
+     * @param executor the virtual thread executor
+     * @return the tracking executor
+     */
+    public Executor wrap(Executor executor) {
+        return task -> executor.execute(() -> {
+            var thread = Thread.currentThread();
+            this.started.increment();
+            this.activeThreads.add(thread);
+            try {
+                task.run();
+            } finally {
+                this.activeThreads.remove(thread);
+            }
+        });
+    }
+
+    public void start() {
+        try {
+            var stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(PINNED_THRESHOLD);
+            stream.onEvent(PINNED_EVENT, event -> {
+                var thread = event.getThread();
+                if (thread != null && thread.getJavaName() != null && thread.getJavaName().startsWith(this.threadNamePrefix)) {
+                    this.pinned.increment();
+                }
+            });
+            stream.startAsync();
+            this.recordingStream = stream;
+        } catch (Exception e) {
+            this.logger.atWarning().withCause(e).log("Failed to start JFR stream, pinned virtual threads will not be counted");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (this.recordingStream != null) {
+            this.recordingStream.close();
+            this.recordingStream = null;
+        }
+    }
+
+    public long getActiveCount() {
+        return this.activeThreads.size();
+    }
+
+    public long getParkedCount() {
+        long count = 0;
+        for (var thread : this.activeThreads) {
+            var state = thread.getState();
+            if (state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    public long getStartedCount() {
+        return this.started.sum();
+    }
+
+    public long getPinnedCount() {
+        return this.pinned.sum();
+    }
+
+    public void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("webserver_virtual_threads_active", "Virtual threads currently handling requests", this::getActiveCount);
+        metrics.gauge("webserver_virtual_threads_parked", "Virtual threads currently parked while handling requests", this::getParkedCount);
+        metrics.counter("webserver_virtual_threads_started_total", "Virtual threads started for request handling", this::getStartedCount);
+        metrics.counter("webserver_virtual_threads_pinned_total", "Virtual threads pinned to their carrier for longer than " + PINNED_THRESHOLD.toMillis() + "ms", this::getPinnedCount);
+    }
+}
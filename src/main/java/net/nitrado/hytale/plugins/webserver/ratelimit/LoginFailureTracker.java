@@ -0,0 +1,221 @@
+package net.nitrado.hytale.plugins.webserver.ratelimit;
+
+import net.nitrado.hytale.plugins.webserver.config.LoginConfig;
+import net.nitrado.hytale.plugins.webserver.metrics.MetricsRegistry;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts failed logins per username and per client IP, and locks them out once they fail too often.
+ * <p>
+ * Failures are counted in a sliding window split into a fixed number of time buckets. Each bucket is a
+ * single {@code long} packing the index of the time slice it belongs to with its count, so recording a
+ * failure is one compare-and-set and stale buckets reset themselves without a lock. Once the failures
+ * within the window reach the threshold, the key is locked out; every further lockout within the same
+ * streak of failures doubles the duration, up to a maximum. A window without any failure ends the streak.
+ * </p>
+ * <p>
+ * Lockouts are checked before a password is verified, so locked out clients cost no hashing time.
+ * </p>
+ * <p>
+ * <strong>Internal API:</strong> This class is not intended for use by consumer plugins.
+ * </p>
+ */
+public final class LoginFailureTracker {
+
+    private static final int BUCKETS = 8;
+    private static final int COUNT_BITS = 16;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private static final int MAX_TRACKED = 100_000;
+
+    private static final class Entry {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong lockedUntil = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicInteger lockouts = new AtomicInteger();
+    }
+
+    private record UserKey(String username) {}
+
+    private record AddressKey(String address) {}
+
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxFailures;
+    private final int maxFailuresPerAddress;
+    private final long bucketNanos;
+    private final long lockoutNanos;
+    private final long maxLockoutNanos;
+    private final LongSupplier clock;
+    private final long origin;
+    private final AtomicLong lastSweep = new AtomicLong();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder lockouts = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public LoginFailureTracker(LoginConfig config) {
+        this(config, System::nanoTime);
+    }
+
+    LoginFailureTracker(LoginConfig config, LongSupplier clock) {
+        this.maxFailures = config.getMaxFailures();
+        this.maxFailuresPerAddress = config.getMaxFailuresPerAddress();
+        this.bucketNanos = Math.max(1, TimeUnit.SECONDS.toNanos(Math.max(1, config.getFailureWindow())) / BUCKETS);
+        this.lockoutNanos = TimeUnit.SECONDS.toNanos(Math.max(1, config.getLockoutDuration()));
+        this.maxLockoutNanos = Math.max(this.lockoutNanos, TimeUnit.SECONDS.toNanos(config.getMaxLockoutDuration()));
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+    }
+
+    public void registerMetrics(MetricsRegistry metrics) {
+        metrics.counter("webserver_login_failures_total", "Failed logins", this.failures::sum);
+        metrics.counter("webserver_login_lockouts_total", "Usernames or client IPs locked out after failed logins", this.lockouts::sum);
+        metrics.counter("webserver_login_locked_rejected_total", "Logins rejected without verification during a lockout", this.rejected::sum);
+        metrics.gauge("webserver_login_locked", "Usernames and client IPs currently locked out", this::countLocked);
+    }
+
+    /**
+     * Checks whether a login attempt is locked out, counting it as rejected if so.
+     *
+     * @param username   the username or UUID the login is for, or null if unknown
+     * @param remoteAddr the IP address of the client, or null if unknown
+     * @return the number of seconds until the attempt may be retried, or 0 if it may proceed
+     */
+    public long retryAfter(String username, String remoteAddr) {
+        long now = this.clock.getAsLong();
+        long lockedUntil = Math.max(this.lockedUntil(userKey(username)), this.lockedUntil(addressKey(remoteAddr)));
+        if (lockedUntil <= now) {
+            return 0;
+        }
+
+        this.rejected.increment();
+        return toSeconds(lockedUntil - now);
+    }
+
+    /**
+     * Records a failed login of the given username and client IP.
+     */
+    public void recordFailure(String username, String remoteAddr) {
+        long now = this.clock.getAsLong();
+        this.failures.increment();
+
+        if (this.maxFailures > 0) {
+            this.recordFailure(userKey(username), this.maxFailures, now);
+        }
+        if (this.maxFailuresPerAddress > 0) {
+            this.recordFailure(addressKey(remoteAddr), this.maxFailuresPerAddress, now);
+        }
+    }
+
+    /**
+     * Forgets the failures of a username after it has logged in. Failures of the client IP are kept, so that a
+     * client cannot reset its count by logging in to an account of its own.
+     */
+    public void recordSuccess(String username) {
+        var key = userKey(username);
+        if (key != null) {
+            this.entries.remove(key);
+        }
+    }
+
+    private void recordFailure(Object key, int threshold, long now) {
+        if (key == null) {
+            return;
+        }
+
+        if (this.entries.size() >= MAX_TRACKED) {
+            this.sweep(now);
+        }
+
+        var entry = this.entries.computeIfAbsent(key, k -> new Entry());
+        long slice = (now - this.origin) / this.bucketNanos;
+
+        int previous = this.count(entry, slice);
+        if (previous == 0) {
+            // A full window without failures ends the streak, so the next lockout starts short again
+            entry.lockouts.set(0);
+        }
+        this.increment(entry, slice);
+
+        if (previous + 1 >= threshold) {
+            int streak = entry.lockouts.incrementAndGet();
+            long duration = streak > 30 ? this.maxLockoutNanos : Math.min(this.maxLockoutNanos, this.lockoutNanos << (streak - 1));
+            entry.lockedUntil.accumulateAndGet(now + duration, Math::max);
+            this.lockouts.increment();
+        }
+    }
+
+    private int count(Entry entry, long slice) {
+        int count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucket = entry.buckets.get(i);
+            if (slice - (bucket >>> COUNT_BITS) < BUCKETS) {
+                count += (int) (bucket & COUNT_MASK);
+            }
+        }
+        return count;
+    }
+
+    private void increment(Entry entry, long slice) {
+        int index = (int) (slice % BUCKETS);
+        while (true) {
+            long bucket = entry.buckets.get(index);
+            long next;
+            if (bucket >>> COUNT_BITS == slice) {
+                next = (bucket & COUNT_MASK) == COUNT_MASK ? bucket : bucket + 1;
+            } else {
+                next = (slice << COUNT_BITS) | 1;
+            }
+
+            if (entry.buckets.compareAndSet(index, bucket, next)) {
+                return;
+            }
+        }
+    }
+
+    private long lockedUntil(Object key) {
+        if (key == null) {
+            return Long.MIN_VALUE;
+        }
+
+        var entry = this.entries.get(key);
+        return entry == null ? Long.MIN_VALUE : entry.lockedUntil.get();
+    }
+
+    private long countLocked() {
+        long now = this.clock.getAsLong();
+        return this.entries.values().stream().filter(entry -> entry.lockedUntil.get() > now).count();
+    }
+
+    /**
+     * Evicts entries that are neither locked out nor have failures within the window, at most once per second.
+     */
+    private void sweep(long now) {
+        long last = this.lastSweep.get();
+        if (now - last < SWEEP_INTERVAL || !this.lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+
+        long slice = (now - this.origin) / this.bucketNanos;
+        this.entries.values().removeIf(entry -> entry.lockedUntil.get() <= now && this.count(entry, slice) == 0);
+    }
+
+    private static Object userKey(String username) {
+        return username == null || username.isEmpty() ? null : new UserKey(username.toLowerCase(Locale.ROOT));
+    }
+
+    private static Object addressKey(String remoteAddr) {
+        return remoteAddr == null ? null : new AddressKey(remoteAddr);
+    }
+
+    private static long toSeconds(long nanos) {
+        return nanos <= 0 ? 0 : (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,317 @@
+package net.nitrado.hytale.plugins.webserver.ratelimit;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.permissions.PermissionsModule;
+import net.nitrado.hytale.plugins.webserver.authentication.HytaleUserPrincipal;
+import net.nitrado.hytale.plugins.webserver.config.RateLimitConfig;
+import net.nitrado.hytale.plugins.webserver.metrics.MetricsRegistry;
+
+import java.security.Principal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiter keyed by the UUID of authenticated users, or by client IP for anonymous requests.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again, updated with
+ * one compare-and-set per request (the generic cell rate algorithm). Buckets live in a
+ * {@link ConcurrentHashMap}, so concurrent requests of different clients do not contend on a shared lock.
+ * </p>
+ * <p>
+ * A client's limit is resolved when its bucket is created: a per-principal override, such as one from a
+ * service account provisioning file, takes precedence over the first configured permission group of the
+ * user, which takes precedence over the default limit. Buckets that are full again are considered idle and
+ * are evicted once more clients than configured are tracked.
+ * </p>
+ * <p>
+ * The number of tracked clients is a hard bound: while it is reached and no bucket is idle, new clients share
+ * one overflow bucket per limit, so that a flood of new addresses neither grows the map nor escapes the limit.
+ * </p>
+ * <p>
+ * Decisions are returned as a {@code long} read through {@link Decision}, so that a check allocates nothing
+ * for clients whose bucket exists.
+ * </p>
+ * <p>
+ * <strong>Internal API:</strong> This class is not intended for use by consumer plugins.
+ * </p>
+ */
+public final class RateLimiter {
+
+    /**
+     * Reads the outcome of a rate limit check returned by {@link #acquire}.
+     * <p>
+     * A decision packs whether the request was rejected, the limit, the remaining requests or the seconds after
+     * which a rejected request may be retried, and the seconds until the bucket is full again. Limits and
+     * remaining requests above {@value #MAX_COUNT}, and seconds above {@value #MAX_SECONDS}, are reported as
+     * these maximums.
+     * </p>
+     */
+    public static final class Decision {
+
+        static final int MAX_COUNT = (1 << 24) - 1;
+        static final int MAX_SECONDS = (1 << 15) - 1;
+
+        private Decision() {}
+
+        static long of(boolean allowed, int limit, long remainingOrRetryAfter, long resetSeconds) {
+            return (allowed ? 0 : Long.MIN_VALUE)
+                    | (long) Math.min(limit, MAX_COUNT) << 39
+                    | Math.min(remainingOrRetryAfter, MAX_COUNT) << 15
+                    | Math.min(resetSeconds, MAX_SECONDS);
+        }
+
+        /**
+         * @return whether the request may proceed
+         */
+        public static boolean allowed(long decision) {
+            return decision >= 0;
+        }
+
+        /**
+         * @return the number of requests per period of the client, 0 if the client is not limited
+         */
+        public static int limit(long decision) {
+            return (int) (decision >>> 39) & MAX_COUNT;
+        }
+
+        /**
+         * @return the number of requests the client may still send right away
+         */
+        public static int remaining(long decision) {
+            return allowed(decision) ? (int) (decision >>> 15) & MAX_COUNT : 0;
+        }
+
+        /**
+         * @return the number of seconds until the client's bucket is full again
+         */
+        public static int resetSeconds(long decision) {
+            return (int) decision & MAX_SECONDS;
+        }
+
+        /**
+         * @return the number of seconds after which a rejected request may be retried
+         */
+        public static int retryAfterSeconds(long decision) {
+            return allowed(decision) ? 0 : (int) (decision >>> 15) & MAX_COUNT;
+        }
+    }
+
+    /**
+     * The decision for clients that are not limited.
+     */
+    public static final long UNLIMITED = 0;
+
+    private static final class Bucket {
+        private final int limit;
+        private final long interval;
+        private final long capacity;
+        private final AtomicLong fullAt;
+
+        Bucket(int limit, long periodNanos, long now) {
+            this.limit = limit;
+            this.interval = limit > 0 ? periodNanos / limit : 0;
+            this.capacity = this.interval * limit;
+            this.fullAt = new AtomicLong(now);
+        }
+    }
+
+    private record PrincipalKey(String name) {}
+
+    private static final long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<Object, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<Integer, Bucket> overflowBuckets = new ConcurrentHashMap<>();
+    private final AtomicInteger tracked = new AtomicInteger();
+    private final Map<UUID, Integer> principalLimits = new ConcurrentHashMap<>();
+    private final Map<String, Integer> groupLimits = new LinkedHashMap<>();
+    private final long periodNanos;
+    private final int defaultLimit;
+    private final int anonymousLimit;
+    private final int maxTrackedClients;
+    private final Function<UUID, Set<String>> groupResolver;
+    private final LongSupplier clock;
+    private final AtomicLong lastSweep = new AtomicLong();
+    private final LongAdder rejected = new LongAdder();
+
+    public RateLimiter(HytaleLogger logger, RateLimitConfig config) {
+        this(logger, config, RateLimiter::resolveGroups, System::nanoTime);
+    }
+
+    RateLimiter(HytaleLogger logger, RateLimitConfig config, Function<UUID, Set<String>> groupResolver, LongSupplier clock) {
+        this.periodNanos = TimeUnit.SECONDS.toNanos(Math.max(1, config.getPeriod()));
+        this.defaultLimit = config.getRequests();
+        this.anonymousLimit = config.getAnonymousRequests();
+        this.maxTrackedClients = config.getMaxTrackedClients();
+        this.groupResolver = groupResolver;
+        this.clock = clock;
+
+        for (var entry : config.getGroups()) {
+            var separator = entry.lastIndexOf('=');
+            try {
+                if (separator <= 0) {
+                    throw new NumberFormatException();
+                }
+                this.groupLimits.put(entry.substring(0, separator).trim(), Integer.parseInt(entry.substring(separator + 1).trim()));
+            } catch (NumberFormatException e) {
+                logger.atWarning().log("Ignoring invalid rate limit group entry '%s', expected GROUP=REQUESTS", entry);
+            }
+        }
+    }
+
+    /**
+     * Overrides the limit of a principal, e.g. for a provisioned service account.
+     *
+     * @param uuid     the UUID of the principal
+     * @param requests the number of requests per period, unlimited if not positive
+     */
+    public void setPrincipalLimit(UUID uuid, int requests) {
+        this.principalLimits.put(uuid, requests);
+        this.untrack(uuid);
+    }
+
+    public void removePrincipalLimit(UUID uuid) {
+        this.principalLimits.remove(uuid);
+        this.untrack(uuid);
+    }
+
+    public void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("webserver_ratelimit_tracked_clients", "Clients whose request rate is tracked", this.tracked::get);
+        metrics.counter("webserver_ratelimit_rejected_total", "Requests rejected by the rate limiter", this.rejected::sum);
+    }
+
+    /**
+     * Takes a token from the bucket of the given principal, or of the client IP for anonymous requests.
+     *
+     * @param principal  the authenticated principal, or null or anonymous
+     * @param remoteAddr the IP address of the client
+     * @return the decision, read through {@link Decision}, or {@link #UNLIMITED} if the client is not limited
+     */
+    public long acquire(Principal principal, String remoteAddr) {
+        long now = this.clock.getAsLong();
+
+        var bucket = this.getBucket(principal, remoteAddr, now);
+        if (bucket == null) {
+            return UNLIMITED;
+        }
+
+        while (true) {
+            long fullAt = bucket.fullAt.get();
+            long next = Math.max(fullAt, now) + bucket.interval;
+            long backlog = next - now;
+
+            if (backlog > bucket.capacity) {
+                this.rejected.increment();
+                return Decision.of(false, bucket.limit, toSeconds(backlog - bucket.capacity), toSeconds(fullAt - now));
+            }
+
+            if (bucket.fullAt.compareAndSet(fullAt, next)) {
+                var remaining = (int) ((bucket.capacity - backlog) / bucket.interval);
+                return Decision.of(true, bucket.limit, remaining, toSeconds(backlog));
+            }
+        }
+    }
+
+    private Bucket getBucket(Principal principal, String remoteAddr, long now) {
+        Object key;
+        if (principal instanceof HytaleUserPrincipal user && !user.isAnonymous()) {
+            key = user.getUuid();
+        } else if (principal != null && !(principal instanceof HytaleUserPrincipal) && principal.getName() != null) {
+            key = new PrincipalKey(principal.getName());
+        } else if (remoteAddr != null) {
+            // Addresses are the most frequent keys, so they are used as is
+            key = remoteAddr;
+        } else {
+            return null;
+        }
+
+        var bucket = this.buckets.get(key);
+        if (bucket != null) {
+            return bucket.limit > 0 ? bucket : null;
+        }
+
+        if (this.tracked.get() >= this.maxTrackedClients) {
+            this.sweep(now);
+        }
+
+        int limit = this.resolveLimit(key);
+
+        // Reserves a slot before inserting, so that concurrent new clients cannot exceed the bound
+        if (this.tracked.incrementAndGet() > this.maxTrackedClients) {
+            this.tracked.decrementAndGet();
+            return limit > 0 ? this.overflowBuckets.computeIfAbsent(limit, l -> new Bucket(l, this.periodNanos, now)) : null;
+        }
+
+        bucket = new Bucket(limit, this.periodNanos, now);
+        var existing = this.buckets.putIfAbsent(key, bucket);
+        if (existing != null) {
+            this.tracked.decrementAndGet();
+            bucket = existing;
+        }
+        return bucket.limit > 0 ? bucket : null;
+    }
+
+    private void untrack(Object key) {
+        if (this.buckets.remove(key) != null) {
+            this.tracked.decrementAndGet();
+        }
+    }
+
+    private int resolveLimit(Object key) {
+        if (key instanceof String) {
+            return this.anonymousLimit;
+        }
+        if (!(key instanceof UUID uuid)) {
+            return this.defaultLimit;
+        }
+
+        var override = this.principalLimits.get(uuid);
+        if (override != null) {
+            return override;
+        }
+
+        if (!this.groupLimits.isEmpty()) {
+            var groups = this.groupResolver.apply(uuid);
+            for (var entry : this.groupLimits.entrySet()) {
+                if (groups.contains(entry.getKey())) {
+                    return entry.getValue();
+                }
+            }
+        }
+
+        return this.defaultLimit;
+    }
+
+    /**
+     * Evicts idle buckets, at most once per second.
+     */
+    private void sweep(long now) {
+        long last = this.lastSweep.get();
+        if (now - last < SWEEP_INTERVAL || !this.lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+
+        for (var entry : this.buckets.entrySet()) {
+            if (entry.getValue().fullAt.get() <= now && this.buckets.remove(entry.getKey(), entry.getValue())) {
+                this.tracked.decrementAndGet();
+            }
+        }
+    }
+
+    private static long toSeconds(long nanos) {
+        return nanos <= 0 ? 0 : (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static Set<String> resolveGroups(UUID uuid) {
+        var groups = new HashSet<String>();
+        for (var provider : PermissionsModule.get().getProviders()) {
+            groups.addAll(provider.getGroupsForUser(uuid));
+        }
+        return groups;
+    }
+}
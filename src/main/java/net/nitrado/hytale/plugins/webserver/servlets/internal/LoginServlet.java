@@ -1,14 +1,21 @@
 package net.nitrado.hytale.plugins.webserver.servlets.internal;
 
 import com.hypixel.hytale.logger.HytaleLogger;
+import jakarta.servlet.AsyncContext;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import net.nitrado.hytale.plugins.webserver.WebServerPlugin;
+import net.nitrado.hytale.plugins.webserver.authentication.HytaleUserPrincipal;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.AuthExecutor;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.LoginChallenge;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.SessionAuthProvider;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.SessionCookieCodec;
 import net.nitrado.hytale.plugins.webserver.authentication.store.CredentialValidator;
 import net.nitrado.hytale.plugins.webserver.authentication.store.LoginCodeStore;
 import net.nitrado.hytale.plugins.webserver.authentication.store.UserCredentialStore;
+import net.nitrado.hytale.plugins.webserver.ratelimit.LoginFailureTracker;
 import net.nitrado.hytale.plugins.webserver.servlets.TemplateServlet;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.WebContext;
@@ -24,34 +31,107 @@ public final class LoginServlet extends TemplateServlet {
     private final CredentialValidator credentialValidator;
     private final UserCredentialStore credentialStore;
     private final LoginCodeStore loginCodeStore;
+    private final SessionCookieCodec sessionCookies;
+    private final AuthExecutor authExecutor;
+    private final LoginFailureTracker failureTracker;
+    private final LoginChallenge challenge;
 
     public LoginServlet(WebServerPlugin plugin, HytaleLogger logger, UserCredentialStore credentialStore, CredentialValidator validator, LoginCodeStore loginCodeStore) {
+        this(plugin, logger, credentialStore, validator, loginCodeStore, null, null, null, null);
+    }
+
+    /**
+     * @param sessionCookies the codec for session cookies, or null to use server-side sessions
+     * @param authExecutor   the executor to hash passwords on, or null to hash them on the request thread
+     * @param failureTracker the tracker locking out repeated failed logins, or null to not lock them out
+     * @param challenge      the proof-of-work challenge required while the auth executor is saturated, or null
+     */
+    public LoginServlet(WebServerPlugin plugin, HytaleLogger logger, UserCredentialStore credentialStore, CredentialValidator validator, LoginCodeStore loginCodeStore, SessionCookieCodec sessionCookies, AuthExecutor authExecutor, LoginFailureTracker failureTracker, LoginChallenge challenge) {
         super(plugin);
 
         this.logger = logger;
         this.credentialStore = credentialStore;
         this.loginCodeStore = loginCodeStore;
         this.credentialValidator = validator;
+        this.sessionCookies = sessionCookies;
+        this.authExecutor = authExecutor;
+        this.failureTracker = failureTracker;
+        this.challenge = challenge;
     }
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         resp.setContentType("text/html;charset=utf-8");
-        var session = req.getSession();
 
         var m = new HashMap<String, Object>();
         m.put("CSRF_TOKEN", "abcd");
-        var uuidString = session.getAttribute("uuid");
-        if (uuidString != null) {
-            m.put("UUID", uuidString.toString());
+        var uuid = this.getLoggedInUUID(req);
+        if (uuid != null) {
+            m.put("UUID", uuid.toString());
         }
+        this.addChallenge(m);
 
         this.renderTemplate(req, resp, "nitrado.webserver.login", m);
     }
 
+    @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
-        var session = req.getSession();
+        var loginMethod = req.getParameter("method");
 
+        // Locked out attempts are rejected before any password is hashed
+        if (this.failureTracker != null) {
+            var username = "password".equals(loginMethod) ? req.getParameter("username") : null;
+            long retryAfter = this.failureTracker.retryAfter(username, req.getRemoteAddr());
+            if (retryAfter > 0) {
+                resp.setHeader("Retry-After", Long.toString(retryAfter));
+                this.renderError(req, resp, 429, "Too many failed logins, please try again in " + retryAfter + " seconds.");
+                return;
+            }
+        }
+
+        if (this.authExecutor == null || !("password".equals(loginMethod) || "passwordCreate".equals(loginMethod))) {
+            this.handleLogin(req, resp);
+            return;
+        }
+
+        // While the auth executor is saturated, only logins that solved a challenge get to hash a password
+        if (this.challenge != null && !this.challenge.verify(req.getParameter("challenge"), req.getParameter("nonce"))) {
+            resp.setHeader("Retry-After", "1");
+            this.renderError(req, resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "The server is busy, please log in again.");
+            return;
+        }
+
+        // Hashing the password is slow by design, so it runs on the auth executor rather than the request thread.
+        // The async context answers on the original response: AuthFilter's response wrapper only acts once the
+        // filter chain returns, which is before the login completes, and would otherwise swallow its 401. A failed
+        // password login is therefore answered with a 401 and the login page, instead of a challenge redirect.
+        var async = req.startAsync();
+        async.setTimeout(0);
+        if (!this.authExecutor.execute(() -> this.handleLoginAsync(async))) {
+            try {
+                resp.setHeader("Retry-After", "1");
+                this.renderError(req, resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many logins at the moment, please try again.");
+            } finally {
+                async.complete();
+            }
+        }
+    }
+
+    private void handleLoginAsync(AsyncContext async) {
+        var resp = (HttpServletResponse) async.getResponse();
+        try {
+            this.handleLogin((HttpServletRequest) async.getRequest(), resp);
+        } catch (Exception e) {
+            logger.atSevere().withCause(e).log("Failed to handle login");
+            if (!resp.isCommitted()) {
+                resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        } finally {
+            async.complete();
+        }
+    }
+
+    private void handleLogin(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         var m = new HashMap<String, Object>();
 
         UUID loggedInUUID = null;
@@ -64,6 +144,7 @@ public final class LoginServlet extends TemplateServlet {
                 entry = getStoredEntryByLoginCode(req.getParameter("loginCode"));
                 if (entry == null || entry.uuid() == null) {
                     m.put("ERROR", "Login code invalid or expired.");
+                    this.recordFailure(null, req);
                     break;
                 }
 
@@ -77,9 +158,14 @@ public final class LoginServlet extends TemplateServlet {
                 var loggedInUser = getUuidByPlayerPassword(username, password);
                 if (loggedInUser == null) {
                     m.put("ERROR", "Invalid username or password.");
+                    this.recordFailure(username, req);
                     break;
                 }
 
+                if (this.failureTracker != null) {
+                    this.failureTracker.recordSuccess(username);
+                }
+
                 loggedInUsername = loggedInUser.username();
                 loggedInUUID = loggedInUser.uuid();
                 break;
@@ -88,6 +174,7 @@ public final class LoginServlet extends TemplateServlet {
 
                 if  (entry == null || entry.uuid() == null) {
                     m.put("ERROR", "Login code invalid or expired.");
+                    this.recordFailure(null, req);
                     break;
                 }
 
@@ -105,8 +192,15 @@ public final class LoginServlet extends TemplateServlet {
         }
 
         if (loggedInUUID != null) {
-            session.setAttribute("uuid", loggedInUUID);
-            session.setAttribute("username", loggedInUsername);
+            if (this.sessionCookies != null) {
+                this.sessionCookies.login(resp, loggedInUUID, loggedInUsername);
+            } else {
+                // The session is only created once the user has logged in
+                var session = req.getSession(true);
+                session.setAttribute("uuid", loggedInUUID);
+                session.setAttribute("username", loggedInUsername);
+                session.setAttribute(SessionAuthProvider.PRINCIPAL_ATTRIBUTE, new HytaleUserPrincipal(loggedInUUID, loggedInUsername));
+            }
 
             var redirectTarget = "/";
             var redirectUrlParameter = req.getParameter("redirect_url");
@@ -120,11 +214,45 @@ public final class LoginServlet extends TemplateServlet {
 
         resp.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         m.put("CSRF_TOKEN", "abcd");
+        this.addChallenge(m);
+
 
+        this.renderTemplate(req, resp, "nitrado.webserver.login", m);
+    }
+
+    private void renderError(HttpServletRequest req, HttpServletResponse resp, int status, String error) throws IOException {
+        var m = new HashMap<String, Object>();
+        m.put("ERROR", error);
+        m.put("CSRF_TOKEN", "abcd");
+        this.addChallenge(m);
 
+        resp.setStatus(status);
         this.renderTemplate(req, resp, "nitrado.webserver.login", m);
     }
 
+    private void addChallenge(HashMap<String, Object> m) {
+        var challenge = this.challenge != null ? this.challenge.issue() : null;
+        if (challenge != null) {
+            m.put("CHALLENGE", challenge);
+        }
+    }
+
+    private void recordFailure(String username, HttpServletRequest req) {
+        if (this.failureTracker != null) {
+            this.failureTracker.recordFailure(username, req.getRemoteAddr());
+        }
+    }
+
+    private Object getLoggedInUUID(HttpServletRequest req) {
+        if (this.sessionCookies != null) {
+            var result = this.sessionCookies.decode(req);
+            return result != null ? result.uuid() : null;
+        }
+
+        var session = req.getSession(false);
+        return session != null ? session.getAttribute("uuid") : null;
+    }
+
     private LoginCodeStore.Entry getStoredEntryByLoginCode(String loginCode) {
         return this.loginCodeStore.getEntry(loginCode);
     }
@@ -5,6 +5,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.SessionCookieCodec;
 import net.nitrado.hytale.plugins.webserver.authentication.store.CredentialValidator;
 
 import java.io.IOException;
@@ -13,14 +14,26 @@ public final class LogoutServlet extends HttpServlet {
 
     private HytaleLogger logger;
     private CredentialValidator validator;
+    private SessionCookieCodec sessionCookies;
 
     public LogoutServlet(HytaleLogger logger) {
+        this(logger, null);
+    }
+
+    public LogoutServlet(HytaleLogger logger, SessionCookieCodec sessionCookies) {
         this.logger = logger;
+        this.sessionCookies = sessionCookies;
     }
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        req.getSession().invalidate();
+        var session = req.getSession(false);
+        if (session != null) {
+            session.invalidate();
+        }
+        if (this.sessionCookies != null) {
+            this.sessionCookies.logout(resp);
+        }
         resp.sendRedirect(resp.encodeRedirectURL("/"));
     }
 }
@@ -0,0 +1,40 @@
+package net.nitrado.hytale.plugins.webserver.servlets.internal;
+
+import com.hypixel.hytale.server.core.permissions.PermissionHolder;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.nitrado.hytale.plugins.webserver.Permissions;
+import net.nitrado.hytale.plugins.webserver.authentication.HytaleUserPrincipal;
+import net.nitrado.hytale.plugins.webserver.metrics.MetricsRegistry;
+
+import java.io.IOException;
+
+/**
+ * Exposes the web server's metrics in the Prometheus text exposition format.
+ */
+public final class MetricsServlet extends HttpServlet {
+
+    private final MetricsRegistry metrics;
+
+    public MetricsServlet(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        var user = req.getUserPrincipal();
+
+        if (!(user instanceof PermissionHolder holder) || !holder.hasPermission(Permissions.WEB_METRICS)) {
+            if (user == null || (user instanceof HytaleUserPrincipal principal && principal.isAnonymous())) {
+                resp.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            } else {
+                resp.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            }
+            return;
+        }
+
+        resp.setContentType("text/plain; version=0.0.4; charset=utf-8");
+        this.metrics.writeTo(resp.getWriter());
+    }
+}
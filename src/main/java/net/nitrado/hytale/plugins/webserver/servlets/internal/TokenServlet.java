@@ -0,0 +1,176 @@
+package net.nitrado.hytale.plugins.webserver.servlets.internal;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.AccessTokenService;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.AuthExecutor;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.LoginChallenge;
+import net.nitrado.hytale.plugins.webserver.authentication.store.CredentialValidator;
+import net.nitrado.hytale.plugins.webserver.authentication.store.LoginCodeStore;
+import net.nitrado.hytale.plugins.webserver.ratelimit.LoginFailureTracker;
+import org.bson.Document;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Exchanges a password or login code for a signed access token.
+ * <p>
+ * Accepts the same {@code method}, {@code username}, {@code password} and {@code loginCode} form parameters
+ * as the login form, and responds with a JSON object containing the {@code access_token}.
+ * </p>
+ * <p>
+ * Passwords are checked on the {@link AuthExecutor} like those of the login form, and while it is saturated, a
+ * password grant has to solve a {@link LoginChallenge}. The challenge to solve is returned along with the
+ * {@code 503} response, and sent back in the {@code challenge} and {@code nonce} parameters.
+ * </p>
+ */
+public final class TokenServlet extends HttpServlet {
+
+    private final HytaleLogger logger;
+    private final AccessTokenService tokenService;
+    private final CredentialValidator credentialValidator;
+    private final LoginCodeStore loginCodeStore;
+    private final LoginFailureTracker failureTracker;
+    private final AuthExecutor authExecutor;
+    private final LoginChallenge challenge;
+
+    public TokenServlet(HytaleLogger logger, AccessTokenService tokenService, CredentialValidator credentialValidator, LoginCodeStore loginCodeStore, LoginFailureTracker failureTracker) {
+        this(logger, tokenService, credentialValidator, loginCodeStore, failureTracker, null, null);
+    }
+
+    /**
+     * @param authExecutor the executor to hash passwords on, or null to hash them on the request thread
+     * @param challenge    the proof-of-work challenge required while the auth executor is saturated, or null
+     */
+    public TokenServlet(HytaleLogger logger, AccessTokenService tokenService, CredentialValidator credentialValidator, LoginCodeStore loginCodeStore, LoginFailureTracker failureTracker, AuthExecutor authExecutor, LoginChallenge challenge) {
+        this.logger = logger;
+        this.tokenService = tokenService;
+        this.credentialValidator = credentialValidator;
+        this.loginCodeStore = loginCodeStore;
+        this.failureTracker = failureTracker;
+        this.authExecutor = authExecutor;
+        this.challenge = challenge;
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        var method = req.getParameter("method");
+        var username = "password".equals(method) ? req.getParameter("username") : null;
+
+        // The token endpoint accepts the same credentials as the login form, so it shares its lockouts
+        long retryAfter = this.failureTracker.retryAfter(username, req.getRemoteAddr());
+        if (retryAfter > 0) {
+            resp.setHeader("Retry-After", Long.toString(retryAfter));
+            this.writeError(resp, 429, "too_many_failures");
+            return;
+        }
+
+        if (this.authExecutor == null || !"password".equals(method)) {
+            this.handleToken(req, resp);
+            return;
+        }
+
+        // While the auth executor is saturated, only grants that solved a challenge get to hash a password
+        if (this.challenge != null && !this.challenge.verify(req.getParameter("challenge"), req.getParameter("nonce"))) {
+            var body = new Document("error", "challenge_required");
+            var issued = this.challenge.issue();
+            if (issued != null) {
+                body.append("challenge", issued);
+            }
+            resp.setHeader("Retry-After", "1");
+            this.writeJson(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE, body);
+            return;
+        }
+
+        // Hashing the password is slow by design, so it runs on the auth executor rather than the request thread
+        var async = req.startAsync();
+        async.setTimeout(0);
+        if (!this.authExecutor.execute(() -> this.handleTokenAsync(async))) {
+            try {
+                resp.setHeader("Retry-After", "1");
+                this.writeError(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "server_busy");
+            } finally {
+                async.complete();
+            }
+        }
+    }
+
+    private void handleTokenAsync(AsyncContext async) {
+        var resp = (HttpServletResponse) async.getResponse();
+        try {
+            this.handleToken((HttpServletRequest) async.getRequest(), resp);
+        } catch (Exception e) {
+            this.logger.atSevere().withCause(e).log("Failed to issue an access token");
+            if (!resp.isCommitted()) {
+                resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        } finally {
+            async.complete();
+        }
+    }
+
+    private void handleToken(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        CredentialValidator.ValidationResult user = null;
+
+        var method = req.getParameter("method");
+        var username = "password".equals(method) ? req.getParameter("username") : null;
+
+        if ("code".equals(method)) {
+            var entry = this.loginCodeStore.getEntry(req.getParameter("loginCode"));
+            if (entry != null && entry.uuid() != null) {
+                user = new CredentialValidator.ValidationResult(entry.uuid(), entry.displayName());
+            }
+        } else if ("password".equals(method)) {
+            user = this.validatePassword(username, req.getParameter("password"));
+        } else {
+            this.writeError(resp, HttpServletResponse.SC_BAD_REQUEST, "unsupported_method");
+            return;
+        }
+
+        if (user == null) {
+            this.failureTracker.recordFailure(username, req.getRemoteAddr());
+            this.writeError(resp, HttpServletResponse.SC_UNAUTHORIZED, "invalid_credentials");
+            return;
+        }
+        this.failureTracker.recordSuccess(username);
+
+        var body = new Document("access_token", this.tokenService.issue(user.uuid(), user.username()))
+                .append("token_type", "Bearer")
+                .append("expires_in", this.tokenService.getLifetimeSeconds());
+
+        this.logger.atInfo().log("Issued an access token for %s", user.uuid());
+        this.writeJson(resp, HttpServletResponse.SC_OK, body);
+    }
+
+    private CredentialValidator.ValidationResult validatePassword(String username, String password) {
+        if (username == null || password == null) {
+            return null;
+        }
+
+        UUID uuid = null;
+        try {
+            uuid = UUID.fromString(username);
+        } catch (IllegalArgumentException e) {
+            // ignore
+        }
+
+        return uuid != null
+                ? this.credentialValidator.validateCredential(uuid, password)
+                : this.credentialValidator.validateCredential(username, password);
+    }
+
+    private void writeError(HttpServletResponse resp, int status, String error) throws IOException {
+        this.writeJson(resp, status, new Document("error", error));
+    }
+
+    private void writeJson(HttpServletResponse resp, int status, Document body) throws IOException {
+        resp.setStatus(status);
+        resp.setContentType("application/json;charset=utf-8");
+        resp.setHeader("Cache-Control", "no-store");
+        resp.getWriter().write(body.toJson());
+    }
+}
@@ -61,4 +61,133 @@ document.addEventListener('DOMContentLoaded', () => {
             button.setAttribute('disabled', 'disabled');
         }
     }
+
+    // While the server is busy, password logins must include the solution of a proof-of-work challenge
+    let challenge = document.getElementById('login').dataset.challenge;
+    if (challenge) {
+        document.querySelectorAll('#cardLoginPassword form, #cardLoginPasswordCreate form').forEach((form) => {
+            form.addEventListener('submit', (e) => {
+                if (form.elements['nonce'].value) {
+                    return;
+                }
+
+                e.preventDefault();
+                form.querySelector('.challenge-status').classList.remove('d-none');
+                form.querySelector('button[type=submit]').setAttribute('disabled', 'disabled');
+
+                solveChallenge(challenge).then((nonce) => {
+                    form.elements['challenge'].value = challenge;
+                    form.elements['nonce'].value = nonce;
+                    form.submit();
+                });
+            });
+        });
+    }
+
+    // Finds a nonce for which SHA-256("<challenge>:<nonce>") starts with the difficulty's number of zero bits
+    function solveChallenge(challenge) {
+        let difficulty = parseInt(challenge.split('.')[1], 10);
+        let prefix = new TextEncoder().encode(challenge + ':');
+
+        return new Promise((resolve) => {
+            let nonce = 0;
+
+            function work() {
+                // Yield to the browser regularly, so that the page stays responsive
+                for (let end = nonce + 5000; nonce < end; nonce++) {
+                    let suffix = new TextEncoder().encode(nonce.toString(36));
+                    let input = new Uint8Array(prefix.length + suffix.length);
+                    input.set(prefix);
+                    input.set(suffix, prefix.length);
+
+                    if (leadingZeroBits(sha256(input)) >= difficulty) {
+                        resolve(nonce.toString(36));
+                        return;
+                    }
+                }
+                setTimeout(work, 0);
+            }
+
+            work();
+        });
+    }
+
+    function leadingZeroBits(hash) {
+        let bits = 0;
+        for (let b of hash) {
+            if (b === 0) {
+                bits += 8;
+                continue;
+            }
+            return bits + Math.clz32(b) - 24;
+        }
+        return bits;
+    }
+
+    // Plain SHA-256, as crypto.subtle is unavailable on plain HTTP and too slow when awaited per hash
+    const SHA256_K = [];
+    const SHA256_H = [];
+    (() => {
+        let frac = (x) => ((x - Math.floor(x)) * 4294967296) >>> 0;
+        for (let candidate = 2; SHA256_K.length < 64; candidate++) {
+            let prime = true;
+            for (let divisor = 2; divisor * divisor <= candidate; divisor++) {
+                if (candidate % divisor === 0) {
+                    prime = false;
+                    break;
+                }
+            }
+            if (prime) {
+                if (SHA256_H.length < 8) {
+                    SHA256_H.push(frac(Math.sqrt(candidate)));
+                }
+                SHA256_K.push(frac(Math.cbrt(candidate)));
+            }
+        }
+    })();
+
+    function sha256(bytes) {
+        let length = ((bytes.length + 9 + 63) >> 6) << 6;
+        let padded = new Uint8Array(length);
+        padded.set(bytes);
+        padded[bytes.length] = 0x80;
+        let view = new DataView(padded.buffer);
+        view.setUint32(length - 4, bytes.length * 8);
+
+        let h = SHA256_H.slice();
+        let w = new Uint32Array(64);
+        let rotr = (x, n) => (x >>> n) | (x << (32 - n));
+
+        for (let offset = 0; offset < length; offset += 64) {
+            for (let i = 0; i < 16; i++) {
+                w[i] = view.getUint32(offset + i * 4);
+            }
+            for (let i = 16; i < 64; i++) {
+                let s0 = rotr(w[i - 15], 7) ^ rotr(w[i - 15], 18) ^ (w[i - 15] >>> 3);
+                let s1 = rotr(w[i - 2], 17) ^ rotr(w[i - 2], 19) ^ (w[i - 2] >>> 10);
+                w[i] = (w[i - 16] + s0 + w[i - 7] + s1) >>> 0;
+            }
+
+            let [a, b, c, d, e, f, g, hh] = h;
+            for (let i = 0; i < 64; i++) {
+                let t1 = (hh + (rotr(e, 6) ^ rotr(e, 11) ^ rotr(e, 25)) + ((e & f) ^ (~e & g)) + SHA256_K[i] + w[i]) >>> 0;
+                let t2 = ((rotr(a, 2) ^ rotr(a, 13) ^ rotr(a, 22)) + ((a & b) ^ (a & c) ^ (b & c))) >>> 0;
+                hh = g;
+                g = f;
+                f = e;
+                e = (d + t1) >>> 0;
+                d = c;
+                c = b;
+                b = a;
+                a = (t1 + t2) >>> 0;
+            }
+
+            h = [h[0] + a, h[1] + b, h[2] + c, h[3] + d, h[4] + e, h[5] + f, h[6] + g, h[7] + hh].map((x) => x >>> 0);
+        }
+
+        let out = new Uint8Array(32);
+        let outView = new DataView(out.buffer);
+        h.forEach((x, i) => outView.setUint32(i * 4, x));
+        return out;
+    }
 });
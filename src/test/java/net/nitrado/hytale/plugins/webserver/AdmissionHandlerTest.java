@@ -0,0 +1,161 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import net.nitrado.hytale.plugins.webserver.config.LimitsConfig;
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.Callback;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdmissionHandlerTest {
+
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private Server server;
+    private LocalConnector connector;
+    private AdmissionHandler handler;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.release.countDown();
+        this.server.stop();
+    }
+
+    private static LimitsConfig limits(int global, int queued, int perPlugin, int queuedPerPlugin, int queueTimeout) {
+        var config = mock(LimitsConfig.class);
+        when(config.getMaxConcurrentRequests()).thenReturn(global);
+        when(config.getMaxQueuedRequests()).thenReturn(queued);
+        when(config.getMaxConcurrentRequestsPerPlugin()).thenReturn(perPlugin);
+        when(config.getMaxQueuedRequestsPerPlugin()).thenReturn(queuedPerPlugin);
+        when(config.getQueueTimeout()).thenReturn(queueTimeout);
+        when(config.getRetryAfter()).thenReturn(3);
+        return config;
+    }
+
+    private void start(LimitsConfig config) throws Exception {
+        this.server = new Server();
+        this.connector = new LocalConnector(this.server);
+        this.server.addConnector(this.connector);
+
+        // Requests with a "block" query hold their permits until the test releases them
+        var app = new Handler.Abstract() {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback) throws Exception {
+                if ("block".equals(request.getHttpURI().getQuery())) {
+                    entered.countDown();
+                    assertTrue(release.await(10, TimeUnit.SECONDS));
+                }
+                response.setStatus(200);
+                Content.Sink.write(response, true, "ok", callback);
+                return true;
+            }
+        };
+        this.handler = new AdmissionHandler(config);
+        this.handler.setHandler(app);
+        this.server.setHandler(this.handler);
+        this.server.start();
+    }
+
+    private static String request(String path) {
+        return "GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+    }
+
+    private HttpTester.Response get(String path) throws Exception {
+        return HttpTester.parseResponse(this.connector.getResponse(request(path)));
+    }
+
+    private HttpTester.Response await(LocalConnector.LocalEndPoint endPoint) throws Exception {
+        return HttpTester.parseResponse(endPoint.getResponse(false, 10, TimeUnit.SECONDS));
+    }
+
+    private void awaitQueued(long queued) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (this.handler.getQueuedRequests() != queued) {
+            assertTrue(System.nanoTime() < deadline, "Expected " + queued + " queued requests");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("Requests over the limit are queued, and rejected with a 503 once the queue is full")
+    void queuesThenRejects() throws Exception {
+        this.start(limits(1, 1, -1, 0, 10_000));
+
+        var active = this.connector.executeRequest(request("/a?block"));
+        assertTrue(this.entered.await(10, TimeUnit.SECONDS));
+
+        var queued = this.connector.executeRequest(request("/b"));
+        this.awaitQueued(1);
+
+        var rejected = this.get("/c");
+        assertEquals(503, rejected.getStatus());
+        assertEquals("3", rejected.get("Retry-After"));
+
+        this.release.countDown();
+        assertEquals(200, this.await(active).getStatus());
+        assertEquals(200, this.await(queued).getStatus());
+        assertEquals(0, this.handler.getQueuedRequests());
+    }
+
+    @Test
+    @DisplayName("Queued requests are rejected with a 503 after the queue timeout")
+    void rejectsAfterTimeout() throws Exception {
+        this.start(limits(1, 1, -1, 0, 100));
+
+        var active = this.connector.executeRequest(request("/a?block"));
+        assertTrue(this.entered.await(10, TimeUnit.SECONDS));
+
+        assertEquals(503, this.get("/b").getStatus());
+        assertEquals(0, this.handler.getQueuedRequests());
+
+        this.release.countDown();
+        assertEquals(200, this.await(active).getStatus());
+    }
+
+    @Test
+    @DisplayName("A saturated plugin does not affect the requests of other plugins")
+    void limitsPerPlugin() throws Exception {
+        this.start(limits(-1, 0, 1, 0, 10_000));
+        this.handler.register("/nitrado/a");
+        this.handler.register("/nitrado/b");
+
+        var active = this.connector.executeRequest(request("/nitrado/a/index?block"));
+        assertTrue(this.entered.await(10, TimeUnit.SECONDS));
+
+        assertEquals(503, this.get("/nitrado/a/other").getStatus());
+        assertEquals(200, this.get("/nitrado/b/index").getStatus());
+        assertEquals(200, this.get("/").getStatus());
+
+        this.release.countDown();
+        assertEquals(200, this.await(active).getStatus());
+    }
+
+    @Test
+    @DisplayName("Queued requests are admitted when the limit is raised")
+    void admitsOnReconfigure() throws Exception {
+        this.start(limits(1, 1, -1, 0, 10_000));
+
+        var active = this.connector.executeRequest(request("/a?block"));
+        assertTrue(this.entered.await(10, TimeUnit.SECONDS));
+        var queued = this.connector.executeRequest(request("/b"));
+        this.awaitQueued(1);
+
+        this.handler.reconfigure(limits(2, 1, -1, 0, 10_000));
+        assertEquals(200, this.await(queued).getStatus());
+
+        this.release.countDown();
+        assertEquals(200, this.await(active).getStatus());
+    }
+}
@@ -0,0 +1,117 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.nitrado.hytale.plugins.webserver.metrics.MetricsRegistry;
+import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
+import org.eclipse.jetty.ee10.servlet.ServletHolder;
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedSessionCacheTest {
+
+    private Server server;
+    private LocalConnector connector;
+    private BoundedSessionCache cache;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.server = new Server();
+        this.connector = new LocalConnector(this.server);
+        this.server.addConnector(this.connector);
+
+        var context = new ServletContextHandler(ServletContextHandler.SESSIONS);
+        context.setContextPath("/");
+        this.cache = new BoundedSessionCache(context.getSessionHandler(), 2);
+        context.getSessionHandler().setSessionCache(this.cache);
+        this.cache.registerMetrics(this.metrics);
+
+        context.addServlet(new ServletHolder(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                req.getSession(true).setAttribute("name", req.getParameter("name"));
+            }
+        }), "/login");
+        context.addServlet(new ServletHolder(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                var session = req.getSession(false);
+                resp.getWriter().write(session == null ? "anonymous" : (String) session.getAttribute("name"));
+            }
+        }), "/whoami");
+
+        this.server.setHandler(context);
+        this.server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.server.stop();
+    }
+
+    private String login(String name) throws Exception {
+        var response = HttpTester.parseResponse(this.connector.getResponse(
+                "GET /login?name=" + name + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"));
+        var cookie = response.get("Set-Cookie");
+        assertNotNull(cookie);
+        // Sessions are told apart by their last access, which has a resolution of one millisecond
+        Thread.sleep(5);
+        return cookie.substring(0, cookie.indexOf(';'));
+    }
+
+    private String whoami(String cookie) throws Exception {
+        return HttpTester.parseResponse(this.connector.getResponse(
+                "GET /whoami HTTP/1.1\r\nHost: localhost\r\nCookie: " + cookie + "\r\nConnection: close\r\n\r\n")).getContent();
+    }
+
+    private String metrics() throws IOException {
+        var writer = new StringWriter();
+        this.metrics.writeTo(writer);
+        return writer.toString();
+    }
+
+    @Test
+    @DisplayName("The least recently used session is invalidated once the limit is exceeded")
+    void evictsLeastRecentlyUsed() throws Exception {
+        var alex = this.login("alex");
+        var steve = this.login("steve");
+
+        // Using the first session makes the second one the least recently used
+        assertEquals("alex", this.whoami(alex));
+        Thread.sleep(5);
+        var jesse = this.login("jesse");
+
+        assertEquals("alex", this.whoami(alex));
+        assertEquals("anonymous", this.whoami(steve));
+        assertEquals("jesse", this.whoami(jesse));
+
+        var metrics = this.metrics();
+        assertTrue(metrics.contains("webserver_sessions 2\n"), metrics);
+        assertTrue(metrics.contains("webserver_sessions_evicted_total 1\n"), metrics);
+    }
+
+    @Test
+    @DisplayName("Lowering the limit evicts sessions right away")
+    void evictsOnLowerLimit() throws Exception {
+        var alex = this.login("alex");
+        var steve = this.login("steve");
+
+        this.cache.setMaxSessions(1);
+
+        assertEquals("anonymous", this.whoami(alex));
+        assertEquals("steve", this.whoami(steve));
+        assertTrue(this.metrics().contains("webserver_sessions 1\n"));
+    }
+}
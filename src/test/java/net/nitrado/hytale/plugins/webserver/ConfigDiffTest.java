@@ -0,0 +1,53 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import net.nitrado.hytale.plugins.webserver.config.CompressionConfig;
+import net.nitrado.hytale.plugins.webserver.config.ConnectorConfig;
+import net.nitrado.hytale.plugins.webserver.config.PerformanceConfig;
+import net.nitrado.hytale.plugins.webserver.config.TlsConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigDiffTest {
+
+    // The configuration classes can only be populated by their codecs, so the tests set their fields directly
+    static <T> T with(T config, String field, Object value) throws ReflectiveOperationException {
+        var declared = config.getClass().getDeclaredField(field);
+        declared.setAccessible(true);
+        declared.set(config, value);
+        return config;
+    }
+
+    @Test
+    @DisplayName("Separately loaded but equal configurations are unchanged")
+    void equalConfigurations() {
+        assertFalse(ConfigDiff.changed(new PerformanceConfig(), new PerformanceConfig()));
+        // Distinct array instances with equal content
+        assertFalse(ConfigDiff.changed(new CompressionConfig(), new CompressionConfig()));
+        assertFalse(ConfigDiff.changed(new TlsConfig(), new TlsConfig()));
+        assertFalse(ConfigDiff.changed(null, null));
+    }
+
+    @Test
+    @DisplayName("A single changed field is detected")
+    void changedField() throws Exception {
+        assertTrue(ConfigDiff.changed(new PerformanceConfig(), with(new PerformanceConfig(), "maxThreads", 50)));
+        assertTrue(ConfigDiff.changed(new PerformanceConfig(), with(new PerformanceConfig(), "bufferPoolMaxHeapMemory", 1024L)));
+        assertTrue(ConfigDiff.changed(new CompressionConfig(), with(new CompressionConfig(), "encodings", new String[]{"gzip"})));
+        assertTrue(ConfigDiff.changed(new PerformanceConfig(), null));
+    }
+
+    @Test
+    @DisplayName("Changes in nested configuration objects and arrays of them are detected")
+    void changedNested() throws Exception {
+        var tls = new TlsConfig();
+        with(tls.getClientAuth(), "enabled", true);
+        assertTrue(ConfigDiff.changed(new TlsConfig(), tls));
+
+        var connectors = new ConnectorConfig[]{new ConnectorConfig()};
+        assertFalse(ConfigDiff.changed(connectors, new ConnectorConfig[]{new ConnectorConfig()}));
+        assertTrue(ConfigDiff.changed(connectors, new ConnectorConfig[0]));
+        assertTrue(ConfigDiff.changed(connectors, new ConnectorConfig[]{with(new ConnectorConfig(), "paths", new String[]{"/metrics"})}));
+    }
+}
@@ -0,0 +1,93 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.Callback;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectorPathHandlerTest {
+
+    private Server server;
+    private LocalConnector publicConnector;
+    private LocalConnector internalConnector;
+    private ConnectorPathHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        this.server = new Server();
+        this.publicConnector = new LocalConnector(this.server);
+        this.internalConnector = new LocalConnector(this.server);
+        this.server.addConnector(this.publicConnector);
+        this.server.addConnector(this.internalConnector);
+
+        var app = new Handler.Abstract() {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback) {
+                response.setStatus(200);
+                Content.Sink.write(response, true, "app", callback);
+                return true;
+            }
+        };
+        this.handler = new ConnectorPathHandler(app);
+        this.server.setHandler(this.handler);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.server.stop();
+    }
+
+    private static int get(LocalConnector connector, String path) throws Exception {
+        return HttpTester.parseResponse(connector.getResponse(
+                "GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")).getStatus();
+    }
+
+    @Test
+    @DisplayName("Exclusive paths are only served by their own connector")
+    void exclusivePaths() throws Exception {
+        this.handler.restrict(this.internalConnector, new String[]{"/metrics", "/health/"}, true);
+        this.server.start();
+
+        assertEquals(200, get(this.internalConnector, "/metrics"));
+        assertEquals(200, get(this.internalConnector, "/health/live"));
+        assertEquals(404, get(this.internalConnector, "/nitrado/map"));
+
+        assertEquals(404, get(this.publicConnector, "/metrics"));
+        assertEquals(404, get(this.publicConnector, "/health/live"));
+        assertEquals(200, get(this.publicConnector, "/metricsdashboard"));
+        assertEquals(200, get(this.publicConnector, "/nitrado/map"));
+    }
+
+    @Test
+    @DisplayName("Shared paths are served by both connectors")
+    void sharedPaths() throws Exception {
+        this.handler.restrict(this.internalConnector, new String[]{"/metrics"}, false);
+        this.server.start();
+
+        assertEquals(200, get(this.internalConnector, "/metrics"));
+        assertEquals(404, get(this.internalConnector, "/nitrado/map"));
+        assertEquals(200, get(this.publicConnector, "/metrics"));
+    }
+
+    @Test
+    @DisplayName("Removing a connector's restrictions serves its paths everywhere again")
+    void unrestrict() throws Exception {
+        this.handler.restrict(this.internalConnector, new String[]{"/metrics"}, true);
+        this.server.start();
+        assertEquals(404, get(this.publicConnector, "/metrics"));
+
+        this.handler.unrestrict(this.internalConnector);
+        assertEquals(200, get(this.publicConnector, "/metrics"));
+        assertEquals(200, get(this.internalConnector, "/nitrado/map"));
+    }
+}
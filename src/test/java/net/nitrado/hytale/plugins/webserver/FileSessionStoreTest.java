@@ -0,0 +1,150 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.nitrado.hytale.plugins.webserver.authentication.HytaleUserPrincipal;
+import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
+import org.eclipse.jetty.ee10.servlet.ServletHolder;
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.*;
+
+class FileSessionStoreTest {
+
+    private record Unknown(String value) implements Serializable {}
+
+    @TempDir
+    Path dir;
+
+    private Server server;
+    private LocalConnector connector;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.server.stop();
+    }
+
+    private void start() throws Exception {
+        this.server = new Server();
+        this.connector = new LocalConnector(this.server);
+        this.server.addConnector(this.connector);
+
+        // Set up like the web server's session handler
+        var context = new ServletContextHandler(ServletContextHandler.SESSIONS);
+        context.setContextPath("/");
+        var cache = new BoundedSessionCache(context.getSessionHandler(), 100);
+        cache.setSessionDataStore(new FileSessionStore(this.dir.resolve("sessions.dat"), 60_000,
+                mock(HytaleLogger.class, RETURNS_DEEP_STUBS)));
+        cache.setRemoveUnloadableSessions(true);
+        context.getSessionHandler().setSessionCache(cache);
+
+        context.addServlet(new ServletHolder(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                var session = req.getSession(true);
+                var name = req.getParameter("name");
+                session.setAttribute("principal", new HytaleUserPrincipal(UUID.nameUUIDFromBytes(name.getBytes()), name));
+                session.setAttribute("logins", 1);
+                if (req.getParameter("unknown") != null) {
+                    session.setAttribute("unknown", new Unknown(req.getParameter("unknown")));
+                }
+                if (req.getParameter("list") != null) {
+                    // Part of the JDK, but not one of the types the web server stores in sessions
+                    session.setAttribute("list", new ArrayList<>(List.of(req.getParameter("list"))));
+                }
+            }
+        }), "/login");
+        context.addServlet(new ServletHolder(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                var session = req.getSession(false);
+                if (session == null) {
+                    resp.getWriter().write("anonymous");
+                    return;
+                }
+                var principal = (HytaleUserPrincipal) session.getAttribute("principal");
+                resp.getWriter().write(principal.getName() + " " + principal.getUuid() + " " + session.getAttribute("logins"));
+            }
+        }), "/whoami");
+
+        this.server.setHandler(context);
+        this.server.start();
+    }
+
+    private void restart() throws Exception {
+        this.server.stop();
+        this.start();
+    }
+
+    private String login(String query) throws Exception {
+        var response = HttpTester.parseResponse(this.connector.getResponse(
+                "GET /login?" + query + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"));
+        var cookie = response.get("Set-Cookie");
+        return cookie.substring(0, cookie.indexOf(';'));
+    }
+
+    private String whoami(String cookie) throws Exception {
+        return HttpTester.parseResponse(this.connector.getResponse(
+                "GET /whoami HTTP/1.1\r\nHost: localhost\r\nCookie: " + cookie + "\r\nConnection: close\r\n\r\n")).getContent();
+    }
+
+    @Test
+    @DisplayName("Sessions are written when the server stops and restored after a restart")
+    void restoresAfterRestart() throws Exception {
+        this.start();
+        var cookie = this.login("name=steve");
+        var expected = "steve " + UUID.nameUUIDFromBytes("steve".getBytes()) + " 1";
+        assertEquals(expected, this.whoami(cookie));
+
+        this.restart();
+        assertEquals(expected, this.whoami(cookie));
+    }
+
+    @Test
+    @DisplayName("Sessions with attributes of other types, even JDK ones, are dropped when loading")
+    void dropsUnknownAttributes() throws Exception {
+        this.start();
+        var known = this.login("name=steve");
+        var unknown = this.login("name=alex&unknown=value");
+        var list = this.login("name=jesse&list=value");
+
+        this.restart();
+        assertEquals("anonymous", this.whoami(unknown));
+        assertEquals("anonymous", this.whoami(list));
+        assertTrue(this.whoami(known).startsWith("steve "));
+    }
+
+    @Test
+    @DisplayName("The session file is only readable by its owner, even if a crash left a temporary file behind")
+    void ownerOnly() throws Exception {
+        Files.writeString(this.dir.resolve("sessions.dat.tmp"), "partial");
+        this.start();
+        this.login("name=steve");
+        this.restart();
+
+        var file = this.dir.resolve("sessions.dat");
+        assertTrue(Files.exists(file));
+        assertFalse(Files.exists(this.dir.resolve("sessions.dat.tmp")));
+        assumeTrue(Files.getFileStore(file).supportsFileAttributeView("posix"));
+        assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(file));
+    }
+}
@@ -0,0 +1,105 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import net.nitrado.hytale.plugins.webserver.cert.SelfSignedCertificateProvider;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http3.client.HTTP3Client;
+import org.eclipse.jetty.http3.client.transport.HttpClientTransportOverHTTP3;
+import org.eclipse.jetty.http3.server.HTTP3ServerConnectionFactory;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.quic.client.ClientQuicConfiguration;
+import org.eclipse.jetty.quic.quiche.client.QuicheTransport;
+import org.eclipse.jetty.quic.quiche.server.QuicheServerConnector;
+import org.eclipse.jetty.quic.server.ServerQuicConfiguration;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.abort;
+
+class Http3LoopbackTest {
+
+    @TempDir
+    Path pemWorkDir;
+
+    private Server server;
+    private HttpClient client;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (this.client != null) {
+            this.client.stop();
+        }
+        if (this.server != null) {
+            this.server.stop();
+        }
+    }
+
+    private QuicheServerConnector startServer() throws Exception {
+        // The same key material the web server passes to its HTTP/3 connector
+        var certificateProvider = new SelfSignedCertificateProvider("localhost");
+        var ssl = new SslContextFactory.Server();
+        ssl.setSslContext(certificateProvider.createSSLContext());
+        var keyStorePassword = new String(certificateProvider.getKeyStorePassword());
+        ssl.setKeyStore(certificateProvider.getKeyStore());
+        ssl.setKeyStorePassword(keyStorePassword);
+        ssl.setKeyManagerPassword(keyStorePassword);
+
+        this.server = new Server();
+        var quicConfig = new ServerQuicConfiguration(ssl, this.pemWorkDir);
+        var connector = new QuicheServerConnector(this.server, quicConfig,
+                new HTTP3ServerConnectionFactory(quicConfig, new HttpConfiguration()));
+        connector.setHost("127.0.0.1");
+        connector.setPort(0);
+        this.server.addConnector(connector);
+
+        this.server.setHandler(new Handler.Abstract() {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback) {
+                response.setStatus(200);
+                Content.Sink.write(response, true, request.getConnectionMetaData().getHttpVersion().asString(), callback);
+                return true;
+            }
+        });
+
+        try {
+            this.server.start();
+        } catch (UnsatisfiedLinkError | IllegalStateException e) {
+            // Jetty only ships the native quiche library for some platforms
+            abort("The quiche native library is not available on this platform: " + e);
+        }
+        return connector;
+    }
+
+    @Test
+    @DisplayName("Requests are answered over HTTP/3")
+    void answersOverHttp3() throws Exception {
+        var connector = this.startServer();
+
+        var quicConfig = new ClientQuicConfiguration(new SslContextFactory.Client(true), null);
+        this.client = new HttpClient(new HttpClientTransportOverHTTP3(new HTTP3Client(quicConfig)));
+        this.client.start();
+
+        var response = this.client.newRequest("127.0.0.1", connector.getLocalPort())
+                .scheme("https")
+                .transport(new QuicheTransport(quicConfig))
+                .timeout(10, TimeUnit.SECONDS)
+                .send();
+
+        assertEquals(200, response.getStatus());
+        assertEquals(HttpVersion.HTTP_3, response.getVersion());
+        assertEquals("HTTP/3.0", response.getContentAsString());
+    }
+}
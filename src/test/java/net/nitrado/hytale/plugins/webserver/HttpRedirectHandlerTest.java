@@ -0,0 +1,99 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.Callback;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpRedirectHandlerTest {
+
+    private Server server;
+    private LocalConnector redirectConnector;
+    private LocalConnector appConnector;
+    private HttpRedirectHandler handler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.server = new Server();
+        this.redirectConnector = new LocalConnector(this.server);
+        this.appConnector = new LocalConnector(this.server);
+        this.server.addConnector(this.redirectConnector);
+        this.server.addConnector(this.appConnector);
+
+        var app = new Handler.Abstract() {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback) {
+                response.setStatus(200);
+                Content.Sink.write(response, true, "app", callback);
+                return true;
+            }
+        };
+        this.handler = new HttpRedirectHandler(app, this.redirectConnector, 8443);
+        this.server.setHandler(this.handler);
+        this.server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.server.stop();
+    }
+
+    private static HttpTester.Response get(LocalConnector connector, String path) throws Exception {
+        return HttpTester.parseResponse(connector.getResponse(
+                "GET " + path + " HTTP/1.1\r\nHost: example.com\r\nConnection: close\r\n\r\n"));
+    }
+
+    @Test
+    @DisplayName("Challenges added to the live map during issuance are served")
+    void servesPendingChallenge() throws Exception {
+        Map<String, String> pending = new ConcurrentHashMap<>();
+        this.handler.setPendingChallenges(pending);
+
+        assertEquals(404, get(this.redirectConnector, "/.well-known/acme-challenge/token").getStatus());
+
+        // The certificate provider adds the token only once the order has been created
+        pending.put("token", "token.thumbprint");
+        var response = get(this.redirectConnector, "/.well-known/acme-challenge/token");
+        assertEquals(200, response.getStatus());
+        assertEquals("token.thumbprint", response.getContent());
+
+        pending.remove("token");
+        assertEquals(404, get(this.redirectConnector, "/.well-known/acme-challenge/token").getStatus());
+    }
+
+    @Test
+    @DisplayName("Other requests on the redirect connector are redirected to HTTPS")
+    void redirectsToHttps() throws Exception {
+        var response = get(this.redirectConnector, "/map/index.html?zoom=2");
+        assertEquals(301, response.getStatus());
+        assertEquals("https://example.com:8443/map/index.html?zoom=2", response.get("Location"));
+    }
+
+    @Test
+    @DisplayName("Requests on other connectors are passed on")
+    void passesOtherConnectors() throws Exception {
+        var response = get(this.appConnector, "/.well-known/acme-challenge/token");
+        assertEquals(200, response.getStatus());
+        assertEquals("app", response.getContent());
+    }
+
+    @Test
+    @DisplayName("All requests are passed on without a redirect connector")
+    void passesWithoutConnector() throws Exception {
+        this.handler.setConnector(null, 443);
+        assertEquals("app", get(this.redirectConnector, "/").getContent());
+    }
+}
@@ -0,0 +1,126 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import net.nitrado.hytale.plugins.webserver.config.CompressionConfig;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.Callback;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PluginCompressionHandlerTest {
+
+    private static final String BODY = "The quick brown fox jumps over the lazy dog. ".repeat(100);
+
+    private Server server;
+    private LocalConnector connector;
+    private PluginCompressionHandler handler;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.server.stop();
+    }
+
+    private void start() throws Exception {
+        // Only gzip, as the other encodings depend on native libraries
+        var config = spy(new CompressionConfig());
+        when(config.getEncodings()).thenReturn(new String[]{"gzip"});
+
+        this.server = new Server();
+        this.connector = new LocalConnector(this.server);
+        this.server.addConnector(this.connector);
+
+        // Echoes request bodies, and answers other requests with a compressible body
+        var app = new Handler.Abstract() {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback) throws Exception {
+                var body = "POST".equals(request.getMethod()) ? Content.Source.asString(request) : BODY;
+                response.getHeaders().put(HttpHeader.CONTENT_TYPE, "text/plain;charset=utf-8");
+                Content.Sink.write(response, true, body, callback);
+                return true;
+            }
+        };
+        this.handler = new PluginCompressionHandler(config);
+        this.handler.setHandler(app);
+        this.server.setHandler(this.handler);
+        this.server.start();
+    }
+
+    private HttpTester.Response get(String path) throws Exception {
+        return HttpTester.parseResponse(this.connector.getResponse("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n"
+                + "Accept-Encoding: gzip\r\nConnection: close\r\n\r\n"));
+    }
+
+    private static byte[] gzip(String text) throws Exception {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String gunzip(byte[] bytes) throws Exception {
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @DisplayName("Responses are compressed for clients that accept it")
+    void compressesResponses() throws Exception {
+        this.start();
+
+        var response = this.get("/nitrado/map/tiles");
+        assertEquals(200, response.getStatus());
+        assertEquals("gzip", response.get(HttpHeader.CONTENT_ENCODING));
+        assertTrue(response.getContentBytes().length < BODY.length());
+        assertEquals(BODY, gunzip(response.getContentBytes()));
+    }
+
+    @Test
+    @DisplayName("Plugins that opted out receive their responses uncompressed")
+    void skipsExcludedPlugins() throws Exception {
+        this.start();
+        this.handler.excludePathPrefix("/nitrado/events");
+
+        var response = this.get("/nitrado/events/stream");
+        assertNull(response.get(HttpHeader.CONTENT_ENCODING));
+        assertEquals(BODY, response.getContent());
+        assertEquals("gzip", this.get("/nitrado/eventsource").get(HttpHeader.CONTENT_ENCODING));
+
+        this.handler.includePathPrefix("/nitrado/events");
+        assertEquals("gzip", this.get("/nitrado/events/stream").get(HttpHeader.CONTENT_ENCODING));
+    }
+
+    @Test
+    @DisplayName("Compressed request bodies are inflated before they reach the plugin")
+    void inflatesRequests() throws Exception {
+        this.start();
+
+        var body = gzip(BODY);
+        var head = ("POST /nitrado/map/upload HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/plain;charset=utf-8\r\n"
+                + "Content-Encoding: gzip\r\nContent-Length: " + body.length + "\r\nConnection: close\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        var request = ByteBuffer.allocate(head.length + body.length).put(head).put(body).flip();
+
+        var response = HttpTester.parseResponse(this.connector.getResponse(request));
+        assertEquals(200, response.getStatus());
+        assertEquals(BODY, response.getContent());
+    }
+}
@@ -0,0 +1,165 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.Callback;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PluginRequestTrackerTest {
+
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicBoolean drained = new AtomicBoolean();
+    private final AtomicInteger handledAfterDrain = new AtomicInteger();
+    private Server server;
+    private LocalConnector connector;
+    private PluginRequestTracker tracker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.server = new Server();
+        this.connector = new LocalConnector(this.server);
+        this.server.addConnector(this.connector);
+
+        // Requests with a "block" query are held until the test releases them
+        var app = new Handler.Abstract() {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback) throws Exception {
+                if (drained.get()) {
+                    handledAfterDrain.incrementAndGet();
+                }
+                if ("block".equals(request.getHttpURI().getQuery())) {
+                    entered.countDown();
+                    assertTrue(release.await(10, TimeUnit.SECONDS));
+                }
+                response.setStatus(200);
+                Content.Sink.write(response, true, "ok", callback);
+                return true;
+            }
+        };
+        this.tracker = new PluginRequestTracker();
+        this.tracker.setHandler(app);
+        this.tracker.register("/nitrado/a");
+        this.tracker.register("/nitrado/b");
+        this.server.setHandler(this.tracker);
+        this.server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.release.countDown();
+        this.server.stop();
+    }
+
+    private static String request(String path) {
+        return "GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+    }
+
+    private int get(String path) throws Exception {
+        return HttpTester.parseResponse(this.connector.getResponse(request(path))).getStatus();
+    }
+
+    @Test
+    @DisplayName("Draining a plugin waits for its requests and rejects new ones with a 503")
+    void drainsPlugin() throws Exception {
+        var active = this.connector.executeRequest(request("/nitrado/a/index?block"));
+        assertTrue(this.entered.await(10, TimeUnit.SECONDS));
+        assertEquals(1, this.tracker.getActiveRequests("/nitrado/a"));
+
+        var drain = CompletableFuture.supplyAsync(() -> {
+            try {
+                return this.tracker.drain("/nitrado/a", 10_000);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // The drain flag is set right away, but the request in flight keeps the drain waiting
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (this.get("/nitrado/a/other") != 503) {
+            assertTrue(System.nanoTime() < deadline, "Expected requests to be rejected while draining");
+            Thread.sleep(10);
+        }
+        assertFalse(drain.isDone());
+        assertEquals(200, this.get("/nitrado/b/index"));
+        assertEquals(200, this.get("/"));
+
+        this.release.countDown();
+        assertEquals(200, HttpTester.parseResponse(active.getResponse(false, 10, TimeUnit.SECONDS)).getStatus());
+        assertTrue(drain.get(10, TimeUnit.SECONDS));
+        assertEquals(0, this.tracker.getActiveRequests("/nitrado/a"));
+    }
+
+    @Test
+    @DisplayName("A drain gives up after its timeout while requests are still in flight")
+    void drainTimesOut() throws Exception {
+        var active = this.connector.executeRequest(request("/nitrado/a/index?block"));
+        assertTrue(this.entered.await(10, TimeUnit.SECONDS));
+
+        assertFalse(this.tracker.drain("/nitrado/a", 50));
+        assertFalse(this.tracker.awaitIdle(50));
+
+        this.release.countDown();
+        assertEquals(200, HttpTester.parseResponse(active.getResponse(false, 10, TimeUnit.SECONDS)).getStatus());
+        assertTrue(this.tracker.awaitIdle(10_000));
+    }
+
+    @Test
+    @DisplayName("No request reaches a plugin after its drain completed, even if admitted concurrently")
+    void concurrentAdmission() throws Exception {
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var stop = new AtomicBoolean();
+            var responses = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(() -> {
+                    int rejected = 0;
+                    while (!stop.get()) {
+                        int status = this.get("/nitrado/a/index");
+                        assertTrue(status == 200 || status == 503, "Unexpected status " + status);
+                        if (status == 503) {
+                            rejected++;
+                        }
+                    }
+                    return rejected;
+                }));
+            }
+
+            Thread.sleep(50);
+            assertTrue(this.tracker.drain("/nitrado/a", 10_000));
+            this.drained.set(true);
+            Thread.sleep(50);
+            stop.set(true);
+
+            int rejected = 0;
+            for (var response : responses) {
+                rejected += response.get(10, TimeUnit.SECONDS);
+            }
+            assertTrue(rejected > 0);
+            assertEquals(0, this.handledAfterDrain.get());
+            assertEquals(0, this.tracker.getActiveRequests("/nitrado/a"));
+            assertTrue(this.tracker.awaitIdle(10_000));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReloadableHandlerTest {
+
+    private Server server;
+    private LocalConnector connector;
+    private ReloadableHandler handler;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        // Never leave a holder behind for other tests
+        ServerHolder.take("");
+        this.server.stop();
+    }
+
+    private void start(long pendingTimeout) throws Exception {
+        this.server = new Server(new QueuedThreadPool());
+        this.connector = new LocalConnector(this.server);
+        this.server.addConnector(this.connector);
+
+        this.handler = new ReloadableHandler(pendingTimeout);
+        this.handler.setHandler(this.app("old"));
+        this.server.setHandler(this.handler);
+        this.server.start();
+    }
+
+    private Handler app(String body) {
+        return new Handler.Abstract() {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback) {
+                response.setStatus(200);
+                Content.Sink.write(response, true, body, callback);
+                return true;
+            }
+        };
+    }
+
+    // Started like the handlers of a new plugin instance, before they are attached
+    private Handler startedApp(String body) throws Exception {
+        var app = this.app(body);
+        app.setServer(this.server);
+        app.start();
+        return app;
+    }
+
+    private static String request(String path) {
+        return "GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+    }
+
+    private HttpTester.Response get(String path) throws Exception {
+        return HttpTester.parseResponse(this.connector.getResponse(request(path)));
+    }
+
+    private static HttpTester.Response await(LocalConnector.LocalEndPoint endPoint) throws Exception {
+        return HttpTester.parseResponse(endPoint.getResponse(false, 10, TimeUnit.SECONDS));
+    }
+
+    private void awaitPending(int pending) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (this.handler.getPendingRequests() != pending) {
+            assertTrue(System.nanoTime() < deadline, "Expected " + pending + " parked requests");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("Requests arriving while detached are parked and served by the next attached handler")
+    void servesParkedWithNewHandler() throws Exception {
+        this.start(10_000);
+        assertEquals("old", this.get("/").getContent());
+
+        this.handler.detach();
+        var parked = this.connector.executeRequest(request("/"));
+        this.awaitPending(1);
+
+        this.handler.attach(this.startedApp("new"));
+        var response = await(parked);
+        assertEquals(200, response.getStatus());
+        assertEquals("new", response.getContent());
+        assertEquals(0, this.handler.getPendingRequests());
+        assertEquals("new", this.get("/").getContent());
+    }
+
+    @Test
+    @DisplayName("Parked requests are rejected with a 503 once the pending timeout has passed")
+    void rejectsAfterTimeout() throws Exception {
+        this.start(100);
+        this.handler.detach();
+
+        var response = this.get("/");
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.get("Retry-After"));
+        assertEquals(0, this.handler.getPendingRequests());
+    }
+
+    @Test
+    @DisplayName("Requests beyond the park limit are rejected right away, the parked ones are served on reattach")
+    void rejectsBeyondLimit() throws Exception {
+        this.start(30_000);
+        this.handler.detach();
+
+        var parked = new ArrayList<LocalConnector.LocalEndPoint>();
+        for (int i = 0; i < 1024; i++) {
+            parked.add(this.connector.executeRequest(request("/" + i)));
+        }
+        this.awaitPending(1024);
+
+        var rejected = this.get("/over");
+        assertEquals(503, rejected.getStatus());
+        assertEquals(1024, this.handler.getPendingRequests());
+
+        this.handler.attach(this.startedApp("new"));
+        for (var endPoint : parked) {
+            assertEquals("new", await(endPoint).getContent());
+        }
+        assertEquals(0, this.handler.getPendingRequests());
+    }
+
+    @Test
+    @DisplayName("A server retained across a reload is taken over only with the same configuration")
+    void retainsServerAcrossReload() throws Exception {
+        this.start(10_000);
+        var holder = new ServerHolder("config", this.server, (QueuedThreadPool) this.server.getThreadPool(), this.handler,
+                null, null, mock(HytaleLogger.class, RETURNS_DEEP_STUBS));
+
+        // The old plugin instance detaches its handlers and retains the server
+        this.handler.detach();
+        ServerHolder.retain(holder);
+        var parked = this.connector.executeRequest(request("/"));
+        this.awaitPending(1);
+
+        // The new plugin instance takes it over and attaches its own handlers
+        var taken = ServerHolder.take("config");
+        assertSame(holder, taken);
+        taken.getReloadableHandler().attach(this.startedApp("new"));
+        assertEquals("new", await(parked).getContent());
+        assertTrue(this.server.isRunning());
+
+        // A changed configuration stops the retained server, releasing its ports
+        ServerHolder.retain(holder);
+        assertNull(ServerHolder.take("changed"));
+        assertTrue(this.server.isStopped());
+    }
+}
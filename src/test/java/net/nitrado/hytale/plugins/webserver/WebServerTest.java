@@ -0,0 +1,86 @@
+package net.nitrado.hytale.plugins.webserver;
+
+import net.nitrado.hytale.plugins.webserver.config.AccessTokenConfig;
+import net.nitrado.hytale.plugins.webserver.config.CompressionConfig;
+import net.nitrado.hytale.plugins.webserver.config.LoginConfig;
+import net.nitrado.hytale.plugins.webserver.config.PerformanceConfig;
+import net.nitrado.hytale.plugins.webserver.config.RateLimitConfig;
+import net.nitrado.hytale.plugins.webserver.config.SessionConfig;
+import net.nitrado.hytale.plugins.webserver.config.TlsConfig;
+import net.nitrado.hytale.plugins.webserver.config.WebServerConfig;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.nitrado.hytale.plugins.webserver.ConfigDiffTest.with;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WebServerTest {
+
+    // WebServerConfig derives its default bind address from the server's command line, so it is mocked around
+    // real section objects
+    private static WebServerConfig config(CompressionConfig compression, PerformanceConfig performance) {
+        var config = mock(WebServerConfig.class);
+        when(config.getCompression()).thenReturn(compression);
+        when(config.getPerformance()).thenReturn(performance);
+        when(config.getRateLimit()).thenReturn(new RateLimitConfig());
+        when(config.getAccessTokens()).thenReturn(new AccessTokenConfig());
+        when(config.getLogin()).thenReturn(new LoginConfig());
+        when(config.getTls()).thenReturn(new TlsConfig());
+        when(config.getSessions()).thenReturn(new SessionConfig());
+        return config;
+    }
+
+    private static List<String> reloadOnlyChanges(WebServerConfig oldConfig, WebServerConfig newConfig) {
+        var changes = new ArrayList<String>();
+        WebServer.addReloadOnlyChanges(oldConfig, newConfig, changes);
+        return changes;
+    }
+
+    @Test
+    @DisplayName("The thread pool can be grown and shrunk past its current bounds")
+    void resizesThreadPool() throws Exception {
+        var threadPool = new QueuedThreadPool(16, 8);
+        threadPool.start();
+        try {
+            // Raising the minimum above the current maximum requires raising the maximum first
+            WebServer.resizeThreadPool(threadPool, 32, 64);
+            assertEquals(32, threadPool.getMinThreads());
+            assertEquals(64, threadPool.getMaxThreads());
+
+            // Lowering the maximum below the current minimum requires lowering the minimum first
+            WebServer.resizeThreadPool(threadPool, 2, 4);
+            assertEquals(2, threadPool.getMinThreads());
+            assertEquals(4, threadPool.getMaxThreads());
+        } finally {
+            threadPool.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Changed compression settings are reported as taking effect on the next reload")
+    void reportsReloadOnlyChanges() throws Exception {
+        var oldConfig = config(new CompressionConfig(), new PerformanceConfig());
+        assertEquals(List.of(), reloadOnlyChanges(oldConfig, config(new CompressionConfig(), new PerformanceConfig())));
+
+        var newConfig = config(with(new CompressionConfig(), "minSize", 4096), new PerformanceConfig());
+        assertEquals(List.of("Compression settings take effect when the plugin is reloaded"), reloadOnlyChanges(oldConfig, newConfig));
+    }
+
+    @Test
+    @DisplayName("Only settings of the server itself require it to be replaced")
+    void detectsRestartRequired() throws Exception {
+        var oldConfig = config(new CompressionConfig(), new PerformanceConfig());
+
+        assertFalse(WebServer.requiresRestart(oldConfig, config(new CompressionConfig(), with(new PerformanceConfig(), "maxThreads", 50))));
+        assertTrue(WebServer.requiresRestart(oldConfig, config(new CompressionConfig(), with(new PerformanceConfig(), "queueSize", 100))));
+
+        var virtualThreads = config(new CompressionConfig(), new PerformanceConfig());
+        when(virtualThreads.isVirtualThreads()).thenReturn(true);
+        assertTrue(WebServer.requiresRestart(oldConfig, virtualThreads));
+    }
+}
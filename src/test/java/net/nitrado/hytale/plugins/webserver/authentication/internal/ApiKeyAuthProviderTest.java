@@ -0,0 +1,95 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import jakarta.servlet.http.HttpServletRequest;
+import net.nitrado.hytale.plugins.webserver.authentication.AuthProvider;
+import net.nitrado.hytale.plugins.webserver.authentication.HytaleUserPrincipal;
+import net.nitrado.hytale.plugins.webserver.authentication.store.ApiKeyStore;
+import net.nitrado.hytale.plugins.webserver.authentication.store.InvalidCredentialException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ApiKeyAuthProviderTest {
+
+    private static final String SECRET = "s3cr3t";
+
+    private final ApiKeyStore store = new ApiKeyStore();
+    private final ApiKeyAuthProvider provider = new ApiKeyAuthProvider(this.store);
+    private final UUID uuid = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.store.setKey("backup", this.uuid, "serviceaccount.backup", ApiKeyStore.hashSecret("backup", SECRET));
+    }
+
+    private AuthProvider.AuthResult authenticate(String authorization) {
+        var req = mock(HttpServletRequest.class);
+        when(req.getHeader("Authorization")).thenReturn(authorization);
+        return this.provider.authenticate(req, null);
+    }
+
+    @Test
+    @DisplayName("A valid API key authenticates its service account")
+    void authenticatesValidKey() {
+        var result = this.authenticate("Bearer backup." + SECRET);
+        assertEquals(AuthProvider.AuthResultType.SUCCESS, result.type());
+        assertEquals(this.uuid, ((HytaleUserPrincipal) result.principal()).getUuid());
+        assertEquals("serviceaccount.backup", result.principal().getName());
+    }
+
+    @Test
+    @DisplayName("Wrong secrets, unknown key ids and empty parts fail authentication")
+    void rejectsInvalidKeys() {
+        assertEquals(AuthProvider.AuthResultType.FAILURE, this.authenticate("Bearer backup.wrong").type());
+        assertEquals(AuthProvider.AuthResultType.FAILURE, this.authenticate("Bearer unknown." + SECRET).type());
+        assertEquals(AuthProvider.AuthResultType.FAILURE, this.authenticate("Bearer ." + SECRET).type());
+        assertEquals(AuthProvider.AuthResultType.FAILURE, this.authenticate("Bearer backup.").type());
+    }
+
+    @Test
+    @DisplayName("Credentials that are not API keys are left to other providers")
+    void leavesOtherCredentialsToOthers() {
+        assertEquals(AuthProvider.AuthResultType.NONE, this.authenticate(null).type());
+        assertEquals(AuthProvider.AuthResultType.NONE, this.authenticate("Basic YWxleDpzZWNyZXQ=").type());
+        assertEquals(AuthProvider.AuthResultType.NONE, this.authenticate("Bearer backup").type());
+        // Access tokens consist of three dot-separated parts
+        assertEquals(AuthProvider.AuthResultType.NONE, this.authenticate("Bearer a.b.c").type());
+    }
+
+    @Test
+    @DisplayName("Removing the keys of a service account revokes them")
+    void removeKeysRevokes() throws Exception {
+        var other = UUID.randomUUID();
+        this.store.setKey("other", other, "serviceaccount.other", ApiKeyStore.hashSecret("other", SECRET));
+
+        this.store.removeKeys(this.uuid);
+        assertEquals(AuthProvider.AuthResultType.FAILURE, this.authenticate("Bearer backup." + SECRET).type());
+        assertEquals(AuthProvider.AuthResultType.SUCCESS, this.authenticate("Bearer other." + SECRET).type());
+    }
+
+    @Test
+    @DisplayName("Secret hashes match the openssl recipe from the README")
+    void hashMatchesOpenssl() {
+        // printf '%s' "s3cr3t" | openssl dgst -sha256 -hmac "backup"
+        assertEquals("ad2bd75562e683a73064c442dbbdb4205a21bbd939d2aec19dca8914a0ed624c",
+                ApiKeyStore.hashSecret("backup", SECRET));
+        // RFC 4231, test case 2
+        assertEquals("5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843",
+                ApiKeyStore.hashSecret("Jefe", "what do ya want for nothing?"));
+    }
+
+    @Test
+    @DisplayName("Malformed key ids and hashes are rejected when provisioning")
+    void rejectsMalformed() {
+        var hash = ApiKeyStore.hashSecret("backup", SECRET);
+        assertThrows(InvalidCredentialException.class, () -> this.store.setKey("", this.uuid, "serviceaccount.backup", hash));
+        assertThrows(InvalidCredentialException.class, () -> this.store.setKey("a.b", this.uuid, "serviceaccount.backup", hash));
+        assertThrows(InvalidCredentialException.class, () -> this.store.setKey("backup", this.uuid, "serviceaccount.backup", "xyz"));
+        assertThrows(InvalidCredentialException.class, () -> this.store.setKey("backup", this.uuid, "serviceaccount.backup", "abcd"));
+    }
+}
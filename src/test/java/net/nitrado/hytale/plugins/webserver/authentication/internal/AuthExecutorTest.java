@@ -0,0 +1,67 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import net.nitrado.hytale.plugins.webserver.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthExecutorTest {
+
+    private final AuthExecutor executor = new AuthExecutor(1, 2);
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        this.release.countDown();
+        this.executor.shutdown();
+    }
+
+    private Runnable blocking() {
+        return () -> {
+            this.entered.countDown();
+            try {
+                this.release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Tasks are rejected once the queue is full, and accepted again once it drains")
+    void rejectsWhenFull() throws Exception {
+        var metrics = new MetricsRegistry();
+        this.executor.registerMetrics(metrics);
+
+        assertTrue(this.executor.execute(this.blocking()));
+        assertTrue(this.entered.await(10, TimeUnit.SECONDS));
+
+        var ran = new CountDownLatch(2);
+        assertTrue(this.executor.execute(ran::countDown));
+        assertTrue(this.executor.execute(ran::countDown));
+        assertEquals(2, this.executor.getQueueDepth());
+        assertFalse(this.executor.execute(ran::countDown));
+
+        var writer = new StringWriter();
+        metrics.writeTo(writer);
+        assertTrue(writer.toString().contains("webserver_auth_queue_depth 2\n"), writer.toString());
+        assertTrue(writer.toString().contains("webserver_auth_rejected_total 1\n"), writer.toString());
+
+        this.release.countDown();
+        assertTrue(ran.await(10, TimeUnit.SECONDS));
+        assertTrue(this.executor.execute(() -> {}));
+    }
+
+    @Test
+    @DisplayName("The queue holds at least one task")
+    void minimumQueueSize() {
+        assertEquals(1, new AuthExecutor(1, 0).getQueueSize());
+    }
+}
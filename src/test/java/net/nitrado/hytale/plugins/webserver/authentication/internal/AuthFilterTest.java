@@ -0,0 +1,122 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import net.nitrado.hytale.plugins.webserver.authentication.AuthProvider;
+import net.nitrado.hytale.plugins.webserver.authentication.HytaleUserPrincipal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.*;
+
+class AuthFilterTest {
+
+    @TempDir
+    Path keyDir;
+
+    private static Principal captureUser(FilterChain chain, int times) throws Exception {
+        var captor = ArgumentCaptor.forClass(HttpServletRequest.class);
+        verify(chain, times(times)).doFilter(captor.capture(), any());
+        return captor.getValue().getUserPrincipal();
+    }
+
+    @Test
+    @DisplayName("Anonymous requests share a single principal")
+    void anonymousPrincipalShared() throws Exception {
+        AuthProvider provider = (req, res) -> AuthProvider.AuthResult.NONE;
+        var filter = new AuthFilter(provider);
+        var chain = mock(FilterChain.class);
+
+        Set<Principal> principals = new HashSet<>();
+        for (int i = 1; i <= 3; i++) {
+            filter.doFilter(mock(HttpServletRequest.class), mock(HttpServletResponse.class), chain);
+            principals.add(captureUser(chain, i));
+        }
+
+        assertEquals(1, principals.size());
+        assertSame(HytaleUserPrincipal.getAnonymous(), principals.iterator().next());
+    }
+
+    @Test
+    @DisplayName("A filter without providers passes the response through unwrapped")
+    void providerlessFilterPassesThrough() throws Exception {
+        var filter = new AuthFilter();
+        var chain = mock(FilterChain.class);
+        var res = mock(HttpServletResponse.class);
+
+        filter.doFilter(mock(HttpServletRequest.class), res, chain);
+
+        verify(chain).doFilter(any(), same(res));
+        assertSame(HytaleUserPrincipal.getAnonymous(), captureUser(chain, 1));
+    }
+
+    @Test
+    @DisplayName("Sessions reuse their cached principal")
+    void sessionPrincipalCached() {
+        var principal = new HytaleUserPrincipal(UUID.randomUUID(), "steve");
+        var session = mock(HttpSession.class);
+        when(session.getAttribute(SessionAuthProvider.PRINCIPAL_ATTRIBUTE)).thenReturn(principal);
+        var req = mock(HttpServletRequest.class);
+        when(req.getSession(false)).thenReturn(session);
+
+        var provider = new SessionAuthProvider(null);
+        assertSame(principal, provider.authenticate(req, null).principal());
+        assertSame(principal, provider.authenticate(req, null).principal());
+        verify(session, never()).getAttribute("uuid");
+    }
+
+    @Test
+    @DisplayName("Requests with a session cookie allocate no more than the request wrapper")
+    void cookieRequestAllocations() throws Exception {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        var codec = new SessionCookieCodec(keyDir, 86400, 3600, false, mock(HytaleLogger.class, RETURNS_DEEP_STUBS));
+        var loginResponse = mock(HttpServletResponse.class);
+        codec.login(loginResponse, UUID.randomUUID(), "steve");
+        var cookie = ArgumentCaptor.forClass(Cookie.class);
+        verify(loginResponse).addCookie(cookie.capture());
+        var cookies = new Cookie[]{cookie.getValue()};
+
+        var req = new HttpServletRequestWrapper(mock(HttpServletRequest.class)) {
+            @Override
+            public Cookie[] getCookies() {
+                return cookies;
+            }
+        };
+        var res = mock(HttpServletResponse.class);
+        FilterChain chain = (request, response) -> {};
+        var filter = new AuthFilter(new SessionAuthProvider(null, codec));
+
+        // Warms up the JIT as well as the caches
+        int iterations = 20_000;
+        for (int i = 0; i < iterations; i++) {
+            filter.doFilter(req, res, chain);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            filter.doFilter(req, res, chain);
+        }
+        long perRequest = (threads.getCurrentThreadAllocatedBytes() - before) / iterations;
+
+        // Decrypting the cookie alone allocates kilobytes, the request wrapper takes 24 bytes
+        assertTrue(perRequest <= 64, "Allocated " + perRequest + " bytes per request");
+    }
+}
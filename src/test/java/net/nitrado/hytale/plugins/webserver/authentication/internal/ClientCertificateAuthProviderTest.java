@@ -0,0 +1,91 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import jakarta.servlet.http.HttpServletRequest;
+import net.nitrado.hytale.plugins.webserver.authentication.AuthProvider;
+import net.nitrado.hytale.plugins.webserver.authentication.HytaleUserPrincipal;
+import net.nitrado.hytale.plugins.webserver.authentication.store.ClientCertificateStore;
+import net.nitrado.hytale.plugins.webserver.authentication.store.InvalidCredentialException;
+import net.nitrado.hytale.plugins.webserver.cert.SelfSignedCertificateProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.security.MessageDigest;
+import java.security.cert.X509Certificate;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ClientCertificateAuthProviderTest {
+
+    private static X509Certificate certificate;
+
+    private final ClientCertificateStore store = new ClientCertificateStore();
+    private final UUID uuid = UUID.randomUUID();
+
+    @BeforeAll
+    static void createCertificate() throws Exception {
+        var provider = new SelfSignedCertificateProvider("backup");
+        provider.createSSLContext();
+        certificate = (X509Certificate) provider.getKeyStore().getCertificate("selfsigned");
+    }
+
+    private static HttpServletRequest request(X509Certificate... chain) {
+        var req = mock(HttpServletRequest.class);
+        when(req.getAttribute("jakarta.servlet.request.X509Certificate")).thenReturn(chain.length == 0 ? null : chain);
+        return req;
+    }
+
+    private static String fingerprint() throws Exception {
+        // Fingerprints are often copied from tools that print them colon-separated in upper case
+        return HexFormat.ofDelimiter(":").withUpperCase()
+                .formatHex(MessageDigest.getInstance("SHA-256").digest(certificate.getEncoded()));
+    }
+
+    @Test
+    @DisplayName("Certificates are matched by fingerprint and share their result between requests")
+    void matchesFingerprint() throws Exception {
+        this.store.addFingerprint(fingerprint(), this.uuid, "serviceaccount.backup");
+        var provider = new ClientCertificateAuthProvider(this.store, false);
+
+        var result = provider.authenticate(request(certificate), null);
+        assertEquals(AuthProvider.AuthResultType.SUCCESS, result.type());
+        assertEquals(this.uuid, ((HytaleUserPrincipal) result.principal()).getUuid());
+        assertEquals("serviceaccount.backup", result.principal().getName());
+        assertSame(result, provider.authenticate(request(certificate), null));
+    }
+
+    @Test
+    @DisplayName("Subjects are only matched if client certificates are validated against a trusted CA")
+    void matchesSubjectOnlyIfTrusted() throws Exception {
+        this.store.addSubject("CN=backup", this.uuid, "serviceaccount.backup");
+
+        assertEquals(AuthProvider.AuthResultType.NONE,
+                new ClientCertificateAuthProvider(this.store, false).authenticate(request(certificate), null).type());
+        assertEquals(AuthProvider.AuthResultType.SUCCESS,
+                new ClientCertificateAuthProvider(this.store, true).authenticate(request(certificate), null).type());
+    }
+
+    @Test
+    @DisplayName("Requests without a mapped certificate are left to other providers")
+    void leavesUnmappedToOthers() throws Exception {
+        var provider = new ClientCertificateAuthProvider(this.store, true);
+        assertEquals(AuthProvider.AuthResultType.NONE, provider.authenticate(request(), null).type());
+        assertEquals(AuthProvider.AuthResultType.NONE, provider.authenticate(request(certificate), null).type());
+
+        this.store.addFingerprint(fingerprint(), this.uuid, "serviceaccount.backup");
+        this.store.addSubject("CN=backup", this.uuid, "serviceaccount.backup");
+        this.store.removeCertificates(this.uuid);
+        assertEquals(AuthProvider.AuthResultType.NONE, provider.authenticate(request(certificate), null).type());
+    }
+
+    @Test
+    @DisplayName("Malformed fingerprints and subjects are rejected when provisioning")
+    void rejectsMalformed() {
+        assertThrows(InvalidCredentialException.class, () -> this.store.addFingerprint("abc", this.uuid, "serviceaccount.backup"));
+        assertThrows(InvalidCredentialException.class, () -> this.store.addFingerprint("z".repeat(64), this.uuid, "serviceaccount.backup"));
+        assertThrows(InvalidCredentialException.class, () -> this.store.addSubject("not a name", this.uuid, "serviceaccount.backup"));
+    }
+}
@@ -0,0 +1,34 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class KeyFilesTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Keys are only readable by the owner and leave no temporary file behind")
+    void writesOwnerOnly() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+        var file = this.dir.resolve("keys/test.key");
+        KeyFiles.write(file, "secret");
+
+        assertEquals("secret", Files.readString(file));
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+        try (var files = Files.list(file.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+}
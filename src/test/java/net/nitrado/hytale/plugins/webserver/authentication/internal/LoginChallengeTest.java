@@ -0,0 +1,114 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoginChallengeTest {
+
+    private AuthExecutor executor;
+    private Clock clock;
+    private LoginChallenge challenge;
+
+    @BeforeEach
+    void setUp() {
+        this.executor = mock(AuthExecutor.class);
+        when(this.executor.getQueueSize()).thenReturn(10);
+        this.clock = mock(Clock.class);
+        when(this.clock.instant()).thenReturn(Instant.ofEpochSecond(1000));
+        this.challenge = new LoginChallenge(this.executor, 4, 8, this.clock);
+    }
+
+    private static String solve(String challenge) {
+        for (int nonce = 0; ; nonce++) {
+            if (LoginChallenge.leadingZeroBits(challenge + ":" + nonce) >= 8) {
+                return Integer.toString(nonce);
+            }
+        }
+    }
+
+    private static String wrongNonce(String challenge) {
+        for (int nonce = 0; ; nonce++) {
+            if (LoginChallenge.leadingZeroBits(challenge + ":" + nonce) == 0) {
+                return Integer.toString(nonce);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("No challenge is required while at most half of the queue is in use")
+    void notRequiredWhenIdle() {
+        when(this.executor.getQueueDepth()).thenReturn(4);
+
+        assertEquals(0, this.challenge.getDifficulty());
+        assertNull(this.challenge.issue());
+        assertTrue(this.challenge.verify(null, null));
+    }
+
+    @Test
+    @DisplayName("The difficulty grows from the minimum to the maximum as the queue fills up")
+    void difficultyGrows() {
+        when(this.executor.getQueueDepth()).thenReturn(5);
+        assertEquals(4, this.challenge.getDifficulty());
+
+        when(this.executor.getQueueDepth()).thenReturn(10);
+        assertEquals(8, this.challenge.getDifficulty());
+    }
+
+    @Test
+    @DisplayName("A solved challenge is accepted once")
+    void acceptsSolutionOnce() {
+        when(this.executor.getQueueDepth()).thenReturn(10);
+        var issued = this.challenge.issue();
+        var nonce = solve(issued);
+
+        assertFalse(this.challenge.verify(issued, wrongNonce(issued)));
+        assertFalse(this.challenge.verify(null, null));
+        assertTrue(this.challenge.verify(issued, nonce));
+        assertFalse(this.challenge.verify(issued, nonce));
+    }
+
+    @Test
+    @DisplayName("Challenges with a forged difficulty or signature are rejected")
+    void rejectsForged() {
+        when(this.executor.getQueueDepth()).thenReturn(10);
+        var parts = this.challenge.issue().split("\\.");
+
+        var forged = parts[0] + ".0." + parts[2] + "." + parts[3];
+        assertFalse(this.challenge.verify(forged, solve(forged)));
+
+        var unsigned = parts[0] + "." + parts[1] + "." + parts[2] + ".signature";
+        assertFalse(this.challenge.verify(unsigned, solve(unsigned)));
+    }
+
+    @Test
+    @DisplayName("Challenges issued at a lower difficulty are rejected once the load rises")
+    void rejectsStockpiled() {
+        when(this.executor.getQueueDepth()).thenReturn(5);
+        var cheap = this.challenge.issue();
+        var nonce = solve(cheap);
+
+        when(this.executor.getQueueDepth()).thenReturn(10);
+        assertFalse(this.challenge.verify(cheap, nonce));
+
+        when(this.executor.getQueueDepth()).thenReturn(5);
+        assertTrue(this.challenge.verify(cheap, nonce));
+    }
+
+    @Test
+    @DisplayName("Expired challenges are rejected")
+    void rejectsExpired() {
+        when(this.executor.getQueueDepth()).thenReturn(10);
+        var issued = this.challenge.issue();
+        var nonce = solve(issued);
+
+        when(this.clock.instant()).thenReturn(Instant.ofEpochSecond(1120));
+        assertFalse(this.challenge.verify(issued, nonce));
+    }
+}
@@ -0,0 +1,125 @@
+package net.nitrado.hytale.plugins.webserver.authentication.internal;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SessionCookieCodecTest {
+
+    private static final class MutableClock extends Clock {
+        long millis = System.currentTimeMillis();
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(this.millis);
+        }
+
+        @Override
+        public long millis() {
+            return this.millis;
+        }
+    }
+
+    @TempDir
+    Path keyDir;
+
+    private final MutableClock clock = new MutableClock();
+
+    private SessionCookieCodec createCodec(long rotationSeconds, long maxAgeSeconds) {
+        return new SessionCookieCodec(this.keyDir, rotationSeconds, maxAgeSeconds, true,
+                mock(HytaleLogger.class, RETURNS_DEEP_STUBS), this.clock);
+    }
+
+    private static String login(SessionCookieCodec codec, UUID uuid) {
+        var res = mock(HttpServletResponse.class);
+        codec.login(res, uuid, "steve");
+        var cookie = ArgumentCaptor.forClass(Cookie.class);
+        verify(res).addCookie(cookie.capture());
+        return cookie.getValue().getValue();
+    }
+
+    @Test
+    @DisplayName("A cookie decodes to the logged-in user, also on another server sharing the keys")
+    void roundTrip() {
+        var uuid = UUID.randomUUID();
+        var value = login(createCodec(3600, 3600), uuid);
+
+        var result = createCodec(3600, 3600).decode(value);
+        assertNotNull(result);
+        assertEquals(uuid, result.uuid());
+        assertEquals("steve", result.username());
+    }
+
+    @Test
+    @DisplayName("Tampered or truncated cookies are rejected")
+    void rejectsTampered() {
+        var codec = createCodec(3600, 3600);
+        var value = login(codec, UUID.randomUUID());
+
+        int dot = value.indexOf('.');
+        var chars = value.toCharArray();
+        chars[dot + 20] = chars[dot + 20] == 'A' ? 'B' : 'A';
+        assertNull(codec.decode(new String(chars)));
+        assertNull(codec.decode(value.substring(0, value.length() - 4)));
+        assertNull(codec.decode("unknown" + value.substring(dot)));
+        assertNull(codec.decode("garbage"));
+    }
+
+    @Test
+    @DisplayName("Cookies are rejected once they expire, even if they were decoded before")
+    void rejectsExpired() {
+        var codec = createCodec(86400, 60);
+        var value = login(codec, UUID.randomUUID());
+        assertNotNull(codec.decode(value));
+
+        this.clock.millis += 61_000;
+        assertNull(codec.decode(value));
+    }
+
+    @Test
+    @DisplayName("A new key is generated after the rotation interval, and old keys are deleted once unused")
+    void rotatesKeys() throws Exception {
+        var codec = createCodec(60, 3600);
+        var first = login(codec, UUID.randomUUID());
+
+        this.clock.millis += 61_000;
+        var second = login(codec, UUID.randomUUID());
+
+        assertNotEquals(first.substring(0, first.indexOf('.')), second.substring(0, second.indexOf('.')));
+        assertNotNull(codec.decode(first));
+        assertNotNull(codec.decode(second));
+        try (var files = Files.list(this.keyDir)) {
+            assertEquals(2, files.count());
+        }
+
+        // The first key can no longer have valid cookies once the rotation interval and a login have passed
+        this.clock.millis += 3600_000;
+        login(codec, UUID.randomUUID());
+        assertFalse(Files.exists(this.keyDir.resolve(first.substring(0, first.indexOf('.')) + ".key")));
+    }
+}
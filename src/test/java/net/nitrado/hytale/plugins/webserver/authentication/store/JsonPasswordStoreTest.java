@@ -0,0 +1,66 @@
+package net.nitrado.hytale.plugins.webserver.authentication.store;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+class JsonPasswordStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private JsonPasswordStore createStore(int cost) {
+        return new JsonPasswordStore(dir.resolve("users.json"), mock(HytaleLogger.class, RETURNS_DEEP_STUBS),
+                new VerifiedCredentialCache(), cost);
+    }
+
+    @Test
+    @DisplayName("The cost is read from a BCrypt hash")
+    void parsesCost() {
+        assertEquals(10, JsonPasswordStore.getCost("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy"));
+        assertEquals(4, JsonPasswordStore.getCost("$2b$04$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy"));
+        assertEquals(-1, JsonPasswordStore.getCost("plain"));
+    }
+
+    @Test
+    @DisplayName("A hash of a different cost is replaced on successful login")
+    void rehashesOnLogin() throws Exception {
+        var store = createStore(4);
+        var uuid = UUID.randomUUID();
+        store.setUserCredential(uuid, "steve", "password");
+        assertTrue(Files.readString(dir.resolve("users.json")).contains("$04$"));
+
+        store.setCost(5);
+        assertNull(store.validateCredential(uuid, "wrong"));
+        assertTrue(Files.readString(dir.resolve("users.json")).contains("$04$"));
+
+        assertNotNull(store.validateCredential(uuid, "password"));
+        assertTrue(Files.readString(dir.resolve("users.json")).contains("$05$"));
+
+        var reloaded = createStore(5);
+        reloaded.load();
+        assertNotNull(reloaded.validateCredential("steve", "password"));
+    }
+
+    @Test
+    @DisplayName("Hashes are kept as imported if rehashing is disabled")
+    void keepsImportedHash() throws Exception {
+        var store = createStore(4);
+        var uuid = UUID.randomUUID();
+        store.setUserCredential(uuid, "serviceaccount.example", "password");
+
+        store.setCost(5);
+        store.setRehash(false);
+        assertNotNull(store.validateCredential(uuid, "password"));
+        assertTrue(Files.readString(dir.resolve("users.json")).contains("$04$"));
+    }
+}
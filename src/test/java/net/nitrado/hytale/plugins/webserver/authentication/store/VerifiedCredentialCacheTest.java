@@ -0,0 +1,64 @@
+package net.nitrado.hytale.plugins.webserver.authentication.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedCredentialCacheTest {
+
+    private long now = 0;
+
+    private VerifiedCredentialCache createCache(int maxEntries) {
+        return new VerifiedCredentialCache(1000, maxEntries, () -> now);
+    }
+
+    @Test
+    @DisplayName("Only the verified secret matches, and only against the same stored hash")
+    void matchesVerifiedSecret() {
+        var cache = createCache(10);
+        var uuid = UUID.randomUUID();
+
+        assertFalse(cache.isVerified(uuid, "secret", "hash"));
+
+        cache.put(uuid, "secret", "hash");
+        assertTrue(cache.isVerified(uuid, "secret", "hash"));
+        assertFalse(cache.isVerified(uuid, "other", "hash"));
+        assertFalse(cache.isVerified(uuid, "secret", "new-hash"));
+        assertFalse(cache.isVerified(UUID.randomUUID(), "secret", "hash"));
+    }
+
+    @Test
+    @DisplayName("Entries expire after the TTL and can be invalidated")
+    void expiresAndInvalidates() {
+        var cache = createCache(10);
+        var uuid = UUID.randomUUID();
+
+        cache.put(uuid, "secret", "hash");
+        now += TimeUnit.MILLISECONDS.toNanos(1001);
+        assertFalse(cache.isVerified(uuid, "secret", "hash"));
+
+        cache.put(uuid, "secret", "hash");
+        cache.invalidate(uuid);
+        assertFalse(cache.isVerified(uuid, "secret", "hash"));
+    }
+
+    @Test
+    @DisplayName("The number of entries is bounded")
+    void bounded() {
+        var cache = createCache(2);
+        var first = UUID.randomUUID();
+
+        cache.put(first, "secret", "hash");
+        now += 1;
+        cache.put(UUID.randomUUID(), "secret", "hash");
+        now += 1;
+        cache.put(UUID.randomUUID(), "secret", "hash");
+
+        assertEquals(2, cache.size());
+        assertFalse(cache.isVerified(first, "secret", "hash"));
+    }
+}
@@ -0,0 +1,92 @@
+package net.nitrado.hytale.plugins.webserver.ratelimit;
+
+import net.nitrado.hytale.plugins.webserver.config.LoginConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginFailureTrackerTest {
+
+    private long now = 0;
+
+    private LoginFailureTracker createTracker() {
+        // Defaults: 5 failures per username, 20 per address within 900 seconds, locked out for 30 seconds
+        return new LoginFailureTracker(new LoginConfig(), () -> now);
+    }
+
+    private void advanceSeconds(long seconds) {
+        now += TimeUnit.SECONDS.toNanos(seconds);
+    }
+
+    @Test
+    @DisplayName("A username is locked out after too many failures")
+    void usernameLockedOut() {
+        var tracker = createTracker();
+
+        for (int i = 0; i < 4; i++) {
+            tracker.recordFailure("Steve", "10.0.0.1");
+        }
+        assertEquals(0, tracker.retryAfter("steve", "10.0.0.2"));
+
+        tracker.recordFailure("Steve", "10.0.0.1");
+        assertEquals(30, tracker.retryAfter("steve", "10.0.0.2"));
+        assertEquals(0, tracker.retryAfter("alex", "10.0.0.2"));
+
+        advanceSeconds(30);
+        assertEquals(0, tracker.retryAfter("steve", "10.0.0.2"));
+    }
+
+    @Test
+    @DisplayName("Repeated lockouts double in duration")
+    void exponentialBackoff() {
+        var tracker = createTracker();
+
+        for (int i = 0; i < 5; i++) {
+            tracker.recordFailure("steve", null);
+        }
+        assertEquals(30, tracker.retryAfter("steve", null));
+
+        advanceSeconds(30);
+        tracker.recordFailure("steve", null);
+        assertEquals(60, tracker.retryAfter("steve", null));
+
+        advanceSeconds(60);
+        tracker.recordFailure("steve", null);
+        assertEquals(120, tracker.retryAfter("steve", null));
+    }
+
+    @Test
+    @DisplayName("Failures outside the window are forgotten")
+    void failuresExpire() {
+        var tracker = createTracker();
+
+        for (int i = 0; i < 4; i++) {
+            tracker.recordFailure("steve", null);
+        }
+
+        advanceSeconds(1000);
+        tracker.recordFailure("steve", null);
+        assertEquals(0, tracker.retryAfter("steve", null));
+    }
+
+    @Test
+    @DisplayName("A successful login resets the username but not the address")
+    void successResetsUsername() {
+        var tracker = createTracker();
+
+        for (int i = 0; i < 4; i++) {
+            tracker.recordFailure("steve", "10.0.0.1");
+        }
+        tracker.recordSuccess("steve");
+        tracker.recordFailure("steve", "10.0.0.1");
+        assertEquals(0, tracker.retryAfter("steve", null));
+
+        for (int i = 0; i < 15; i++) {
+            tracker.recordFailure("user" + i, "10.0.0.1");
+        }
+        assertTrue(tracker.retryAfter(null, "10.0.0.1") > 0);
+    }
+}
@@ -0,0 +1,107 @@
+package net.nitrado.hytale.plugins.webserver.ratelimit;
+
+import net.nitrado.hytale.plugins.webserver.authentication.HytaleUserPrincipal;
+import net.nitrado.hytale.plugins.webserver.config.RateLimitConfig;
+import net.nitrado.hytale.plugins.webserver.ratelimit.RateLimiter.Decision;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateLimiterTest {
+
+    private long now = 0;
+
+    private RateLimiter createLimiter() {
+        // Defaults: 600 requests per 60 seconds, 120 for anonymous requests
+        return new RateLimiter(null, new RateLimitConfig(), uuid -> Set.of(), () -> now);
+    }
+
+    @Test
+    @DisplayName("Anonymous requests are limited per client IP")
+    void anonymousLimitedPerAddress() {
+        var limiter = createLimiter();
+
+        for (int i = 0; i < 120; i++) {
+            assertTrue(Decision.allowed(limiter.acquire(HytaleUserPrincipal.getAnonymous(), "10.0.0.1")));
+        }
+
+        var rejected = limiter.acquire(HytaleUserPrincipal.getAnonymous(), "10.0.0.1");
+        assertFalse(Decision.allowed(rejected));
+        assertEquals(0, Decision.remaining(rejected));
+        assertEquals(1, Decision.retryAfterSeconds(rejected));
+        assertEquals(60, Decision.resetSeconds(rejected));
+
+        assertTrue(Decision.allowed(limiter.acquire(HytaleUserPrincipal.getAnonymous(), "10.0.0.2")));
+    }
+
+    @Test
+    @DisplayName("Tokens refill evenly over the period")
+    void tokensRefill() {
+        var limiter = createLimiter();
+
+        for (int i = 0; i < 120; i++) {
+            limiter.acquire(null, "10.0.0.1");
+        }
+        assertFalse(Decision.allowed(limiter.acquire(null, "10.0.0.1")));
+
+        now += TimeUnit.MILLISECONDS.toNanos(500);
+        assertTrue(Decision.allowed(limiter.acquire(null, "10.0.0.1")));
+        assertFalse(Decision.allowed(limiter.acquire(null, "10.0.0.1")));
+    }
+
+    @Test
+    @DisplayName("Authenticated users are limited by UUID regardless of IP")
+    void authenticatedLimitedByUuid() {
+        var limiter = createLimiter();
+        var user = new HytaleUserPrincipal(UUID.randomUUID(), "user");
+
+        var first = limiter.acquire(user, "10.0.0.1");
+        assertEquals(600, Decision.limit(first));
+        assertEquals(599, Decision.remaining(first));
+
+        assertEquals(598, Decision.remaining(limiter.acquire(user, "10.0.0.2")));
+    }
+
+    @Test
+    @DisplayName("Principal overrides take precedence and 0 disables the limit")
+    void principalOverride() {
+        var limiter = createLimiter();
+        var user = new HytaleUserPrincipal(UUID.randomUUID(), "serviceaccount.example");
+
+        limiter.setPrincipalLimit(user.getUuid(), 10);
+        assertEquals(10, Decision.limit(limiter.acquire(user, "10.0.0.1")));
+
+        limiter.setPrincipalLimit(user.getUuid(), 0);
+        assertEquals(RateLimiter.UNLIMITED, limiter.acquire(user, "10.0.0.1"));
+    }
+
+    @Test
+    @DisplayName("Clients beyond the tracked maximum share an overflow bucket until idle buckets are evicted")
+    void overflowBeyondMaxTrackedClients() {
+        var config = spy(new RateLimitConfig());
+        when(config.getMaxTrackedClients()).thenReturn(2);
+        var limiter = new RateLimiter(null, config, uuid -> Set.of(), () -> now);
+
+        limiter.acquire(null, "10.0.0.1");
+        limiter.acquire(null, "10.0.0.2");
+
+        // New addresses share one bucket, so together they get a single burst
+        for (int i = 0; i < 120; i++) {
+            assertTrue(Decision.allowed(limiter.acquire(null, "10.0.1." + i)));
+        }
+        assertFalse(Decision.allowed(limiter.acquire(null, "10.0.2.1")));
+
+        // Tracked addresses keep their own bucket
+        assertEquals(118, Decision.remaining(limiter.acquire(null, "10.0.0.1")));
+
+        // Once the first buckets are full again, they are evicted and new addresses are tracked on their own
+        now += TimeUnit.SECONDS.toNanos(60);
+        assertEquals(119, Decision.remaining(limiter.acquire(null, "10.0.2.1")));
+    }
+}
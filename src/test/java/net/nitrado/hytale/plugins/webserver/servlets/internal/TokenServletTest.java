@@ -0,0 +1,130 @@
+package net.nitrado.hytale.plugins.webserver.servlets.internal;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.AccessTokenService;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.AuthExecutor;
+import net.nitrado.hytale.plugins.webserver.authentication.internal.LoginChallenge;
+import net.nitrado.hytale.plugins.webserver.authentication.store.CredentialValidator;
+import net.nitrado.hytale.plugins.webserver.authentication.store.LoginCodeStore;
+import net.nitrado.hytale.plugins.webserver.ratelimit.LoginFailureTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TokenServletTest {
+
+    private CredentialValidator validator;
+    private AuthExecutor executor;
+    private LoginChallenge challenge;
+    private TokenServlet servlet;
+    private HttpServletRequest req;
+    private HttpServletResponse resp;
+    private StringWriter body;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.validator = mock(CredentialValidator.class);
+        this.executor = mock(AuthExecutor.class);
+        this.challenge = mock(LoginChallenge.class);
+        this.servlet = new TokenServlet(mock(HytaleLogger.class, RETURNS_DEEP_STUBS), mock(AccessTokenService.class),
+                this.validator, mock(LoginCodeStore.class), mock(LoginFailureTracker.class), this.executor, this.challenge);
+
+        this.req = mock(HttpServletRequest.class);
+        when(this.req.getParameter("method")).thenReturn("password");
+        when(this.req.getParameter("username")).thenReturn("serviceaccount.example");
+        when(this.req.getParameter("password")).thenReturn("password");
+        when(this.req.startAsync()).thenReturn(mock(AsyncContext.class));
+
+        this.resp = mock(HttpServletResponse.class);
+        this.body = new StringWriter();
+        when(this.resp.getWriter()).thenReturn(new PrintWriter(this.body, true));
+    }
+
+    @Test
+    @DisplayName("Password grants are checked on the auth executor")
+    void hashesOnExecutor() throws Exception {
+        when(this.challenge.verify(any(), any())).thenReturn(true);
+        when(this.executor.execute(any())).thenReturn(true);
+
+        this.servlet.doPost(this.req, this.resp);
+
+        verify(this.req).startAsync();
+        verify(this.executor).execute(any());
+        verifyNoInteractions(this.validator);
+    }
+
+    @Test
+    @DisplayName("Password grants without a solved challenge receive one with a 503")
+    void requiresChallenge() throws Exception {
+        when(this.challenge.verify(any(), any())).thenReturn(false);
+        when(this.challenge.issue()).thenReturn("challenge");
+
+        this.servlet.doPost(this.req, this.resp);
+
+        verify(this.resp).setStatus(503);
+        assertTrue(this.body.toString().contains("\"challenge\": \"challenge\""), this.body.toString());
+        verifyNoInteractions(this.executor, this.validator);
+    }
+
+    @Test
+    @DisplayName("Password grants are rejected with a 503 while the hashing queue is full")
+    void rejectsWhenSaturated() throws Exception {
+        when(this.challenge.verify(any(), any())).thenReturn(true);
+        when(this.executor.execute(any())).thenReturn(false);
+
+        this.servlet.doPost(this.req, this.resp);
+
+        verify(this.resp).setStatus(503);
+        assertTrue(this.body.toString().contains("server_busy"));
+        verifyNoInteractions(this.validator);
+    }
+
+    @Test
+    @DisplayName("A full hashing queue rejects the grant with a 503 and Retry-After, and completes it right away")
+    void rejectsOnFullQueue() throws Exception {
+        var executor = new AuthExecutor(1, 1);
+        var entered = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        try {
+            // Occupy the only hashing thread, then the only queue slot
+            assertTrue(executor.execute(() -> {
+                entered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            assertTrue(executor.execute(() -> {}));
+
+            var async = mock(AsyncContext.class);
+            when(this.req.startAsync()).thenReturn(async);
+            when(this.challenge.verify(any(), any())).thenReturn(true);
+            var servlet = new TokenServlet(mock(HytaleLogger.class, RETURNS_DEEP_STUBS), mock(AccessTokenService.class),
+                    this.validator, mock(LoginCodeStore.class), mock(LoginFailureTracker.class), executor, this.challenge);
+
+            servlet.doPost(this.req, this.resp);
+
+            verify(this.resp).setHeader("Retry-After", "1");
+            verify(this.resp).setStatus(503);
+            verify(async).complete();
+            verifyNoInteractions(this.validator);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+}